@@ -0,0 +1,18 @@
+package excelian.maze;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks with the GC profiler, reporting allocation rates, enabled.
+ * Takes the usual JMH command line arguments, e.g. <code>SolveBenchmark -p cells=10000 -rf json</code>
+ */
+public class Benchmarks {
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().parent(new CommandLineOptions(args)).addProfiler(GCProfiler.class).build())
+				.run();
+	}
+}
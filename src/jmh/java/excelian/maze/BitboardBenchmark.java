@@ -0,0 +1,65 @@
+package excelian.maze;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Distance from S/START to F/FINISH and cells reachable from S/START found by a {@code BitboardSolver}
+ * against a {@code BreadthFirstSolver}, whose solve finds both.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g" })
+public class BitboardBenchmark {
+
+	private final BitboardSolver bitboard = new BitboardSolver();
+	private final Solver breadthFirst = new BreadthFirstSolver();
+	private SearchState state;
+	private Route.Builder route;
+
+	@Setup
+	public void createState(GeneratedMaze generated) {
+		state = new SearchState(generated.maze);
+		route = new Route.Builder(generated.maze);
+	}
+
+	@Benchmark
+	public int breadthFirst(GeneratedMaze generated) {
+		state.clear();
+		route.clear();
+		breadthFirst.solve(generated.maze, generated.maze.getStartCell(), state, route, ExplorationListener.NONE);
+		return route.length();
+	}
+
+	@Benchmark
+	public int bitboardDistance(GeneratedMaze generated) {
+		return bitboard.distance(generated.maze);
+	}
+
+	@Benchmark
+	public int bitboardSolve(GeneratedMaze generated) {
+		state.clear();
+		route.clear();
+		bitboard.solve(generated.maze, generated.maze.getStartCell(), state, route, ExplorationListener.NONE);
+		return route.length();
+	}
+
+	@Benchmark
+	public int bitboardReachable(GeneratedMaze generated) {
+		Maze.Cell start = generated.maze.getStartCell();
+		return bitboard.countReachable(generated.maze, start.getX(), start.getY());
+	}
+}
@@ -0,0 +1,83 @@
+package excelian.maze;
+
+import java.nio.IntBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import excelian.maze.Maze.Cell;
+import excelian.maze.MazeGenerator.Shape;
+
+/**
+ * A random walk of manual moves, each followed by {@code Explorer#whereAmI()}, against the same
+ * walk run as a batch of commands by {@code Explorer#execute(byte[], int, int, IntBuffer)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CommandBenchmark {
+
+	@Param({ "100", "10000" })
+	public int commands;
+
+	private Maze maze;
+	private byte[] walk;
+	private IntBuffer results;
+
+	@Setup
+	public void createWalk() {
+		maze = MazeGenerator.generate(Shape.OPEN_ROOM, 101, GeneratedMaze.SEED);
+		Random random = new Random(GeneratedMaze.SEED);
+		walk = new byte[commands];
+		for (int i = 0; i < commands; i++) {
+			walk[i] = (byte) random.nextInt(4);
+		}
+		results = IntBuffer.allocate(commands + 2);
+	}
+
+	@Benchmark
+	public int manualMoves() {
+		Explorer explorer = new Explorer(maze);
+		int x = 0;
+		for (byte command : walk) {
+			switch (command) {
+			case Explorer.TURN_RIGHT:
+				explorer.turnRight();
+				break;
+			case Explorer.MOVE_DOWN:
+				explorer.moveDown();
+				break;
+			case Explorer.TURN_LEFT:
+				explorer.turnLeft();
+				break;
+			default:
+				explorer.moveUp();
+			}
+			Cell cell = explorer.whereAmI();
+			x += cell.getX();
+		}
+		return x;
+	}
+
+	@Benchmark
+	public int execute() {
+		Explorer explorer = new Explorer(maze);
+		results.clear();
+		explorer.execute(walk, 0, walk.length, results);
+		return results.get(0);
+	}
+}
@@ -0,0 +1,66 @@
+package excelian.maze;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Dead ends filled by a {@code DeadEndFilter}, and solves of the maze against solves of the maze
+ * pruned, whose sum with the filter is what filtering saves, or costs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g" })
+public class DeadEndBenchmark {
+
+	@Param({ "BREADTH_FIRST", "DEPTH_FIRST" })
+	public SolverType solverType;
+
+	private Solver solver;
+	private Maze pruned;
+	private SearchState state;
+	private Route.Builder route;
+
+	@Setup
+	public void prune(GeneratedMaze generated) {
+		solver = solverType.newSolver();
+		pruned = DeadEndFilter.filter(generated.maze).getPrunedMaze();
+		state = new SearchState(generated.maze);
+		route = new Route.Builder(generated.maze);
+	}
+
+	@Benchmark
+	public int filter(GeneratedMaze generated) {
+		return DeadEndFilter.filter(generated.maze).getCellsRemoved();
+	}
+
+	@Benchmark
+	public int solve(GeneratedMaze generated) {
+		return solve(generated.maze);
+	}
+
+	@Benchmark
+	public int solvePruned() {
+		return solve(pruned);
+	}
+
+	private int solve(Maze maze) {
+		state.clear();
+		route.clear();
+		solver.solve(maze, maze.getStartCell(), state, route, ExplorationListener.NONE);
+		return route.length();
+	}
+}
@@ -0,0 +1,42 @@
+package excelian.maze;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading maze text and exploring it depth first, as {@code Explorer} does by default.
+ * The route is kept run length encoded, see {@code SolveBenchmark}. The same text given to a
+ * {@code SolveCache} again hashes it, parsing and solving nothing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g" })
+public class EndToEndBenchmark {
+
+	@Benchmark
+	public int readAndExplore(GeneratedMaze generated) {
+		Maze maze = new MazeReader().makeMaze(generated.text);
+		Route.Builder route = new Route.Builder(maze);
+		new DepthFirstSolver().solve(maze, maze.getStartCell(), new SearchState(maze), route, ExplorationListener.NONE);
+		return route.length();
+	}
+
+	private final SolveCache cache = new SolveCache(16, 1 << 20);
+
+	@Benchmark
+	public int readAndExploreCached(GeneratedMaze generated) {
+		return cache.solve(generated.text, SolverType.DEPTH_FIRST).getStats().getPathLength();
+	}
+}
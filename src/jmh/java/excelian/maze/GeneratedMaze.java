@@ -0,0 +1,42 @@
+package excelian.maze;
+
+import java.nio.ByteBuffer;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import excelian.maze.MazeGenerator.Shape;
+
+/**
+ * Generated maze shared by the benchmarks, of each shape and size from 10^2 to 10^8 cells.
+ */
+@State(Scope.Benchmark)
+public class GeneratedMaze {
+
+	static final long SEED = 42;
+
+	@Param({ "CORRIDOR", "OPEN_ROOM", "PERFECT" })
+	public Shape shape;
+
+	@Param({ "100", "10000", "1000000", "100000000" })
+	public long cells;
+
+	int side;
+	byte[] grid;
+	ByteBuffer text;
+	Maze maze;
+
+	@Setup(org.openjdk.jmh.annotations.Level.Trial)
+	public void generate() {
+		// benchmark the work, not the logging
+		Logger.getRootLogger().setLevel(Level.WARN);
+		side = MazeGenerator.sideFor(cells);
+		grid = MazeGenerator.grid(shape, side, SEED);
+		text = ByteBuffer.wrap(MazeGenerator.toText(grid, side));
+		maze = new Maze(grid, side, side);
+	}
+}
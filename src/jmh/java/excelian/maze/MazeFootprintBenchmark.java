@@ -0,0 +1,63 @@
+package excelian.maze;
+
+import java.awt.Point;
+import java.nio.ByteBuffer;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+import excelian.maze.Maze.Cell;
+
+/**
+ * Reports the retained heap per maze cell of a {@code Cell[][]} grid as previously built by
+ * {@code MazeReader}, against the packed grid now held by {@code Maze}.
+ * Run with a fixed heap for stable figures, e.g. <code>-Xms2g -Xmx2g</code>.
+ * Optional argument is the maze side length, odd, default 2001.
+ */
+public class MazeFootprintBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		Logger.getRootLogger().setLevel(Level.WARN);
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 2001;
+		byte[] text = MazeGenerator.generateText(MazeGenerator.Shape.CORRIDOR, size, GeneratedMaze.SEED);
+		long cells = (long) size * size;
+
+		long before = usedHeap();
+		Cell[][] legacy = legacyCells(text, size);
+		long legacyBytes = usedHeap() - before;
+		System.out.println(String.format("Cell[][]    : %,d bytes, %.2f bytes/cell", legacyBytes, (double) legacyBytes / cells));
+		legacy = null;
+
+		before = usedHeap();
+		Maze maze = new MazeReader().makeMaze(ByteBuffer.wrap(text));
+		long packedBytes = usedHeap() - before;
+		System.out.println(String.format("packed Maze : %,d bytes, %.2f bytes/cell", packedBytes, (double) packedBytes / cells));
+		System.out.println(String.format("maze of %s rows, %s walls", maze.height(), maze.getNumberOfWalls()));
+	}
+
+	/** one {@code Cell} and {@code Point} per character, as {@code MazeReader.parse} used to do */
+	private static Cell[][] legacyCells(byte[] text, int size) {
+		Cell[][] cells = new Cell[size][size];
+		int x = 0, y = 0;
+		for (byte b : text) {
+			if (b == '\n') {
+				x = 0;
+				y++;
+				continue;
+			}
+			Cell.Type type = b == 'X' ? Cell.Type.WALL : b == 'S' ? Cell.Type.START : b == 'F' ? Cell.Type.FINISH : Cell.Type.SPACE;
+			cells[y][x] = new Cell(type, new Point(x, y));
+			x++;
+		}
+		return cells;
+	}
+
+	private static long usedHeap() throws InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
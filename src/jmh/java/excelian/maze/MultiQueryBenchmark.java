@@ -0,0 +1,84 @@
+package excelian.maze;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import excelian.maze.MultiQuerySolver.Path;
+import excelian.maze.MultiQuerySolver.Query;
+
+/**
+ * Batch of random queries solved by a {@code MultiQuerySolver} on pools of 1 to all cores,
+ * throughput should grow close to linearly with the threads.
+ * Run with <code>-p cells=10000 -p cells=1000000</code>, larger mazes take minutes per batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g" })
+public class MultiQueryBenchmark {
+
+	static final int QUERIES = 256;
+
+	@Param({ "BREADTH_FIRST", "A_STAR", "BIDIRECTIONAL" })
+	public SolverType solverType;
+
+	/** 0 for all available cores */
+	@Param({ "1", "2", "4", "0" })
+	public int threads;
+
+	private ForkJoinPool pool;
+	private MultiQuerySolver solver;
+	private List<Query> queries;
+
+	@Setup
+	public void createSolver(GeneratedMaze generated) {
+		Maze maze = generated.maze;
+		pool = new ForkJoinPool(threads == 0 ? Runtime.getRuntime().availableProcessors() : threads);
+		solver = new MultiQuerySolver(maze, solverType, pool);
+		Random random = new Random(GeneratedMaze.SEED);
+		queries = new ArrayList<>();
+		while (queries.size() < QUERIES) {
+			int[] cells = new int[2];
+			for (int i = 0; i < cells.length; i++) {
+				do {
+					cells[i] = random.nextInt(maze.cellCount());
+				} while (!maze.isOpen(cells[i]));
+			}
+			queries.add(new Query(cells[0] % maze.width(), cells[0] / maze.width(), cells[1] % maze.width(),
+					cells[1] / maze.width()));
+		}
+	}
+
+	@TearDown
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/** Throughput is in batches of 256 queries */
+	@Benchmark
+	public int solveAll() {
+		int cells = 0;
+		for (Path path : solver.solveAll(queries)) {
+			cells += path.length();
+		}
+		return cells;
+	}
+}
@@ -0,0 +1,68 @@
+package excelian.maze;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A single solve by a {@code ParallelBreadthFirstSolver} on pools of 1 to 16 threads, against
+ * {@code BreadthFirstSolver} at 0 threads. Speed up needs wide frontiers, as in OPEN_ROOM mazes:
+ * the frontier of a PERFECT maze is a few cells wide, its levels expanded in the calling thread.
+ * Run with <code>-p cells=100000000</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g" })
+public class ParallelSolveBenchmark {
+
+	/** 0 for a sequential {@code BreadthFirstSolver} */
+	@Param({ "0", "1", "2", "4", "8", "16" })
+	public int threads;
+
+	private ForkJoinPool pool;
+	private Solver solver;
+	private SearchState state;
+	private Route.Builder route;
+
+	@Setup
+	public void createSolver(GeneratedMaze generated) {
+		if (threads == 0) {
+			solver = new BreadthFirstSolver();
+		} else {
+			pool = new ForkJoinPool(threads);
+			solver = new ParallelBreadthFirstSolver(pool);
+		}
+		state = new SearchState(generated.maze);
+		route = new Route.Builder(generated.maze);
+	}
+
+	@TearDown
+	public void shutdown() {
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	@Benchmark
+	public int solve(GeneratedMaze generated) {
+		state.clear();
+		route.clear();
+		solver.solve(generated.maze, generated.maze.getStartCell(), state, route, ExplorationListener.NONE);
+		return route.length();
+	}
+}
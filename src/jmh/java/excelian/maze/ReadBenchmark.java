@@ -0,0 +1,73 @@
+package excelian.maze;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading a maze into a {@code Maze}: parsing text from memory, in one pass and in parallel chunks,
+ * and from a memory mapped file, and reading the binary format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g" })
+public class ReadBenchmark {
+
+	private final MazeReader reader = new MazeReader();
+	private final ForkJoinPool pool = new ForkJoinPool();
+	private final MazeReader parallelReader = new MazeReader(pool);
+	private File textFile;
+	private File binaryFile;
+
+	@Setup
+	public void writeFiles(GeneratedMaze generated) throws IOException {
+		textFile = File.createTempFile("maze", ".txt");
+		Files.write(textFile.toPath(), generated.text.array());
+		binaryFile = File.createTempFile("maze", ".mazb");
+		MazeBinaryFormat.write(generated.maze, binaryFile);
+	}
+
+	@TearDown
+	public void deleteFiles() {
+		textFile.delete();
+		binaryFile.delete();
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public Maze parseText(GeneratedMaze generated) {
+		return reader.makeMaze(generated.text);
+	}
+
+	@Benchmark
+	public Maze parseTextParallel(GeneratedMaze generated) {
+		return parallelReader.makeMaze(generated.text);
+	}
+
+	@Benchmark
+	public Maze readTextFile() throws IOException {
+		return reader.makeMaze(textFile);
+	}
+
+	@Benchmark
+	public Maze readBinaryFile() throws IOException {
+		return reader.makeMaze(binaryFile);
+	}
+}
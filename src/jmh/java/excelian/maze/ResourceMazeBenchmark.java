@@ -0,0 +1,52 @@
+package excelian.maze;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Exploring the mazes shipped in the resources with an {@code Explorer}, depth first as by
+ * default against the shortest route solvers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ResourceMazeBenchmark {
+
+	@Param({ "src/main/resources/maze.txt", "src/test/resources/maze.txt" })
+	public String file;
+
+	@Param({ "DEPTH_FIRST", "A_STAR", "JUMP_POINT" })
+	public SolverType solverType;
+
+	private Explorer explorer;
+
+	@Setup
+	public void createExplorer() throws IOException {
+		Logger.getRootLogger().setLevel(Level.WARN);
+		explorer = new Explorer(new MazeReader().makeMaze(new File(file)), solverType.newSolver());
+	}
+
+	@Benchmark
+	public int explore() {
+		explorer.exploreMaze();
+		return explorer.getPathLength();
+	}
+}
@@ -0,0 +1,50 @@
+package excelian.maze;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Solving a loaded maze with each {@code SolverType}. The route is kept run length encoded
+ * in a {@code Route.Builder} reused from one invocation to the next.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g" })
+public class SolveBenchmark {
+
+	@Param({ "DEPTH_FIRST", "BREADTH_FIRST", "A_STAR", "BIDIRECTIONAL", "JUMP_POINT", "JUNCTION_GRAPH" })
+	public SolverType solverType;
+
+	private Solver solver;
+	private SearchState state;
+	private Route.Builder route;
+
+	@Setup
+	public void createSolver(GeneratedMaze generated) {
+		solver = solverType.newSolver();
+		state = new SearchState(generated.maze);
+		route = new Route.Builder(generated.maze);
+	}
+
+	@Benchmark
+	public int solve(GeneratedMaze generated) {
+		state.clear();
+		route.clear();
+		solver.solve(generated.maze, generated.maze.getStartCell(), state, route, ExplorationListener.NONE);
+		return route.length();
+	}
+}
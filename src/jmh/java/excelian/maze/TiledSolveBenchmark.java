@@ -0,0 +1,77 @@
+package excelian.maze;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Breadth first solving of a maze read into a {@code TileCache} of 4096 cell tiles, holding from a
+ * few tiles to all of them, against the same maze held in the heap: the cost of tile misses.
+ * The counters of each cache are logged on tear down.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g" })
+public class TiledSolveBenchmark {
+
+	/** tiles held in the heap, 0 for a maze held in the heap rather than tiled */
+	@Param({ "0", "16", "256", "4096" })
+	public int maxTiles;
+
+	private File textFile;
+	private File tileFile;
+	private Maze maze;
+	private final Solver solver = new BreadthFirstSolver();
+	private SearchState state;
+	private Route.Builder route;
+
+	@Setup
+	public void read(GeneratedMaze generated) throws IOException {
+		if (maxTiles == 0) {
+			maze = generated.maze;
+		} else {
+			textFile = File.createTempFile("maze", ".txt");
+			Files.write(textFile.toPath(), generated.text.array());
+			tileFile = File.createTempFile("maze", ".tiles");
+			maze = new MazeReader().makeMaze(textFile, new TileCache(tileFile, 4096, maxTiles));
+		}
+		state = new SearchState(maze);
+		route = new Route.Builder(maze);
+	}
+
+	@TearDown
+	public void close() throws IOException {
+		if (maze.getTileCache() != null) {
+			Logger.getLogger(TiledSolveBenchmark.class).warn(maze.getTileCache());
+			maze.getTileCache().close();
+			textFile.delete();
+			tileFile.delete();
+		}
+	}
+
+	@Benchmark
+	public int solve() {
+		state.clear();
+		route.clear();
+		solver.solve(maze, maze.getStartCell(), state, route, ExplorationListener.NONE);
+		return route.length();
+	}
+}
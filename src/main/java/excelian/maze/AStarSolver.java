@@ -0,0 +1,86 @@
+package excelian.maze;
+
+/**
+ * A* solver guided by the Manhattan distance to the F/FINISH cell, finds a shortest route.
+ * Given a {@code DistanceIndex} of the maze, it is guided instead by the bounds the distances
+ * from its landmarks set, never looser than the Manhattan distance, so that fewer cells are
+ * expanded; the index is ignored for other mazes and once the maze is edited.
+ * Open cells are kept in an {@code IntMinHeap} ordered by estimated route length, ties
+ * broken in favour of cells nearer the finish.
+ * Not ThreadSafe
+ * @author FN
+ */
+public class AStarSolver extends ShortestPathSolver {
+
+	private static final int UNREACHED = Integer.MAX_VALUE;
+	private final IntMinHeap open = new IntMinHeap();
+	private final StampedInts costs = new StampedInts(UNREACHED);
+	private final DistanceIndex landmarks;
+
+	public AStarSolver() {
+		this(null);
+	}
+
+	/**
+	 * @param landmarks distances from the finish and landmarks of the maze to solve, null for the
+	 *            Manhattan distance only
+	 */
+	public AStarSolver(DistanceIndex landmarks) {
+		this.landmarks = landmarks;
+	}
+
+	@Override
+	int search(Maze maze, int start, int finish, SearchState state, ExplorationListener listener) {
+		costs.reset(maze.cellCount());
+		open.clear();
+		DistanceIndex bounds = landmarks != null && landmarks.getMaze() == maze && landmarks.isCurrent() ? landmarks
+				: null;
+		costs.set(start, 0);
+		open.add(start, priority(0, estimate(maze, bounds, start, finish)));
+		boolean reportWalls = listener != ExplorationListener.NONE;
+		while (!open.isEmpty()) {
+			state.frontierSize(open.size());
+			int index = open.poll();
+			if (state.isVisited(index)) {
+				// stale entry, cell already expanded at a lower cost
+				continue;
+			}
+			if (index == finish) {
+				open.clear();
+				return finish;
+			}
+			state.visit(index);
+			state.countExpansion();
+			listener.onVisit(index);
+			int cost = costs.get(index) + 1;
+			int neighbours = maze.openNeighbours(index);
+			for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+				if ((neighbours & 1 << direction) == 0) {
+					if (reportWalls) {
+						reportWall(maze, index, direction, listener);
+					}
+					continue;
+				}
+				int next = index + maze.offset(direction);
+				if (state.isVisited(next) || cost >= costs.get(next)) {
+					listener.onRevisit(next);
+					continue;
+				}
+				costs.set(next, cost);
+				state.setParent(next, index);
+				int estimate = estimate(maze, bounds, next, finish);
+				open.add(next, priority(cost + estimate, estimate));
+			}
+		}
+		return -1;
+	}
+
+	/** @return steps from index to finish at least, as bounded by the landmarks if any */
+	private static int estimate(Maze maze, DistanceIndex bounds, int index, int finish) {
+		return bounds == null ? maze.distance(index, finish) : bounds.lowerBound(index, finish);
+	}
+
+	private static long priority(int estimatedLength, int remaining) {
+		return ((long) estimatedLength << 32) | remaining;
+	}
+}
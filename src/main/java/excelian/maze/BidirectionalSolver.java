@@ -0,0 +1,121 @@
+package excelian.maze;
+
+/**
+ * Bidirectional breadth first solver, searching from the start and F/FINISH cells at once
+ * and always growing the smaller frontier by a whole level. Finds a shortest route, stopping
+ * as soon as the two searches meet.
+ * Not ThreadSafe
+ * @author FN
+ */
+public class BidirectionalSolver extends ShortestPathSolver {
+
+	private IntQueue forward = new IntQueue();
+	private IntQueue backward = new IntQueue();
+	/** cells reached from the finish, and the cell each was reached from */
+	private final StampedInts towardsFinish = new StampedInts(SearchState.NONE);
+
+	@Override
+	int search(Maze maze, int start, int finish, SearchState state, ExplorationListener listener) {
+		reset(maze);
+		state.visit(start);
+		forward.add(start);
+		towardsFinish.set(finish, SearchState.NONE);
+		backward.add(finish);
+		while (!forward.isEmpty() && !backward.isEmpty()) {
+			state.frontierSize(forward.size() + backward.size());
+			boolean fromStart = forward.size() <= backward.size();
+			// the two searches meet on an edge (near, far): near reached by the side being grown
+			long meeting = fromStart ? growForward(maze, state, listener) : growBackward(maze, state, listener);
+			if (meeting >= 0) {
+				int near = (int) (meeting >>> 32);
+				int far = (int) meeting;
+				if (fromStart) {
+					join(state, near, far);
+				} else {
+					join(state, far, near);
+				}
+				return finish;
+			}
+		}
+		return -1;
+	}
+
+	private void reset(Maze maze) {
+		forward.clear();
+		backward.clear();
+		towardsFinish.reset(maze.cellCount());
+	}
+
+	/** @return meeting edge packed as (near &lt;&lt; 32 | far), -1 if the searches have not met */
+	private long growForward(Maze maze, SearchState state, ExplorationListener listener) {
+		for (int level = forward.size(); level > 0; level--) {
+			int index = forward.poll();
+			state.countExpansion();
+			listener.onVisit(index);
+			int open = maze.openNeighbours(index);
+			for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+				if ((open & 1 << direction) == 0) {
+					if (listener != ExplorationListener.NONE) {
+						reportWall(maze, index, direction, listener);
+					}
+					continue;
+				}
+				int next = index + maze.offset(direction);
+				if (state.isVisited(next)) {
+					listener.onRevisit(next);
+					continue;
+				}
+				if (towardsFinish.isSet(next)) {
+					return ((long) index << 32) | next;
+				}
+				state.visit(next);
+				state.setParent(next, index);
+				forward.add(next);
+			}
+		}
+		return -1;
+	}
+
+	private long growBackward(Maze maze, SearchState state, ExplorationListener listener) {
+		for (int level = backward.size(); level > 0; level--) {
+			int index = backward.poll();
+			state.countExpansion();
+			listener.onVisit(index);
+			int open = maze.openNeighbours(index);
+			for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+				if ((open & 1 << direction) == 0) {
+					if (listener != ExplorationListener.NONE) {
+						reportWall(maze, index, direction, listener);
+					}
+					continue;
+				}
+				int next = index + maze.offset(direction);
+				if (towardsFinish.isSet(next)) {
+					listener.onRevisit(next);
+					continue;
+				}
+				if (state.isVisited(next)) {
+					return ((long) index << 32) | next;
+				}
+				towardsFinish.set(next, index);
+				backward.add(next);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Links the cells from the meeting point to the finish into the parent links of state, so they
+	 * lead from the finish back to start.
+	 * @param reachedFromStart last cell of the route reached from start
+	 * @param reachedFromEnd first cell of the route reached from the finish
+	 */
+	private void join(SearchState state, int reachedFromStart, int reachedFromEnd) {
+		int previous = reachedFromStart;
+		for (int index = reachedFromEnd; index != SearchState.NONE; index = towardsFinish.get(index)) {
+			state.visit(index);
+			state.setParent(index, previous);
+			previous = index;
+		}
+	}
+}
@@ -0,0 +1,268 @@
+package excelian.maze;
+
+import java.util.Arrays;
+
+import excelian.maze.Maze.Cell;
+
+/**
+ * Breadth first flood fill advancing 64 cells a step: each row of the maze is held as
+ * <code>long</code> words of one bit per cell, and each wavefront is grown into the next by
+ * shifting, OR-ing and AND-ing whole words with the bitmap of open cells. The words of the
+ * wavefront are listed, only those and the words next to them being touched, so a narrow wavefront,
+ * as in a PERFECT maze, costs a few words a step however large the maze.
+ * The distance to the finish is the number of wavefronts grown to reach it. The wavefront each cell
+ * joined is kept, modulo 3, in two more bitmaps: walking back from the finish to the neighbour of
+ * the wavefront before, each step, recovers a shortest route in three bits per cell, with no parent
+ * links. Only the finish is reported to the listener.
+ * A wavefront of a 4-connected grid runs diagonally, a cell or two to a word, so distances cost about
+ * as much as breadth first search. Cells reachable, needing no wavefront numbers, are found far
+ * faster: each word grown into is filled along its runs of open cells at once.
+ * Words are processed one <code>long</code> at a time, in plain Java.
+ * Not ThreadSafe
+ * @author FN
+ */
+public class BitboardSolver implements Solver {
+
+	private Maze maze;
+	private long version;
+	private int width;
+	private int height;
+	private int rowWords;
+	/** bitmaps of rowWords words per row: open cells, cells reached, wavefronts modulo 3 */
+	private long[] open;
+	private long[] reached;
+	private long[] wavefront;
+	private long[] next;
+	private long[] low;
+	private long[] high;
+	/** words of the wavefront and of the next, those not listed being 0 */
+	private int[] words = new int[64];
+	private int[] nextWords = new int[64];
+	private int wordCount;
+	private int nextWordCount;
+	private int cellsReached;
+	private int cellsExpanded;
+	private int peakWavefront;
+
+	@Override
+	public boolean solve(Maze maze, Cell start, SearchState state, Route.Builder route, ExplorationListener listener) {
+		int from = maze.indexOf(start.getX(), start.getY());
+		int finish = maze.finishIndex();
+		int distance = fill(maze, from, finish);
+		state.countExpansions(cellsExpanded);
+		state.frontierSize(peakWavefront);
+		if (distance < 0) {
+			return false;
+		}
+		int[] path = new int[distance + 1];
+		path[distance] = finish;
+		for (int step = distance; step > 0; step--) {
+			path[step - 1] = previous(path[step], (step - 1) % 3);
+		}
+		for (int index : path) {
+			state.visit(index);
+			route.add(index);
+		}
+		listener.onFinish(finish);
+		state.setPathLength(path.length);
+		state.moveTo(finish);
+		return true;
+	}
+
+	/** @return number of steps on a shortest route from S/START to F/FINISH, -1 if there is none */
+	public int distance(Maze maze) {
+		return fill(maze, maze.startIndex(), maze.finishIndex());
+	}
+
+	/**
+	 * Grows wavefronts as {@code distance(Maze)} does, but each word grown into is filled along its
+	 * runs of open cells at once, so that a wavefront runs the length of an open row in a step.
+	 * @return number of open cells reachable from the open cell at x, y, that cell included
+	 */
+	public int countReachable(Maze maze, int x, int y) {
+		fill(maze, maze.indexOf(x, y), -1);
+		return cellsReached;
+	}
+
+	/**
+	 * Grows wavefronts from start until finish is reached, or no cell is left to reach.
+	 * @return number of wavefronts grown to reach finish, -1 if not reached
+	 */
+	private int fill(Maze maze, int start, int finish) {
+		prepare(maze);
+		int word = word(start);
+		long bit = 1L << start % width;
+		reached[word] = bit;
+		wavefront[word] = bit;
+		words[0] = word;
+		wordCount = 1;
+		cellsReached = 1;
+		cellsExpanded = 0;
+		peakWavefront = 1;
+		int cells = 1;
+		for (int distance = 0;; distance++) {
+			if (finish >= 0 && (reached[word(finish)] & 1L << finish % width) != 0) {
+				for (int i = 0; i < wordCount; i++) {
+					wavefront[words[i]] = 0;
+				}
+				wordCount = 0;
+				return distance;
+			} else if (wordCount == 0) {
+				return -1;
+			}
+			cellsExpanded += cells;
+			cells = grow((distance + 1) % 3, finish < 0);
+			cellsReached += cells;
+			peakWavefront = Math.max(peakWavefront, cells);
+		}
+	}
+
+	/** Sizes and clears the bitmaps for maze, the open cells being set again only if it has changed */
+	private void prepare(Maze maze) {
+		if (maze != this.maze || maze.version() != version) {
+			this.maze = maze;
+			this.version = maze.version();
+			width = maze.width();
+			height = maze.height();
+			rowWords = (width + 63) >>> 6;
+			int words = height * rowWords;
+			if (open == null || open.length != words) {
+				open = new long[words];
+				reached = new long[words];
+				wavefront = new long[words];
+				next = new long[words];
+				low = new long[words];
+				high = new long[words];
+			}
+			Arrays.fill(open, 0);
+			for (int index = 0, cells = maze.cellCount(); index < cells; index++) {
+				if (maze.isOpen(index)) {
+					open[word(index)] |= 1L << index % width;
+				}
+			}
+		}
+		Arrays.fill(reached, 0);
+		Arrays.fill(low, 0);
+		Arrays.fill(high, 0);
+	}
+
+	/**
+	 * Grows the wavefront into the unreached open cells next to it, which become the wavefront.
+	 * Each word of the wavefront may reach cells of the words above and below it, itself, and the
+	 * words either side if its first or last cell is in the wavefront.
+	 * @param level wavefront number, modulo 3, of the cells reached
+	 * @param runs whether to fill the runs of open cells reached, losing the wavefront numbers
+	 * @return number of cells reached
+	 */
+	private int grow(int level, boolean runs) {
+		int cells = 0;
+		int last = wavefront.length - rowWords;
+		for (int i = 0; i < wordCount; i++) {
+			int word = words[i];
+			long bits = wavefront[word];
+			int column = rowWords == 1 ? 0 : word % rowWords;
+			if (word >= rowWords) {
+				cells += grow(word - rowWords, column, level, runs);
+			}
+			if (word < last) {
+				cells += grow(word + rowWords, column, level, runs);
+			}
+			cells += grow(word, column, level, runs);
+			if ((bits & 1) != 0 && column > 0) {
+				cells += grow(word - 1, column - 1, level, runs);
+			}
+			if (bits < 0 && column < rowWords - 1) {
+				cells += grow(word + 1, column + 1, level, runs);
+			}
+		}
+		for (int i = 0; i < wordCount; i++) {
+			wavefront[words[i]] = 0;
+		}
+		long[] swapWords = wavefront;
+		wavefront = next;
+		next = swapWords;
+		int[] swap = words;
+		words = nextWords;
+		nextWords = swap;
+		wordCount = nextWordCount;
+		nextWordCount = 0;
+		return cells;
+	}
+
+	/**
+	 * Reaches the unreached open cells of word, in column of its row, next to cells of the wavefront,
+	 * listing the word in the next wavefront unless listed already.
+	 * @return number of cells reached
+	 */
+	private int grow(int word, int column, int level, boolean runs) {
+		long bits = wavefront[word];
+		long grown = bits << 1 | bits >>> 1;
+		if (column > 0) {
+			grown |= wavefront[word - 1] >>> 63;
+		}
+		if (column < rowWords - 1) {
+			grown |= wavefront[word + 1] << 63;
+		}
+		if (word >= rowWords) {
+			grown |= wavefront[word - rowWords];
+		}
+		if (word < wavefront.length - rowWords) {
+			grown |= wavefront[word + rowWords];
+		}
+		grown &= open[word] & ~reached[word];
+		if (grown == 0) {
+			return 0;
+		} else if (runs) {
+			grown = fillRuns(grown, open[word]) & ~reached[word];
+		}
+		if (next[word] == 0) {
+			if (nextWordCount == nextWords.length) {
+				nextWords = Arrays.copyOf(nextWords, nextWordCount * 2);
+			}
+			nextWords[nextWordCount++] = word;
+		}
+		next[word] |= grown;
+		reached[word] |= grown;
+		if ((level & 1) != 0) {
+			low[word] |= grown;
+		}
+		if ((level & 2) != 0) {
+			high[word] |= grown;
+		}
+		return Long.bitCount(grown);
+	}
+
+	/**
+	 * Adding a seed to a run of open cells carries it through the run, <code>(open + seeds) ^ open</code>
+	 * holding the cells of the run from the seed up; cells down are filled likewise in reverse.
+	 * @return cells of open in the runs holding seeds, which must be open
+	 */
+	static long fillRuns(long seeds, long open) {
+		long up = (open + seeds ^ open) & open;
+		long reversed = Long.reverse(open);
+		long down = Long.reverse((reversed + Long.reverse(seeds) ^ reversed) & reversed);
+		return seeds | up | down;
+	}
+
+	/** @return an open neighbour of index reached in the wavefront numbered level, modulo 3 */
+	private int previous(int index, int level) {
+		int neighbours = maze.openNeighbours(index);
+		for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+			if ((neighbours & 1 << direction) != 0) {
+				int neighbour = index + maze.offset(direction);
+				int word = word(neighbour);
+				long bit = 1L << neighbour % width;
+				if ((reached[word] & bit) != 0
+						&& ((low[word] & bit) != 0 ? 1 : 0) + ((high[word] & bit) != 0 ? 2 : 0) == level) {
+					return neighbour;
+				}
+			}
+		}
+		throw new IllegalStateException(String.format("No cell of wavefront %s next to cell %s", level, index));
+	}
+
+	/** @return bitmap word holding the cell at index, whose bit is <code>index % width</code> modulo 64 */
+	private int word(int index) {
+		return index / width * rowWords + (index % width >>> 6);
+	}
+}
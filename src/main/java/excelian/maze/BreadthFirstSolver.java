@@ -0,0 +1,47 @@
+package excelian.maze;
+
+/**
+ * Breadth first solver, finds a shortest route. Frontier is kept in an {@code IntQueue} ring buffer.
+ * Not ThreadSafe
+ * @author FN
+ */
+public class BreadthFirstSolver extends ShortestPathSolver {
+
+	private final IntQueue frontier = new IntQueue();
+
+	@Override
+	int search(Maze maze, int start, int finish, SearchState state, ExplorationListener listener) {
+		frontier.clear();
+		state.visit(start);
+		frontier.add(start);
+		boolean reportWalls = listener != ExplorationListener.NONE;
+		while (!frontier.isEmpty()) {
+			state.frontierSize(frontier.size());
+			int index = frontier.poll();
+			state.countExpansion();
+			listener.onVisit(index);
+			int open = maze.openNeighbours(index);
+			for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+				if ((open & 1 << direction) == 0) {
+					if (reportWalls) {
+						reportWall(maze, index, direction, listener);
+					}
+					continue;
+				}
+				int next = index + maze.offset(direction);
+				if (state.isVisited(next)) {
+					listener.onRevisit(next);
+					continue;
+				}
+				state.visit(next);
+				state.setParent(next, index);
+				if (next == finish) {
+					frontier.clear();
+					return finish;
+				}
+				frontier.add(next);
+			}
+		}
+		return -1;
+	}
+}
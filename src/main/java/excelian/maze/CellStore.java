@@ -0,0 +1,48 @@
+package excelian.maze;
+
+import java.util.zip.CRC32;
+
+/**
+ * Storage of the packed cells of a {@code Maze}, one byte per cell indexed by <code>y * width + x</code>,
+ * held in the heap or, for mazes larger than the heap, in tiles of a file, see {@code TileCache}.
+ * @author FN
+ */
+abstract class CellStore {
+
+	abstract byte get(int index);
+
+	abstract void set(int index, byte cell);
+
+	/** @return CRC32 of the first cells stored */
+	abstract long checksum(int cells);
+
+	/**
+	 * Cells held in a byte array.
+	 * ThreadSafe for reads
+	 */
+	static final class Heap extends CellStore {
+
+		private final byte[] cells;
+
+		Heap(byte[] cells) {
+			this.cells = cells;
+		}
+
+		@Override
+		byte get(int index) {
+			return cells[index];
+		}
+
+		@Override
+		void set(int index, byte cell) {
+			cells[index] = cell;
+		}
+
+		@Override
+		long checksum(int cells) {
+			CRC32 crc = new CRC32();
+			crc.update(this.cells, 0, cells);
+			return crc.getValue();
+		}
+	}
+}
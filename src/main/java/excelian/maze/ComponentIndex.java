@@ -0,0 +1,245 @@
+package excelian.maze;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Connected components of the open cells of a {@code Maze}, telling in O(1) whether two cells,
+ * S/START and F/FINISH say, are connected, and so whether a route between them exists at all.
+ * Components are labelled with union-find in parallel stripes of rows, each stripe joining its cells
+ * to their left and upper neighbours, the roots always being the lowest index of their set. The
+ * stripes are then merged along their borders, every cell is pointed straight at its root in parallel,
+ * and a last pass numbers the components in order of their first cell and counts their sizes.
+ * The index is of the maze as it was when built, see {@code isCurrent()}.
+ * Immutable, ThreadSafe
+ * @author FN
+ */
+public final class ComponentIndex {
+
+	/** component of walls */
+	public static final int NONE = -1;
+	/** cells labelled by each stripe at most */
+	private static final int STRIPE_CELLS = 1 << 18;
+
+	private final Maze maze;
+	private final long version;
+	/** component of each cell, {@code NONE} for walls */
+	private final int[] components;
+	private final int[] sizes;
+
+	private ComponentIndex(Maze maze, int[] components, int[] sizes) {
+		this.maze = maze;
+		this.version = maze.version();
+		this.components = components;
+		this.sizes = sizes;
+	}
+
+	public static ComponentIndex build(Maze maze) {
+		return build(maze, DefaultPool.POOL);
+	}
+
+	public static ComponentIndex build(Maze maze, ForkJoinPool pool) {
+		return build(maze, pool, Math.max(1, STRIPE_CELLS / maze.width()));
+	}
+
+	static ComponentIndex build(Maze maze, ForkJoinPool pool, int stripeRows) {
+		int width = maze.width();
+		int height = maze.height();
+		int[] parents = new int[maze.cellCount()];
+		pool.invoke(new Stripes(maze, parents, 0, height, stripeRows));
+		for (int y = stripeRows; y < height; y += stripeRows) {
+			for (int index = y * width, end = index + width; index < end; index++) {
+				if (parents[index] != NONE && parents[index - width] != NONE) {
+					union(parents, index, index - width);
+				}
+			}
+		}
+		pool.invoke(new Roots(parents, 0, parents.length));
+		return new ComponentIndex(maze, parents, number(parents));
+	}
+
+	/**
+	 * Replaces the root of each cell by the number of its component, roots coming before the other
+	 * cells of their component.
+	 * @return size of each component
+	 */
+	private static int[] number(int[] parents) {
+		int[] sizes = new int[16];
+		int count = 0;
+		for (int index = 0; index < parents.length; index++) {
+			int root = parents[index];
+			if (root == NONE) {
+				continue;
+			}
+			int component;
+			if (root == index) {
+				if (count == sizes.length) {
+					sizes = Arrays.copyOf(sizes, count * 2);
+				}
+				component = count++;
+			} else {
+				// numbered already
+				component = parents[root];
+			}
+			parents[index] = component;
+			sizes[component]++;
+		}
+		return Arrays.copyOf(sizes, count);
+	}
+
+	private static int find(int[] parents, int index) {
+		while (parents[index] != index) {
+			// path halving
+			parents[index] = parents[parents[index]];
+			index = parents[index];
+		}
+		return index;
+	}
+
+	private static void union(int[] parents, int a, int b) {
+		int rootA = find(parents, a);
+		int rootB = find(parents, b);
+		if (rootA < rootB) {
+			parents[rootB] = rootA;
+		} else if (rootB < rootA) {
+			parents[rootA] = rootB;
+		}
+	}
+
+	/** Labels the stripes of rows from (inclusive) to (exclusive), each on its own */
+	private static final class Stripes extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final Maze maze;
+		private final int[] parents;
+		private final int from;
+		private final int to;
+		private final int stripeRows;
+
+		Stripes(Maze maze, int[] parents, int from, int to, int stripeRows) {
+			this.maze = maze;
+			this.parents = parents;
+			this.from = from;
+			this.to = to;
+			this.stripeRows = stripeRows;
+		}
+
+		@Override
+		protected void compute() {
+			int stripes = (to - from + stripeRows - 1) / stripeRows;
+			if (stripes > 1) {
+				int middle = from + stripes / 2 * stripeRows;
+				invokeAll(new Stripes(maze, parents, from, middle, stripeRows),
+						new Stripes(maze, parents, middle, to, stripeRows));
+				return;
+			}
+			int width = maze.width();
+			for (int y = from, index = from * width; y < to; y++) {
+				for (int x = 0; x < width; x++, index++) {
+					if (!maze.isOpen(index)) {
+						parents[index] = NONE;
+						continue;
+					}
+					parents[index] = index;
+					int open = maze.openNeighbours(index);
+					if ((open & 1 << Maze.LEFT) != 0) {
+						union(parents, index, index - 1);
+					}
+					if (y > from && (open & 1 << Maze.UP) != 0) {
+						union(parents, index, index - width);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Points each cell from (inclusive) to (exclusive) straight at its root. Roots are found without
+	 * compressing paths, a cell read while being pointed at its root leading to that root either way.
+	 */
+	private static final class Roots extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final int[] parents;
+		private final int from;
+		private final int to;
+
+		Roots(int[] parents, int from, int to) {
+			this.parents = parents;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > STRIPE_CELLS) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new Roots(parents, from, middle), new Roots(parents, middle, to));
+				return;
+			}
+			for (int index = from; index < to; index++) {
+				int root = parents[index];
+				if (root == NONE) {
+					continue;
+				}
+				while (parents[root] != root) {
+					root = parents[root];
+				}
+				parents[index] = root;
+			}
+		}
+	}
+
+	/** @return <code>false</code> if the maze has been edited since the index was built */
+	public boolean isCurrent() {
+		return maze.version() == version;
+	}
+
+	public Maze getMaze() {
+		return maze;
+	}
+
+	/** @return component of the cell, numbered from 0 in order of their first cell, {@code NONE} for walls */
+	public int componentOf(int x, int y) {
+		return components[maze.indexOf(x, y)];
+	}
+
+	int componentOf(int index) {
+		return components[index];
+	}
+
+	/** @return <code>true</code> if both cells are open and a route leads from one to the other */
+	public boolean isConnected(int x1, int y1, int x2, int y2) {
+		return isConnected(maze.indexOf(x1, y1), maze.indexOf(x2, y2));
+	}
+
+	boolean isConnected(int from, int to) {
+		return components[from] != NONE && components[from] == components[to];
+	}
+
+	/** @return <code>true</code> if a route leads from S/START to F/FINISH */
+	public boolean isSolvable() {
+		return isConnected(maze.startIndex(), maze.finishIndex());
+	}
+
+	/** @return number of components of open cells */
+	public int getNumberOfComponents() {
+		return sizes.length;
+	}
+
+	/** @return number of cells of the component */
+	public int getComponentSize(int component) {
+		return sizes[component];
+	}
+
+	@Override
+	public String toString() {
+		int largest = 0;
+		for (int size : sizes) {
+			largest = Math.max(largest, size);
+		}
+		return String.format("ComponentIndex [components=%s, largest=%s, solvable=%s]", sizes.length, largest,
+				isSolvable());
+	}
+}
@@ -0,0 +1,80 @@
+package excelian.maze;
+
+/**
+ * Counts the steps of explorations, cumulatively until reset.
+ * Not ThreadSafe
+ * @author FN
+ */
+public class CountingExplorationListener implements ExplorationListener {
+
+	private long starts;
+	private long visits;
+	private long walls;
+	private long revisits;
+	private long backtracks;
+	private long finishes;
+
+	@Override
+	public void onStart(Maze maze) {
+		starts++;
+	}
+
+	@Override
+	public void onVisit(int index) {
+		visits++;
+	}
+
+	@Override
+	public void onWall(int index) {
+		walls++;
+	}
+
+	@Override
+	public void onRevisit(int index) {
+		revisits++;
+	}
+
+	@Override
+	public void onBacktrack(int index) {
+		backtracks++;
+	}
+
+	@Override
+	public void onFinish(int index) {
+		finishes++;
+	}
+
+	public long getStarts() {
+		return starts;
+	}
+
+	public long getVisits() {
+		return visits;
+	}
+
+	public long getWalls() {
+		return walls;
+	}
+
+	public long getRevisits() {
+		return revisits;
+	}
+
+	public long getBacktracks() {
+		return backtracks;
+	}
+
+	public long getFinishes() {
+		return finishes;
+	}
+
+	public void reset() {
+		starts = visits = walls = revisits = backtracks = finishes = 0;
+	}
+
+	@Override
+	public String toString() {
+		return "CountingExplorationListener [starts=" + starts + ", visits=" + visits + ", walls=" + walls
+				+ ", revisits=" + revisits + ", backtracks=" + backtracks + ", finishes=" + finishes + "]";
+	}
+}
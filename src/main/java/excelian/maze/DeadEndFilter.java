@@ -0,0 +1,238 @@
+package excelian.maze;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import excelian.maze.Maze.Cell.Type;
+
+/**
+ * Copy of a {@code Maze} with the cells no route from S/START to F/FINISH needs walled up, for any
+ * {@code Solver} to explore without walking into dead ends and out again.
+ * Dead ends, open cells other than S/START and F/FINISH with at most one open neighbour, are filled
+ * from a worklist seeded with every dead end, each cell filled making a dead end of its neighbour
+ * if that is left with one open neighbour, until none is left. Loops are not filled. Cells out of
+ * reach of S/START, see {@code ComponentIndex}, are filled whatever their shape.
+ * Stripes of rows are filled in parallel, each filling the dead ends it finds among its rows and
+ * deferring the neighbours beyond them, which are then filled on from in the calling thread.
+ * The pruned maze is held in the heap and is of the maze as it was when filtered, see {@code isCurrent()}.
+ * Immutable, ThreadSafe
+ * @author FN
+ */
+public final class DeadEndFilter {
+
+	/** cells filled by each stripe at most */
+	private static final int STRIPE_CELLS = 1 << 18;
+	private static final byte WALL = (byte) Type.WALL.ordinal();
+	private static final byte SPACE = (byte) Type.SPACE.ordinal();
+
+	private final Maze maze;
+	private final long version;
+	private final Maze pruned;
+	private final int deadEnds;
+	private final int unreachable;
+	private final long filterNanos;
+
+	private DeadEndFilter(Maze maze, long version, Maze pruned, int deadEnds, int unreachable, long filterNanos) {
+		this.maze = maze;
+		this.version = version;
+		this.pruned = pruned;
+		this.deadEnds = deadEnds;
+		this.unreachable = unreachable;
+		this.filterNanos = filterNanos;
+	}
+
+	public static DeadEndFilter filter(Maze maze) {
+		return filter(maze, DefaultPool.POOL);
+	}
+
+	public static DeadEndFilter filter(Maze maze, ForkJoinPool pool) {
+		return filter(maze, pool, Math.max(1, STRIPE_CELLS / maze.width()));
+	}
+
+	static DeadEndFilter filter(Maze maze, ForkJoinPool pool, int stripeRows) {
+		long began = System.nanoTime();
+		long version = maze.version();
+		int width = maze.width();
+		int height = maze.height();
+		ComponentIndex components = maze.getComponents();
+		byte[] grid = new byte[maze.cellCount()];
+		byte[] degrees = new byte[grid.length];
+		Stripe[] stripes = new Stripe[(height + stripeRows - 1) / stripeRows];
+		for (int i = 0; i < stripes.length; i++) {
+			stripes[i] = new Stripe(maze, components, grid, degrees, i * stripeRows * width,
+					Math.min(height, (i + 1) * stripeRows) * width);
+		}
+		pool.invoke(new Stripes(stripes));
+		int deadEnds = 0;
+		int unreachable = 0;
+		IntStack work = new IntStack();
+		for (Stripe stripe : stripes) {
+			deadEnds += stripe.deadEnds;
+			unreachable += stripe.unreachable;
+			while (!stripe.deferred.isEmpty()) {
+				int index = stripe.deferred.pop();
+				if (grid[index] != WALL && --degrees[index] == 1 && grid[index] == SPACE) {
+					work.push(index);
+				}
+			}
+		}
+		deadEnds += fill(maze, grid, degrees, work, 0, grid.length, null);
+		int[] counts = new int[Type.values().length];
+		counts[WALL] = maze.getNumberOfWalls() + deadEnds + unreachable;
+		counts[SPACE] = maze.getNumberOfSpaces() - deadEnds - unreachable;
+		counts[Type.START.ordinal()] = 1;
+		counts[Type.FINISH.ordinal()] = 1;
+		Maze pruned = new Maze(grid, width, height, maze.startIndex(), maze.finishIndex(), counts, pool);
+		return new DeadEndFilter(maze, version, pruned, deadEnds, unreachable, System.nanoTime() - began);
+	}
+
+	/**
+	 * Fills the dead ends of work, and those they leave, among cells first (inclusive) to end
+	 * (exclusive), deferring the open neighbours of cells filled beyond those.
+	 * @return number of cells filled
+	 */
+	private static int fill(Maze maze, byte[] grid, byte[] degrees, IntStack work, int first, int end,
+			IntStack deferred) {
+		int filled = 0;
+		while (!work.isEmpty()) {
+			int index = work.pop();
+			if (grid[index] == WALL) {
+				continue;
+			}
+			grid[index] = WALL;
+			filled++;
+			int open = maze.openNeighbours(index);
+			for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+				if ((open & 1 << direction) == 0) {
+					continue;
+				}
+				int next = index + maze.offset(direction);
+				if (next < first || next >= end) {
+					deferred.push(next);
+				} else if (grid[next] != WALL && --degrees[next] == 1 && grid[next] == SPACE) {
+					work.push(next);
+				}
+			}
+		}
+		return filled;
+	}
+
+	/** Runs the stripes */
+	private static final class Stripes extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final Stripe[] stripes;
+
+		Stripes(Stripe[] stripes) {
+			this.stripes = stripes;
+		}
+
+		@Override
+		protected void compute() {
+			invokeAll(stripes);
+		}
+	}
+
+	/**
+	 * Copies the cells first (inclusive) to end (exclusive), filling those out of reach of S/START,
+	 * counts the open neighbours of the others then fills their dead ends.
+	 */
+	private static final class Stripe extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final Maze maze;
+		private final ComponentIndex components;
+		private final byte[] grid;
+		private final byte[] degrees;
+		private final int first;
+		private final int end;
+		private final IntStack deferred = new IntStack();
+		private int deadEnds;
+		private int unreachable;
+
+		Stripe(Maze maze, ComponentIndex components, byte[] grid, byte[] degrees, int first, int end) {
+			this.maze = maze;
+			this.components = components;
+			this.grid = grid;
+			this.degrees = degrees;
+			this.first = first;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			int start = components.componentOf(maze.startIndex());
+			IntStack work = new IntStack();
+			for (int index = first; index < end; index++) {
+				byte type = (byte) maze.typeAt(index).ordinal();
+				if (type == SPACE && components.componentOf(index) != start) {
+					type = WALL;
+					unreachable++;
+				}
+				grid[index] = type;
+				if (type != WALL) {
+					degrees[index] = (byte) Integer.bitCount(maze.openNeighbours(index));
+					if (type == SPACE && degrees[index] <= 1) {
+						work.push(index);
+					}
+				}
+			}
+			deadEnds = fill(maze, grid, degrees, work, first, end, deferred);
+		}
+	}
+
+	/** @return <code>false</code> if the maze has been edited since it was filtered */
+	public boolean isCurrent() {
+		return maze.version() == version;
+	}
+
+	/** @return maze filtered */
+	public Maze getMaze() {
+		return maze;
+	}
+
+	/** @return copy of the maze with the cells removed walled up */
+	public Maze getPrunedMaze() {
+		return pruned;
+	}
+
+	/** @return number of open cells walled up, dead ends and cells out of reach */
+	public int getCellsRemoved() {
+		return deadEnds + unreachable;
+	}
+
+	/** @return number of dead end cells filled */
+	public int getDeadEndsFilled() {
+		return deadEnds;
+	}
+
+	/** @return number of cells out of reach of S/START walled up */
+	public int getUnreachableRemoved() {
+		return unreachable;
+	}
+
+	/** @return time taken to filter the maze, pruned maze built included */
+	public long getFilterNanos() {
+		return filterNanos;
+	}
+
+	/**
+	 * Explores the maze, then the pruned maze, once each with a new solver of given type.
+	 * A single exploration is timed, so the result is no more than a rough guide.
+	 * @return time taken by the exploration of the maze less that of the pruned maze and the
+	 *         time taken to filter; negative where filtering does not pay for itself
+	 */
+	public long nanosSaved(SolverType solverType) {
+		Explorer original = new Explorer(maze, solverType.newSolver());
+		original.exploreMaze();
+		Explorer filtered = new Explorer(pruned, solverType.newSolver());
+		filtered.exploreMaze();
+		return original.getSolveStats().getSolveNanos() - filtered.getSolveStats().getSolveNanos() - filterNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("DeadEndFilter [deadEndsFilled=%s, unreachableRemoved=%s, filterMicros=%s]", deadEnds,
+				unreachable, filterNanos / 1000);
+	}
+}
@@ -0,0 +1,17 @@
+package excelian.maze;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Pool the parallel work of the package runs on unless given one, a thread per core shared by
+ * all, created on first use. Its threads are daemons.
+ * ThreadSafe
+ * @author FN
+ */
+final class DefaultPool {
+
+	static final ForkJoinPool POOL = new ForkJoinPool();
+
+	private DefaultPool() {
+	}
+}
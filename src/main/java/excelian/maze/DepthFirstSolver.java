@@ -0,0 +1,88 @@
+package excelian.maze;
+
+import excelian.maze.Maze.Cell;
+import excelian.maze.Maze.Cell.Type;
+
+/**
+ * Depth first, backtracking solver. Neighbours are attempted right, down, left then up
+ * and every cell entered is appended to the route, including those on branches
+ * later backtracked out of.
+ * Frames are kept on an explicit {@code IntStack} (cell index, next direction) so the
+ * call stack depth is constant whatever the size of the maze.
+ * Not ThreadSafe
+ * @author FN
+ */
+public class DepthFirstSolver implements Solver {
+
+	private static final int RIGHT = Maze.RIGHT;
+	private static final int EXHAUSTED = Maze.DIRECTIONS;
+
+	private final IntStack frames = new IntStack();
+
+	@Override
+	public boolean solve(Maze maze, Cell start, SearchState state, Route.Builder route, ExplorationListener listener) {
+		frames.clear();
+		if (enter(maze, maze.indexOf(start.getX(), start.getY()), state, route, listener)) {
+			return true;
+		}
+		boolean reportWalls = listener != ExplorationListener.NONE;
+		while (!frames.isEmpty()) {
+			int direction = frames.peek();
+			int index = frames.peek(1);
+			if (direction == EXHAUSTED) {
+				frames.pop();
+				frames.pop();
+				listener.onBacktrack(index);
+				continue;
+			}
+			frames.set(0, direction + 1);
+			int next;
+			if ((maze.openNeighbours(index) & 1 << direction) != 0) {
+				next = index + maze.offset(direction);
+			} else if (reportWalls) {
+				// walls are only entered to be reported
+				next = maze.neighbourOf(index, direction);
+			} else {
+				continue;
+			}
+			if (next >= 0 && enter(maze, next, state, route, listener)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Attempts to enter cell at index - pushing a new frame if it is open and not yet visited.
+	 * @return <code>true</code> if cell is the F/FINISH cell
+	 */
+	private boolean enter(Maze maze, int index, SearchState state, Route.Builder route, ExplorationListener listener) {
+		Type type = maze.typeAt(index);
+		if (type == Type.FINISH) {
+			visit(maze, index, state, route);
+			state.setPathLength(frames.size() / 2 + 1);
+			listener.onFinish(index);
+			frames.clear();
+			return true;
+		} else if (state.isVisited(index)) {
+			listener.onRevisit(index);
+			return false;
+		} else if (type == Type.WALL) {
+			listener.onWall(index);
+			return false;
+		}
+		listener.onVisit(index);
+		visit(maze, index, state, route);
+		state.countExpansion();
+		frames.push(index);
+		frames.push(RIGHT);
+		state.frontierSize(frames.size() / 2);
+		return false;
+	}
+
+	private void visit(Maze maze, int index, SearchState state, Route.Builder route) {
+		state.visit(index);
+		state.moveTo(index);
+		route.add(index);
+	}
+}
@@ -0,0 +1,287 @@
+package excelian.maze;
+
+import java.awt.Point;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import excelian.maze.Maze.Cell;
+
+/**
+ * Breadth first distance fields of a {@code Maze}, from its F/FINISH cell and optionally from
+ * landmark cells, giving the number of steps to the exit from any cell in O(1) and the route
+ * to it by following the falling distances.
+ * Distances from landmarks also bound the distance between any two cells from below,
+ * an admissible heuristic for A* tighter than the Manhattan distance, see
+ * {@code AStarSolver(DistanceIndex)}.
+ * Indices may be persisted, by default next to the maze file, see {@code load(Maze, File, Point...)}:
+ * <pre>
+ * offset size
+ *  0     4    magic "MAZD"
+ *  4     2    version
+ *  6     2    reserved
+ *  8     4    width
+ * 12     4    height
+ * 16     8    CRC32 of the maze cells, see {@code Maze#checksum()}
+ * 24     4    number of sources n, the finish first then the landmarks
+ * 28     4n   index of each source cell
+ *  -     4nc  distances from each source to each of c cells, -1 if unreachable
+ * </pre>
+ * Integers are big endian.
+ * The index is of the maze as it was when built, see {@code isCurrent()}.
+ * Immutable, ThreadSafe
+ * @author FN
+ */
+public final class DistanceIndex {
+
+	public static final int UNREACHABLE = -1;
+	static final int MAGIC = 0x4D415A44;
+	static final short VERSION = 1;
+	static final String SUFFIX = ".dist";
+	private static final int HEADER_SIZE = 28;
+	private static final int CHUNK_SIZE = 1 << 16;
+
+	private final Maze maze;
+	private final long version;
+	private final int[] sources;
+	private final int[][] distances;
+
+	private DistanceIndex(Maze maze, int[] sources, int[][] distances) {
+		this.maze = maze;
+		this.version = maze.version();
+		this.sources = sources;
+		this.distances = distances;
+	}
+
+	/**
+	 * Builds the distance fields, one breadth first search per source.
+	 * @param landmarks open cells to measure distances from besides the finish
+	 */
+	public static DistanceIndex build(Maze maze, Point... landmarks) {
+		int[] sources = sources(maze, landmarks);
+		int[][] distances = new int[sources.length][];
+		IntQueue frontier = new IntQueue();
+		for (int s = 0; s < sources.length; s++) {
+			distances[s] = distanceField(maze, sources[s], frontier);
+		}
+		return new DistanceIndex(maze, sources, distances);
+	}
+
+	/**
+	 * Reads the index persisted next to mazeFile if it was built for this maze and landmarks,
+	 * otherwise builds it and writes it there for the next start.
+	 */
+	public static DistanceIndex load(Maze maze, File mazeFile, Point... landmarks) throws IOException {
+		File indexFile = indexFileFor(mazeFile);
+		if (indexFile.isFile()) {
+			DistanceIndex index = read(maze, indexFile);
+			if (index != null && Arrays.equals(index.sources, sources(maze, landmarks))) {
+				return index;
+			}
+		}
+		DistanceIndex index = build(maze, landmarks);
+		index.write(indexFile);
+		return index;
+	}
+
+	/** @return file an index of the maze in mazeFile is persisted to by default */
+	public static File indexFileFor(File mazeFile) {
+		return new File(mazeFile.getPath() + SUFFIX);
+	}
+
+	/**
+	 * Reads an index written by {@code write(File)}.
+	 * @return the index, or null if it was built for another maze
+	 * @throws IllegalArgumentException if file does not hold an index of a supported version
+	 */
+	public static DistanceIndex read(Maze maze, File file) throws IOException {
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException(
+						String.format("Distance index %s of %s bytes too large to be mapped", file, channel.size()));
+			}
+			buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+			throw new IllegalArgumentException("Not a distance index");
+		}
+		short version = buffer.getShort(4);
+		if (version != VERSION) {
+			throw new IllegalArgumentException(String.format("Distance index version %s not supported", version));
+		}
+		if (buffer.getInt(8) != maze.width() || buffer.getInt(12) != maze.height()
+				|| buffer.getLong(16) != maze.checksum()) {
+			return null;
+		}
+		int count = buffer.getInt(24);
+		int cells = maze.cellCount();
+		if (count < 1 || buffer.remaining() != HEADER_SIZE + 4L * count * (1L + cells)) {
+			throw new IllegalArgumentException(String.format("Distance index of %s sources truncated or corrupt", count));
+		}
+		buffer.position(HEADER_SIZE);
+		IntBuffer ints = buffer.asIntBuffer();
+		int[] sources = new int[count];
+		ints.get(sources);
+		int[][] distances = new int[count][cells];
+		for (int s = 0; s < count; s++) {
+			ints.get(distances[s]);
+		}
+		return new DistanceIndex(maze, sources, distances);
+	}
+
+	public void write(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+			chunk.putInt(MAGIC).putShort(VERSION).putShort((short) 0);
+			chunk.putInt(maze.width()).putInt(maze.height()).putLong(maze.checksum());
+			chunk.putInt(sources.length);
+			for (int source : sources) {
+				chunk = put(chunk, source, channel);
+			}
+			for (int[] field : distances) {
+				for (int distance : field) {
+					chunk = put(chunk, distance, channel);
+				}
+			}
+			flush(chunk, channel);
+		}
+	}
+
+	private static ByteBuffer put(ByteBuffer chunk, int value, FileChannel channel) throws IOException {
+		if (chunk.remaining() < 4) {
+			flush(chunk, channel);
+		}
+		return chunk.putInt(value);
+	}
+
+	private static void flush(ByteBuffer chunk, FileChannel channel) throws IOException {
+		chunk.flip();
+		while (chunk.hasRemaining()) {
+			channel.write(chunk);
+		}
+		chunk.clear();
+	}
+
+	/** @return <code>false</code> if the maze has been edited since the index was built or read */
+	public boolean isCurrent() {
+		return maze.version() == version;
+	}
+
+	/** @return maze indexed */
+	public Maze getMaze() {
+		return maze;
+	}
+
+	/** @return number of steps from the cell to F/FINISH, {@code UNREACHABLE} for walls and cells cut off */
+	public int distanceToFinish(int x, int y) {
+		return distances[0][index(x, y)];
+	}
+
+	/** @return number of landmarks, numbered from 0 */
+	public int landmarks() {
+		return sources.length - 1;
+	}
+
+	/** @return number of steps from the cell to the given landmark, {@code UNREACHABLE} if none */
+	public int distanceToLandmark(int landmark, int x, int y) {
+		return distances[landmark + 1][index(x, y)];
+	}
+
+	/**
+	 * @return number of steps between two open cells is at least this, by the triangle inequality
+	 *         over the finish and landmarks, and by the Manhattan distance
+	 */
+	public int lowerBound(int fromX, int fromY, int toX, int toY) {
+		return lowerBound(index(fromX, fromY), index(toX, toY));
+	}
+
+	/** @see #lowerBound(int, int, int, int) */
+	int lowerBound(int from, int to) {
+		int bound = maze.distance(from, to);
+		for (int[] field : distances) {
+			if (field[from] != UNREACHABLE && field[to] != UNREACHABLE) {
+				bound = Math.max(bound, Math.abs(field[from] - field[to]));
+			}
+		}
+		return bound;
+	}
+
+	/**
+	 * Follows the distances down to F/FINISH, trying neighbours right, down, left then up.
+	 * @return cells from the given cell to F/FINISH inclusive, empty if the finish can not be reached
+	 */
+	public List<Cell> routeToFinish(int x, int y) {
+		int[] field = distances[0];
+		int index = index(x, y);
+		if (field[index] == UNREACHABLE) {
+			return Collections.emptyList();
+		}
+		List<Cell> route = new ArrayList<>(field[index] + 1);
+		route.add(maze.cellAt(index));
+		while (field[index] > 0) {
+			for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+				int next = maze.neighbourOf(index, direction);
+				if (next >= 0 && field[next] == field[index] - 1) {
+					index = next;
+					break;
+				}
+			}
+			route.add(maze.cellAt(index));
+		}
+		return route;
+	}
+
+	private int index(int x, int y) {
+		if (x < 0 || y < 0 || x >= maze.width() || y >= maze.height()) {
+			throw new IllegalArgumentException(String.format("Cell [x=%s, y=%s] outside the maze", x, y));
+		}
+		return maze.indexOf(x, y);
+	}
+
+	private static int[] sources(Maze maze, Point... landmarks) {
+		int[] sources = new int[landmarks.length + 1];
+		sources[0] = maze.finishIndex();
+		for (int i = 0; i < landmarks.length; i++) {
+			Point landmark = landmarks[i];
+			if (landmark.x < 0 || landmark.y < 0 || landmark.x >= maze.width() || landmark.y >= maze.height()
+					|| !maze.isOpen(maze.indexOf(landmark.x, landmark.y))) {
+				throw new IllegalArgumentException(
+						String.format("Landmark [x=%s, y=%s] not an open cell of the maze", landmark.x, landmark.y));
+			}
+			sources[i + 1] = maze.indexOf(landmark.x, landmark.y);
+		}
+		return sources;
+	}
+
+	private static int[] distanceField(Maze maze, int source, IntQueue frontier) {
+		int[] field = new int[maze.cellCount()];
+		Arrays.fill(field, UNREACHABLE);
+		frontier.clear();
+		field[source] = 0;
+		frontier.add(source);
+		while (!frontier.isEmpty()) {
+			int index = frontier.poll();
+			int distance = field[index] + 1;
+			int open = maze.openNeighbours(index);
+			for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+				int next = index + maze.offset(direction);
+				if ((open & 1 << direction) != 0 && field[next] == UNREACHABLE) {
+					field[next] = distance;
+					frontier.add(next);
+				}
+			}
+		}
+		return field;
+	}
+}
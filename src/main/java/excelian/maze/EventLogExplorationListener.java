@@ -0,0 +1,99 @@
+package excelian.maze;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Records the steps of explorations in a compact binary log, one int per step: the event
+ * type in the top 3 bits and the cell index below, or the width of the maze for a start.
+ * Mazes of up to 2^29 cells may be logged.
+ * Not ThreadSafe
+ * @author FN
+ */
+public class EventLogExplorationListener implements ExplorationListener {
+
+	public enum Event {
+		START, VISIT, WALL, REVISIT, BACKTRACK, FINISH
+	}
+
+	private static final Event[] EVENTS = Event.values();
+	private static final int TYPE_SHIFT = 29;
+	private static final int INDEX_MASK = (1 << TYPE_SHIFT) - 1;
+
+	private int[] events = new int[1024];
+	private int size;
+
+	@Override
+	public void onStart(Maze maze) {
+		record(Event.START, maze.width());
+	}
+
+	@Override
+	public void onVisit(int index) {
+		record(Event.VISIT, index);
+	}
+
+	@Override
+	public void onWall(int index) {
+		record(Event.WALL, index);
+	}
+
+	@Override
+	public void onRevisit(int index) {
+		record(Event.REVISIT, index);
+	}
+
+	@Override
+	public void onBacktrack(int index) {
+		record(Event.BACKTRACK, index);
+	}
+
+	@Override
+	public void onFinish(int index) {
+		record(Event.FINISH, index);
+	}
+
+	private void record(Event event, int index) {
+		if (size == events.length) {
+			events = Arrays.copyOf(events, size * 2);
+		}
+		events[size++] = event.ordinal() << TYPE_SHIFT | (index & INDEX_MASK);
+	}
+
+	/** @return number of events recorded */
+	public int size() {
+		return size;
+	}
+
+	public Event getEvent(int i) {
+		return EVENTS[check(i) >>> TYPE_SHIFT];
+	}
+
+	/** @return index of the cell of the i-th event, or the maze width for a START */
+	public int getIndex(int i) {
+		return check(i) & INDEX_MASK;
+	}
+
+	private int check(int i) {
+		if (i >= size) {
+			throw new IndexOutOfBoundsException("Event " + i + " of " + size);
+		}
+		return events[i];
+	}
+
+	/** Writes the number of events then each event, as big endian ints */
+	public void writeTo(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(size);
+		for (int i = 0; i < size; i++) {
+			data.writeInt(events[i]);
+		}
+		data.flush();
+	}
+
+	public void clear() {
+		size = 0;
+	}
+}
@@ -0,0 +1,32 @@
+package excelian.maze;
+
+/**
+ * {@code ExplorationListener} ignoring every step, to be extended by listeners interested in a few.
+ * @author FN
+ */
+public class ExplorationAdapter implements ExplorationListener {
+
+	@Override
+	public void onStart(Maze maze) {
+	}
+
+	@Override
+	public void onVisit(int index) {
+	}
+
+	@Override
+	public void onWall(int index) {
+	}
+
+	@Override
+	public void onRevisit(int index) {
+	}
+
+	@Override
+	public void onBacktrack(int index) {
+	}
+
+	@Override
+	public void onFinish(int index) {
+	}
+}
@@ -0,0 +1,32 @@
+package excelian.maze;
+
+/**
+ * Receives the steps of an exploration as they happen, for tracing, counting or debugging.
+ * Cells are identified by their index <code>y * maze.width() + x</code> so that reporting a
+ * step costs nothing more than the call; {@code NONE}, the default, ignores every step.
+ * Implementations are called on the exploring thread and should return quickly.
+ * @author FN
+ */
+public interface ExplorationListener {
+
+	/** Listener ignoring every step */
+	ExplorationListener NONE = new ExplorationAdapter();
+
+	/** Exploration of maze starts, cells reported until the next start are cells of maze */
+	void onStart(Maze maze);
+
+	/** An open cell not visited before is entered, or expanded */
+	void onVisit(int index);
+
+	/** A wall is met */
+	void onWall(int index);
+
+	/** A cell already visited is met again */
+	void onRevisit(int index);
+
+	/** A cell all of whose neighbours have been tried is left for the cell it was reached from */
+	void onBacktrack(int index);
+
+	/** The F/FINISH cell is reached */
+	void onFinish(int index);
+}
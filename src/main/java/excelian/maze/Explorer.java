@@ -1,5 +1,6 @@
 package excelian.maze;
 
+import java.nio.IntBuffer;
 import java.util.LinkedList;
 
 import org.apache.log4j.Logger;
@@ -8,125 +9,355 @@ import excelian.maze.Maze.Cell;
 
 /**
  * World famous Maze explorer
- * Not ThreadSafe
+ * Not ThreadSafe - but any number of explorers may explore the same {@code Maze} concurrently
  */
 public class Explorer {
+
+	/** commands of {@code execute}, each stepping as the manual move named */
+	public static final int TURN_RIGHT = Maze.RIGHT, MOVE_DOWN = Maze.DOWN, TURN_LEFT = Maze.LEFT, MOVE_UP = Maze.UP;
+	/** outcomes of a step: into an open cell, a wall, a cell visited already, F/FINISH, off the maze */
+	public static final byte MOVED = 0, WALL = 1, VISITED = 2, FINISHED = 3, EDGE = 4;
+	/** shift of the open neighbours of the cell reached in the result of a command */
+	public static final int OPEN_SHIFT = 8;
 	
-	private LinkedList<Cell> history = new LinkedList<>();
-	private Logger logger = Logger.getLogger(Explorer.class);	
+	private final Route.Builder history;
 	private Maze maze;
 	private Cell currentCell;
+	private Solver solver;
+	private SearchState state;
+	private ExplorationListener listener;
+	private final StatsListener counts = new StatsListener();
+	private SolveStatsRegistry registry;
+	private long loadNanos;
+	private boolean rejectUnsolvable;
+	private boolean countProbes;
+	private SolveStats stats;
+	/** cell reached by the commands run so far, outcome of the last step taken, where results began */
+	private int commandIndex;
+	private byte commandOutcome;
+	private int commandResults;
 
 	public Explorer(Maze maze) {
+		this(maze, new DepthFirstSolver());
+	}
+
+	public Explorer(Maze maze, Solver solver) {
+		this(maze, solver, ExplorationListener.NONE);
+	}
+
+	/**
+	 * @param listener receives every step of explorations, automatic and manual
+	 */
+	public Explorer(Maze maze, Solver solver, ExplorationListener listener) {
 		this.maze = maze;
+		this.solver = solver;
+		this.listener = listener;
+		this.state = new SearchState(maze);
+		this.history = new Route.Builder(maze);
 	}
 
 	public void exploreMaze() {
 		history.clear();
+		state.clear();
 		Cell startCell = getStartCell();
-		navigate(startCell.getX(), startCell.getY(), true);
-		
+		// solvers probe walls only when listened to, so steps are counted only when asked for
+		boolean counted = countProbes || listener != ExplorationListener.NONE;
+		ExplorationListener steps = listener;
+		if (counted) {
+			counts.reset();
+			counts.delegate = listener;
+			steps = counts;
+		}
+		long began = System.nanoTime();
+		steps.onStart(maze);
+		boolean solved = (!rejectUnsolvable || maze.getComponents().isSolvable())
+				&& solver.solve(maze, startCell, state, history, steps);
+		long solveNanos = System.nanoTime() - began;
+		if (history.length() > 0) {
+			currentCell = maze.cellAt(history.last());
+			currentCell.setVisited(true);
+		} else {
+			currentCell = startCell;
+		}
+		stats = new SolveStats(solver.getClass().getSimpleName(), solved, maze, state, counted ? counts : null,
+				loadNanos, solveNanos);
+		if (registry != null) {
+			registry.record(stats);
+		}
 	}
 	
-	private String getCoordsAsStr(Cell cell) {
-		return String.format("coordinates [y=%s, x=%s]", cell.getY(), cell.getX());  
-	}
-
 	/**
-	 * Navigate maze - in manual or auto mode 
+	 * Navigate maze manually, a single cell at a time.
+	 * Auto navigation to the F/FINISH point is delegated to the {@code Solver}
 	 * @param x 
 	 * @param y
-	 * @param auto if <code>true</code>, navigates to F/FINSIH point - recursive backtracking
-	 * @return 
+	 * @return <code>true</code> if F/FINISH point reached
+	 */
+	private boolean navigate(int x, int y) {
+		int index = maze.indexOf(x, y);
+		return enter(index, step(index)) == FINISHED;
+	}
+
+	/**
+	 * Steps into the cell at index, telling the listener and adding it to the history unless a wall
+	 * or visited already.
+	 * @return outcome of the step, one of MOVED, WALL, VISITED and FINISHED
 	 */
-	private boolean navigate(int x, int y, boolean auto) {
-		currentCell = maze.getCellAt(x, y);
-		if (currentCell.isFinish()) {
-			addToHistory(currentCell);
-			logger.info(String.format("I have reached the end of the maze [%s] : %s", currentCell.getType(),getCoordsAsStr(currentCell)));
-			logger.info("HISTORY : " +  history);
-			return true;
-		} else if (currentCell.isVisited()) {
-			logger.info(String.format("I just encountered a cell I have already visited : %s", getCoordsAsStr(currentCell)));
-			return false;
-		} else if (currentCell.isWallType()) {
-			logger.info(String.format("I just hit a wall at %s", getCoordsAsStr(currentCell)));
-			return false;
-		}
-		logger.info(String.format("Visiting [%s] cell : %s", currentCell.getType(), getCoordsAsStr(currentCell)));		
-		addToHistory(currentCell);
-		
-		if (!auto) {
-			return false;
-		}
-		
-		// attempt navigation to right cell and if not accessible (wall or
-		// already visited), attempt navigation to cell below it, if not
-		// accessible, attempt left cell,
-		// if not accessible, attempt top cell.	- NOT very efficient :'(	
-		if ((turnRight(x, y, true)) || (moveDown(x, y, true)) || turnLeft(x, y, true) || moveUp(x, y, true)) {
-			return true;
-		}
-		return false;
-	}
-
-	private void addToHistory(Cell currentCell) {
-		currentCell.setVisited(true);
-		history.add(currentCell);
+	private byte step(int index) {
+		state.moveTo(index);
+		Cell.Type type = maze.typeAt(index);
+		if (type == Cell.Type.FINISH) {
+			addToHistory(index);
+			listener.onFinish(index);
+			return FINISHED;
+		} else if (state.isVisited(index)) {
+			listener.onRevisit(index);
+			return VISITED;
+		} else if (type == Cell.Type.WALL) {
+			listener.onWall(index);
+			return WALL;
+		}
+		listener.onVisit(index);
+		addToHistory(index);
+		return MOVED;
+	}
+
+	/** Makes the cell at index, stepped into with given outcome, the current cell */
+	private byte enter(int index, byte outcome) {
+		currentCell = maze.cellAt(index);
+		currentCell.setVisited(outcome == MOVED || outcome == FINISHED);
+		return outcome;
+	}
+
+	private void addToHistory(int index) {
+		state.visit(index);
+		history.add(index);
 	}
 	
 	public boolean moveDown() {
 		reset();
-		return moveDown(currentCell.getX(), currentCell.getY(), false);		
+		return move(MOVE_DOWN) == FINISHED;
 	}
 	
 	public boolean moveUp() {
 		reset();
-		return moveUp(currentCell.getX(), currentCell.getY(), false);		
+		return move(MOVE_UP) == FINISHED;
 	}
 	
 	public boolean turnLeft() {
 		reset();
-		return turnLeft(currentCell.getX(), currentCell.getY(), false);		
+		return move(TURN_LEFT) == FINISHED;
 	}
 	
 	public boolean turnRight() {
 		reset();
-		return turnRight(currentCell.getX(), currentCell.getY(), false);		
+		return move(TURN_RIGHT) == FINISHED;
 	}
-	
-	public LinkedList<Cell> getHistory() {
-		return new LinkedList<>(history);
+
+	/** Steps as command says from the current cell, unless that leads off the maze */
+	private byte move(int command) {
+		int next = neighbour(maze.indexOf(currentCell.getX(), currentCell.getY()), command);
+		return next < 0 ? EDGE : enter(next, step(next));
 	}
 
-	private void reset() {
-		if (currentCell == null ) {
-			history.clear();
-			moveToStartPoint();
+	/** @return index of the neighbour of the cell at index command leads to, -1 if off the maze */
+	private int neighbour(int index, int command) {
+		int x = index % maze.width();
+		int y = index / maze.width();
+		boolean inside;
+		switch (command) {
+		case TURN_RIGHT:
+			inside = x < maze.width() - 1;
+			break;
+		case MOVE_DOWN:
+			inside = y < maze.height() - 1;
+			break;
+		case TURN_LEFT:
+			inside = x > 0;
+			break;
+		default:
+			inside = y > 0;
 		}
+		return inside ? index + maze.offset(command) : -1;
 	}
 
-	void moveToStartPoint() {		
-		currentCell = maze.getStartCell();
-		navigate(currentCell.getX(), currentCell.getY(), false);		
+	/**
+	 * Runs commands from offset as {@code execute(IntBuffer, IntBuffer)} does.
+	 * @return number of the first command reaching F/FINISH, counted from offset, -1 if none did
+	 */
+	public int execute(byte[] commands, int offset, int length, IntBuffer results) {
+		checkResults(length, results);
+		for (int i = offset; i < offset + length; i++) {
+			checkCommand(commands[i], i);
+		}
+		beginCommands(results);
+		int first = -1;
+		for (int i = 0; i < length; i++) {
+			if (command(commands[offset + i], results) == FINISHED && first < 0) {
+				first = i;
+			}
+		}
+		endCommands(results);
+		return first;
 	}
 
-	private boolean moveDown(int x, int y, boolean auto) {
-		return (y < maze.size() - 1) && navigate(x, y + 1, auto);
+	/**
+	 * Runs the commands from position to limit, each as the manual move it names would, in a single
+	 * call, no {@code Cell} being made but for the last. Results are written from the position of
+	 * results: x then y of the cell reached by the last command, then, for each command in turn, its
+	 * outcome OR-ed with the open neighbours of the cell it reached shifted left by OPEN_SHIFT, bit
+	 * <code>1 << command</code> being set if that command would lead from there to an open cell.
+	 * A command leading off the maze leaves the explorer where it was, with outcome EDGE.
+	 * @param commands TURN_RIGHT, MOVE_DOWN, TURN_LEFT or MOVE_UP each, read from position to limit
+	 * @param results room for two more ints than there are commands, left after the last written
+	 * @return number of the first command reaching F/FINISH, counted from position, -1 if none did
+	 * @throws IllegalArgumentException if a command is not valid or results lack room, before any is run
+	 */
+	public int execute(IntBuffer commands, IntBuffer results) {
+		int from = commands.position();
+		int to = commands.limit();
+		checkResults(to - from, results);
+		for (int i = from; i < to; i++) {
+			checkCommand(commands.get(i), i);
+		}
+		beginCommands(results);
+		int first = -1;
+		for (int i = from; i < to; i++) {
+			if (command(commands.get(i), results) == FINISHED && first < 0) {
+				first = i - from;
+			}
+		}
+		commands.position(to);
+		endCommands(results);
+		return first;
 	}
 
-	private boolean turnLeft(int x, int y, boolean auto) {
-		return x > 0 && navigate(x - 1, y, auto);
+	private static void checkResults(int commands, IntBuffer results) {
+		if (results.remaining() < commands + 2) {
+			throw new IllegalArgumentException(String.format("Results of %s commands need %s ints, %s remaining",
+					commands, commands + 2, results.remaining()));
+		}
 	}
 
-	private boolean moveUp(int x, int y, boolean auto) {
-		return y > 0 && navigate(x, y - 1, auto);
+	private static void checkCommand(int command, int i) {
+		if (command < 0 || command >= Maze.DIRECTIONS) {
+			throw new IllegalArgumentException(String.format("Command %s at %s not valid", command, i));
+		}
 	}
 
-	private boolean turnRight(int x, int y, boolean auto) {
-		return x < maze.size() - 1 && navigate(x + 1, y, auto);
+	/** Moves to S/START unless moved already, and leaves room for the position reached in results */
+	private void beginCommands(IntBuffer results) {
+		reset();
+		commandIndex = maze.indexOf(currentCell.getX(), currentCell.getY());
+		commandOutcome = EDGE;
+		commandResults = results.position();
+		results.position(commandResults + 2);
 	}
-	
+
+	/** Steps as command says from the cell reached by the last, putting the result of the step */
+	private int command(int command, IntBuffer results) {
+		int next = neighbour(commandIndex, command);
+		int outcome = EDGE;
+		if (next >= 0) {
+			commandIndex = next;
+			commandOutcome = step(next);
+			outcome = commandOutcome;
+		}
+		results.put(outcome | maze.openNeighbours(commandIndex) << OPEN_SHIFT);
+		return outcome;
+	}
+
+	/** Makes the cell reached by the last command current, putting its position before the results */
+	private void endCommands(IntBuffer results) {
+		results.put(commandResults, commandIndex % maze.width());
+		results.put(commandResults + 1, commandIndex / maze.width());
+		if (commandOutcome != EDGE) {
+			enter(commandIndex, commandOutcome);
+		}
+	}
+
+	/** @return number of cells on the route from start to finish found by the last exploration, 0 if none */
+	public int getPathLength() {
+		return state.pathLength();
+	}
+
+	/** @return number of cells expanded by the last exploration */
+	public int getCellsExpanded() {
+		return state.cellsExpanded();
+	}
+
+	/** @return measurements of the last call to {@code exploreMaze()}, null before the first */
+	public SolveStats getSolveStats() {
+		return stats;
+	}
+
+	/**
+	 * @param registry aggregates the stats of every following exploration, null for none
+	 */
+	public void setStatsRegistry(SolveStatsRegistry registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 * @param rejectUnsolvable if <code>true</code>, explorations of a maze whose F/FINISH can not be
+	 *            reached from S/START fail at once, without a cell being explored, once the
+	 *            {@code ComponentIndex} of the maze is built
+	 */
+	public void setRejectUnsolvable(boolean rejectUnsolvable) {
+		this.rejectUnsolvable = rejectUnsolvable;
+	}
+
+	/**
+	 * @param countProbes if <code>true</code>, walls and cells already visited met, and backtracks, are
+	 *            counted in the stats of explorations even with no listener given, at the cost of each
+	 *            wall being probed and every step reported
+	 */
+	public void setCountProbes(boolean countProbes) {
+		this.countProbes = countProbes;
+	}
+
+	/**
+	 * @param loadNanos time taken to load the maze explored, reported with the stats of explorations
+	 */
+	public void setLoadNanos(long loadNanos) {
+		this.loadNanos = loadNanos;
+	}
+
+	/**
+	 * @return cells walked through so far, by the last exploration and any manual moves since;
+	 *         shared as is, later moves leaving it unchanged
+	 */
+	public Route getRoute() {
+		return history.build();
+	}
+
+	/**
+	 * @return copy of the cells walked through so far, one list node per cell
+	 * @deprecated use {@code getRoute()}, which is not copied
+	 */
+	@Deprecated
+	public LinkedList<Cell> getHistory() {
+		LinkedList<Cell> cells = new LinkedList<>();
+		for (Cell cell : getRoute()) {
+			cells.add(cell);
+		}
+		return cells;
+	}
+
+	private void reset() {
+		if (currentCell == null ) {
+			history.clear();
+			state.clear();
+			moveToStartPoint();
+		}
+	}
+
+	void moveToStartPoint() {		
+		currentCell = maze.getStartCell();
+		listener.onStart(maze);
+		navigate(currentCell.getX(), currentCell.getY());		
+	}
+
 	public Cell whereAmI() {
 		return currentCell;
 	}
@@ -135,12 +366,64 @@ public class Explorer {
 		return maze.getStartCell();		
 	}		
 	
-	/** Auto explore maze starting form S to finish a F */
+	/**
+	 * Auto explore maze starting form S to finish a F, logging each step
+	 * @param args optional {@code SolverType} name, defaults to DEPTH_FIRST
+	 */
 	public static void main(String[] args) throws Exception  {
-		Maze makeMaze = (new MazeReader()).makeMaze();
-		Explorer exp = new Explorer(makeMaze);	
+		MazeReader reader = new MazeReader();
+		Maze makeMaze = reader.makeMaze();
+		SolverType solverType = args.length > 0 ? SolverType.valueOf(args[0]) : SolverType.DEPTH_FIRST;
+		Explorer exp = new Explorer(makeMaze, solverType.newSolver(), new LoggingExplorationListener());	
+		exp.setLoadNanos(reader.getLoadNanos());
+		exp.setRejectUnsolvable(true);
 		//solve the maze
 		exp.exploreMaze();
+		Logger.getLogger(Explorer.class).info(exp.getSolveStats());
+	}
+
+	/**
+	 * Counts steps for {@code SolveStats}, passing each on to the listener given to the {@code Explorer}.
+	 */
+	private static final class StatsListener extends CountingExplorationListener {
+
+		private ExplorationListener delegate = ExplorationListener.NONE;
+
+		@Override
+		public void onStart(Maze maze) {
+			super.onStart(maze);
+			delegate.onStart(maze);
+		}
+
+		@Override
+		public void onVisit(int index) {
+			super.onVisit(index);
+			delegate.onVisit(index);
+		}
+
+		@Override
+		public void onWall(int index) {
+			super.onWall(index);
+			delegate.onWall(index);
+		}
+
+		@Override
+		public void onRevisit(int index) {
+			super.onRevisit(index);
+			delegate.onRevisit(index);
+		}
+
+		@Override
+		public void onBacktrack(int index) {
+			super.onBacktrack(index);
+			delegate.onBacktrack(index);
+		}
+
+		@Override
+		public void onFinish(int index) {
+			super.onFinish(index);
+			delegate.onFinish(index);
+		}
 	}
 
 }
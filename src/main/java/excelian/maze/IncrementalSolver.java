@@ -0,0 +1,183 @@
+package excelian.maze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import excelian.maze.Maze.Cell;
+
+/**
+ * Keeps a shortest route from S/START to F/FINISH of a {@code Maze} up to date as its cells
+ * are edited, with Lifelong Planning A* (LPA*): only the cells whose distance from the start
+ * is changed by an edit are expanded again, rather than the whole maze.
+ * Each cell holds g, its distance from the start as last expanded, and rhs, the distance
+ * its open neighbours' g imply. Cells where the two differ are queued, ordered as A* would,
+ * by the Manhattan distance to the finish.
+ * Edits are collected as they are made, see {@code MazeEditListener}, and repaired on the next
+ * {@code solve()}. Moving S or F starts the search afresh.
+ * Not ThreadSafe
+ * @author FN
+ */
+public class IncrementalSolver implements MazeEditListener {
+
+	private static final int INFINITE = Integer.MAX_VALUE / 2;
+
+	private final Maze maze;
+	private final IntMinHeap open = new IntMinHeap();
+	private final IntStack changed = new IntStack();
+	private final int[] g;
+	private final int[] rhs;
+	private int start = SearchState.NONE;
+	private int goal = SearchState.NONE;
+	private int cellsExpanded;
+
+	/**
+	 * Starts listening to edits of maze, until {@code close()}.
+	 */
+	public IncrementalSolver(Maze maze) {
+		this.maze = maze;
+		this.g = new int[maze.cellCount()];
+		this.rhs = new int[maze.cellCount()];
+		maze.addEditListener(this);
+	}
+
+	@Override
+	public void cellChanged(Maze maze, int x, int y) {
+		changed.push(maze.indexOf(x, y));
+	}
+
+	/**
+	 * Brings the route up to date with the edits made since the last call.
+	 * @return <code>true</code> if F/FINISH can be reached
+	 */
+	public boolean solve() {
+		cellsExpanded = 0;
+		if (start != maze.startIndex() || goal != maze.finishIndex()) {
+			restart();
+		} else {
+			while (!changed.isEmpty()) {
+				int index = changed.pop();
+				update(index);
+				for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+					int next = maze.neighbourOf(index, direction);
+					if (next >= 0) {
+						update(next);
+					}
+				}
+			}
+		}
+		computeShortestPath();
+		return g[goal] < INFINITE;
+	}
+
+	/** @return number of cells on the route, start and finish included, 0 if there is none */
+	public int getPathLength() {
+		return goal < 0 || g[goal] >= INFINITE ? 0 : g[goal] + 1;
+	}
+
+	/** @return number of cells expanded by the last {@code solve()} */
+	public int getCellsExpanded() {
+		return cellsExpanded;
+	}
+
+	/**
+	 * @return cells of the route from S/START to F/FINISH, stepping back from the finish to the
+	 *         neighbour nearest the start; empty if there is none
+	 */
+	public List<Cell> getRoute() {
+		int length = getPathLength();
+		if (length == 0) {
+			return Collections.emptyList();
+		}
+		int[] route = new int[length];
+		int index = goal;
+		for (int step = length - 1; step > 0; step--) {
+			route[step] = index;
+			int neighbours = maze.openNeighbours(index);
+			int best = SearchState.NONE;
+			for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+				int next = index + maze.offset(direction);
+				if ((neighbours & 1 << direction) != 0 && (best < 0 || g[next] < g[best])) {
+					best = next;
+				}
+			}
+			index = best;
+		}
+		route[0] = index;
+		List<Cell> cells = new ArrayList<>(length);
+		for (int cell : route) {
+			cells.add(maze.cellAt(cell));
+		}
+		return cells;
+	}
+
+	/** Stops listening to edits of the maze */
+	public void close() {
+		maze.removeEditListener(this);
+	}
+
+	private void restart() {
+		start = maze.startIndex();
+		goal = maze.finishIndex();
+		Arrays.fill(g, INFINITE);
+		Arrays.fill(rhs, INFINITE);
+		changed.clear();
+		open.clear();
+		rhs[start] = 0;
+		open.add(start, key(start));
+	}
+
+	/** Recomputes rhs of the cell at index, queueing it if it no longer matches g */
+	private void update(int index) {
+		if (index != start) {
+			int best = INFINITE;
+			if (maze.isOpen(index)) {
+				int neighbours = maze.openNeighbours(index);
+				for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+					if ((neighbours & 1 << direction) != 0) {
+						best = Math.min(best, g[index + maze.offset(direction)] + 1);
+					}
+				}
+			}
+			rhs[index] = best;
+		}
+		if (g[index] != rhs[index]) {
+			open.add(index, key(index));
+		}
+	}
+
+	private void computeShortestPath() {
+		while (!open.isEmpty()) {
+			int index = open.peek();
+			long key = open.peekPriority();
+			if (g[index] == rhs[index] || key != key(index)) {
+				// stale entry, the cell was expanded or queued again since
+				open.poll();
+				continue;
+			}
+			if (key >= key(goal) && g[goal] == rhs[goal]) {
+				return;
+			}
+			open.poll();
+			cellsExpanded++;
+			if (g[index] > rhs[index]) {
+				g[index] = rhs[index];
+			} else {
+				g[index] = INFINITE;
+				update(index);
+			}
+			int neighbours = maze.openNeighbours(index);
+			for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+				if ((neighbours & 1 << direction) != 0) {
+					update(index + maze.offset(direction));
+				}
+			}
+		}
+	}
+
+	private long key(int index) {
+		int distance = Math.min(g[index], rhs[index]);
+		return ((long) (distance + maze.distance(index, goal)) << 32) | distance;
+	}
+}
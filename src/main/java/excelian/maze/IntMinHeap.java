@@ -0,0 +1,111 @@
+package excelian.maze;
+
+import java.util.Arrays;
+
+/**
+ * Binary min heap of primitive int values ordered by a long priority, used as the
+ * open set of A* searches. Decrease-key is not supported, callers push duplicates
+ * and skip stale entries when polled.
+ * Not ThreadSafe
+ */
+final class IntMinHeap {
+
+	private static final int DEFAULT_CAPACITY = 64;
+	private long[] priorities;
+	private int[] values;
+	private int size;
+
+	IntMinHeap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	IntMinHeap(int capacity) {
+		priorities = new long[Math.max(capacity, 1)];
+		values = new int[priorities.length];
+	}
+
+	void add(int value, long priority) {
+		if (size == values.length) {
+			int capacity = grow(values.length);
+			priorities = Arrays.copyOf(priorities, capacity);
+			values = Arrays.copyOf(values, capacity);
+		}
+		int i = size++;
+		// sift up
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (priorities[parent] <= priority) {
+				break;
+			}
+			priorities[i] = priorities[parent];
+			values[i] = values[parent];
+			i = parent;
+		}
+		priorities[i] = priority;
+		values[i] = value;
+	}
+
+	/** @return value of least priority, leaving it in the heap */
+	int peek() {
+		if (size == 0) {
+			throw new IllegalStateException("Heap is empty");
+		}
+		return values[0];
+	}
+
+	/** @return least priority in the heap */
+	long peekPriority() {
+		if (size == 0) {
+			throw new IllegalStateException("Heap is empty");
+		}
+		return priorities[0];
+	}
+
+	/** @return value of least priority, removing it from the heap */
+	int poll() {
+		if (size == 0) {
+			throw new IllegalStateException("Heap is empty");
+		}
+		int result = values[0];
+		size--;
+		long priority = priorities[size];
+		int value = values[size];
+		int i = 0;
+		// sift down
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			if (child + 1 < size && priorities[child + 1] < priorities[child]) {
+				child++;
+			}
+			if (priority <= priorities[child]) {
+				break;
+			}
+			priorities[i] = priorities[child];
+			values[i] = values[child];
+			i = child;
+		}
+		priorities[i] = priority;
+		values[i] = value;
+		return result;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	int size() {
+		return size;
+	}
+
+	void clear() {
+		size = 0;
+	}
+
+	private static int grow(int capacity) {
+		if (capacity >= Integer.MAX_VALUE - 8) {
+			throw new OutOfMemoryError("Heap capacity exhausted");
+		}
+		return (int) Math.min((long) capacity * 2, Integer.MAX_VALUE - 8);
+	}
+}
@@ -0,0 +1,64 @@
+package excelian.maze;
+
+/**
+ * Growable FIFO ring buffer of primitive ints, used as the frontier of breadth first searches.
+ * Not ThreadSafe
+ */
+final class IntQueue {
+
+	private static final int DEFAULT_CAPACITY = 64;
+	private int[] elements;
+	private int head;
+	private int size;
+
+	IntQueue() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	IntQueue(int capacity) {
+		elements = new int[Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1];
+	}
+
+	void add(int value) {
+		if (size == elements.length) {
+			grow();
+		}
+		elements[(head + size) & (elements.length - 1)] = value;
+		size++;
+	}
+
+	int poll() {
+		if (size == 0) {
+			throw new IllegalStateException("Queue is empty");
+		}
+		int value = elements[head];
+		head = (head + 1) & (elements.length - 1);
+		size--;
+		return value;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	int size() {
+		return size;
+	}
+
+	void clear() {
+		head = 0;
+		size = 0;
+	}
+
+	private void grow() {
+		if (elements.length >= 1 << 30) {
+			throw new OutOfMemoryError("Queue capacity exhausted");
+		}
+		int[] grown = new int[elements.length << 1];
+		int tail = elements.length - head;
+		System.arraycopy(elements, head, grown, 0, tail);
+		System.arraycopy(elements, 0, grown, tail, head);
+		elements = grown;
+		head = 0;
+	}
+}
@@ -0,0 +1,76 @@
+package excelian.maze;
+
+import java.util.Arrays;
+
+/**
+ * Growable LIFO stack of primitive ints, used by solvers to keep their
+ * frontier on the heap rather than on the call stack.
+ * Not ThreadSafe
+ */
+final class IntStack {
+
+	private static final int DEFAULT_CAPACITY = 64;
+	private int[] elements;
+	private int size;
+
+	IntStack() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	IntStack(int capacity) {
+		elements = new int[Math.max(capacity, 1)];
+	}
+
+	void push(int value) {
+		if (size == elements.length) {
+			elements = Arrays.copyOf(elements, grow(elements.length));
+		}
+		elements[size++] = value;
+	}
+
+	int pop() {
+		if (size == 0) {
+			throw new IllegalStateException("Stack is empty");
+		}
+		return elements[--size];
+	}
+
+	int peek() {
+		return peek(0);
+	}
+
+	/** @return element at given depth, 0 being the top of the stack */
+	int peek(int depth) {
+		if (depth >= size) {
+			throw new IllegalStateException("Stack is empty");
+		}
+		return elements[size - 1 - depth];
+	}
+
+	/** Replaces the element at given depth, 0 being the top of the stack */
+	void set(int depth, int value) {
+		if (depth >= size) {
+			throw new IllegalStateException("Stack is empty");
+		}
+		elements[size - 1 - depth] = value;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	int size() {
+		return size;
+	}
+
+	void clear() {
+		size = 0;
+	}
+
+	private static int grow(int capacity) {
+		if (capacity >= Integer.MAX_VALUE - 8) {
+			throw new OutOfMemoryError("Stack capacity exhausted");
+		}
+		return (int) Math.min((long) capacity * 2, Integer.MAX_VALUE - 8);
+	}
+}
@@ -0,0 +1,179 @@
+package excelian.maze;
+
+import java.util.Arrays;
+
+/**
+ * A {@code Maze} with its corridors collapsed: nodes are the open cells that are not plain
+ * corridor cells, i.e. junctions, dead ends, S/START and F/FINISH, and edges are the
+ * corridors between them weighted by their length in steps.
+ * Edges are held in compressed sparse row arrays: the edges of node n are
+ * <code>offsets[n]</code> to <code>offsets[n + 1] - 1</code>, each with the target node,
+ * its length and the direction it leaves n in, from which the corridor's cells can be
+ * walked again when a route is expanded. Each corridor is held once in each direction.
+ * The graph is of the maze as it was when built, see {@code isCurrent()}.
+ * Immutable, ThreadSafe
+ * @author FN
+ */
+public final class JunctionGraph {
+
+	private final Maze maze;
+	private final long version;
+	/** cell index of each node, ascending */
+	private final int[] nodeCells;
+	private final int[] offsets;
+	private final int[] targets;
+	private final int[] lengths;
+	private final byte[] directions;
+
+	private JunctionGraph(Maze maze, int[] nodeCells, int[] offsets, int[] targets, int[] lengths,
+			byte[] directions) {
+		this.maze = maze;
+		this.version = maze.version();
+		this.nodeCells = nodeCells;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.lengths = lengths;
+		this.directions = directions;
+	}
+
+	/**
+	 * Finds the nodes in one pass over the cells, then walks each corridor from both ends.
+	 * Corridors leading back to the node they left are dropped, they are never on a shortest route.
+	 */
+	public static JunctionGraph build(Maze maze) {
+		int cells = maze.cellCount();
+		int nodes = 0;
+		for (int index = 0; index < cells; index++) {
+			if (isNode(maze, index)) {
+				nodes++;
+			}
+		}
+		int[] nodeCells = new int[nodes];
+		for (int index = 0, node = 0; node < nodes; index++) {
+			if (isNode(maze, index)) {
+				nodeCells[node++] = index;
+			}
+		}
+		int[] offsets = new int[nodes + 1];
+		int[] targets = new int[Math.max(nodes, 1)];
+		int[] lengths = new int[targets.length];
+		byte[] directions = new byte[targets.length];
+		int edges = 0;
+		for (int node = 0; node < nodes; node++) {
+			offsets[node] = edges;
+			int from = nodeCells[node];
+			int open = maze.openNeighbours(from);
+			for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+				if ((open & 1 << direction) == 0) {
+					continue;
+				}
+				int next = from + maze.offset(direction);
+				int previous = from;
+				int length = 1;
+				while (!isNode(maze, next)) {
+					int corridor = next;
+					next = onwards(maze, corridor, previous);
+					previous = corridor;
+					length++;
+				}
+				if (next == from) {
+					continue;
+				}
+				if (edges == targets.length) {
+					targets = Arrays.copyOf(targets, edges * 2);
+					lengths = Arrays.copyOf(lengths, edges * 2);
+					directions = Arrays.copyOf(directions, edges * 2);
+				}
+				targets[edges] = Arrays.binarySearch(nodeCells, next);
+				lengths[edges] = length;
+				directions[edges] = (byte) direction;
+				edges++;
+			}
+		}
+		offsets[nodes] = edges;
+		return new JunctionGraph(maze, nodeCells, offsets, Arrays.copyOf(targets, edges),
+				Arrays.copyOf(lengths, edges), Arrays.copyOf(directions, edges));
+	}
+
+	/** @return <code>true</code> if the cell at index is open and not a plain corridor cell */
+	private static boolean isNode(Maze maze, int index) {
+		if (!maze.isOpen(index)) {
+			return false;
+		}
+		if (index == maze.startIndex() || index == maze.finishIndex()) {
+			return true;
+		}
+		return Integer.bitCount(maze.openNeighbours(index)) != 2;
+	}
+
+	/** @return the open neighbour of corridor cell index other than previous */
+	private static int onwards(Maze maze, int index, int previous) {
+		int open = maze.openNeighbours(index);
+		for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+			int next = index + maze.offset(direction);
+			if ((open & 1 << direction) != 0 && next != previous) {
+				return next;
+			}
+		}
+		throw new IllegalStateException("Corridor cell " + index + " has a single open neighbour");
+	}
+
+	public Maze getMaze() {
+		return maze;
+	}
+
+	/** @return <code>false</code> if the maze has been edited since the graph was built */
+	public boolean isCurrent() {
+		return maze.version() == version;
+	}
+
+	public int nodeCount() {
+		return nodeCells.length;
+	}
+
+	/** @return number of edges, each corridor counted once in each direction */
+	public int edgeCount() {
+		return targets.length;
+	}
+
+	/** @return node of the cell at index, -1 if it is not a node */
+	int nodeAt(int index) {
+		int node = Arrays.binarySearch(nodeCells, index);
+		return node < 0 ? -1 : node;
+	}
+
+	int cellOf(int node) {
+		return nodeCells[node];
+	}
+
+	int firstEdge(int node) {
+		return offsets[node];
+	}
+
+	int endEdge(int node) {
+		return offsets[node + 1];
+	}
+
+	int target(int edge) {
+		return targets[edge];
+	}
+
+	int length(int edge) {
+		return lengths[edge];
+	}
+
+	/**
+	 * Walks the corridor of edge from node, appending its cells, the target node's included.
+	 */
+	void expand(int node, int edge, Route.Builder route) {
+		int previous = nodeCells[node];
+		int index = previous + maze.offset(directions[edge]);
+		for (int step = 1; step < lengths[edge]; step++) {
+			route.add(index);
+			int corridor = index;
+			index = onwards(maze, corridor, previous);
+			previous = corridor;
+		}
+		route.add(index);
+	}
+}
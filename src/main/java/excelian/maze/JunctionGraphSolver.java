@@ -0,0 +1,107 @@
+package excelian.maze;
+
+import java.util.Arrays;
+
+import excelian.maze.Maze.Cell;
+
+/**
+ * Shortest route solver searching the {@code JunctionGraph} of the maze rather than its cells,
+ * with Dijkstra's algorithm over the corridor lengths. Only the corridors of the route found are
+ * walked cell by cell, once the search is over.
+ * The graph is built on the first solve of a maze and kept for following solves of the same maze,
+ * until the maze is edited.
+ * Cells expanded and visited are nodes of the graph, walls are never probed.
+ * Not ThreadSafe
+ * @author FN
+ */
+public class JunctionGraphSolver implements Solver {
+
+	private final IntMinHeap open = new IntMinHeap();
+	private final IntStack path = new IntStack();
+	private JunctionGraph graph;
+	private int[] costs = new int[0];
+	private int[] parentEdges = new int[0];
+	private int[] parentNodes = new int[0];
+
+	public JunctionGraphSolver() {
+	}
+
+	/** @param graph graph of the mazes to be solved, saving its build on the first solve */
+	public JunctionGraphSolver(JunctionGraph graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if start is not a node of the graph
+	 */
+	@Override
+	public boolean solve(Maze maze, Cell start, SearchState state, Route.Builder route, ExplorationListener listener) {
+		if (graph == null || graph.getMaze() != maze || !graph.isCurrent()) {
+			graph = JunctionGraph.build(maze);
+		}
+		int startNode = graph.nodeAt(maze.indexOf(start.getX(), start.getY()));
+		if (startNode < 0) {
+			throw new IllegalArgumentException(String.format(
+					"Start cell [x=%s, y=%s] must be a junction, dead end, S or F", start.getX(), start.getY()));
+		}
+		int finishNode = graph.nodeAt(maze.finishIndex());
+		if (!search(startNode, finishNode, state, listener)) {
+			return false;
+		}
+		listener.onFinish(maze.finishIndex());
+		route.add(graph.cellOf(startNode));
+		path.clear();
+		for (int node = finishNode; node != startNode; node = parentNodes[node]) {
+			path.push(parentEdges[node]);
+			path.push(parentNodes[node]);
+		}
+		while (!path.isEmpty()) {
+			graph.expand(path.pop(), path.pop(), route);
+		}
+		state.setPathLength(costs[finishNode] + 1);
+		state.moveTo(maze.finishIndex());
+		return true;
+	}
+
+	private boolean search(int startNode, int finishNode, SearchState state, ExplorationListener listener) {
+		int nodes = graph.nodeCount();
+		if (costs.length != nodes) {
+			costs = new int[nodes];
+			parentEdges = new int[nodes];
+			parentNodes = new int[nodes];
+		}
+		Arrays.fill(costs, Integer.MAX_VALUE);
+		open.clear();
+		costs[startNode] = 0;
+		open.add(startNode, 0);
+		while (!open.isEmpty()) {
+			state.frontierSize(open.size());
+			int node = open.poll();
+			int cell = graph.cellOf(node);
+			if (state.isVisited(cell)) {
+				// stale entry, node already expanded at a lower cost
+				continue;
+			}
+			state.visit(cell);
+			if (node == finishNode) {
+				open.clear();
+				return true;
+			}
+			state.countExpansion();
+			listener.onVisit(cell);
+			for (int edge = graph.firstEdge(node), end = graph.endEdge(node); edge < end; edge++) {
+				int target = graph.target(edge);
+				int cost = costs[node] + graph.length(edge);
+				if (cost >= costs[target]) {
+					listener.onRevisit(graph.cellOf(target));
+					continue;
+				}
+				costs[target] = cost;
+				parentEdges[target] = edge;
+				parentNodes[target] = node;
+				open.add(target, cost);
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,78 @@
+package excelian.maze;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non negative values in power of two buckets: bucket 0 holds 0, bucket b
+ * holds values from 2^(b-1) to 2^b - 1. Recording is lock free and allocates nothing.
+ * ThreadSafe
+ * @author FN
+ */
+final class Log2Histogram {
+
+	static final int BUCKETS = 65;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value));
+		count.incrementAndGet();
+		sum.addAndGet(value);
+		long seen;
+		while (value > (seen = max.get()) && !max.compareAndSet(seen, value)) {
+			// retry, raced with another thread
+		}
+	}
+
+	long count() {
+		return count.get();
+	}
+
+	double mean() {
+		long n = count.get();
+		return n == 0 ? 0 : (double) sum.get() / n;
+	}
+
+	long max() {
+		return max.get();
+	}
+
+	/** @return upper bound of the bucket holding the given fraction (0 to 1) of values, 0 if empty */
+	long percentile(double fraction) {
+		long n = count.get();
+		long rank = (long) Math.ceil(n * fraction);
+		long seen = 0;
+		for (int b = 0; b < BUCKETS; b++) {
+			seen += buckets.get(b);
+			if (seen >= rank && seen > 0) {
+				return b == 0 ? 0 : b == 64 ? Long.MAX_VALUE : (1L << b) - 1;
+			}
+		}
+		return 0;
+	}
+
+	/** @return count of values in each bucket */
+	long[] snapshot() {
+		long[] copy = new long[BUCKETS];
+		for (int b = 0; b < BUCKETS; b++) {
+			copy[b] = buckets.get(b);
+		}
+		return copy;
+	}
+
+	void reset() {
+		for (int b = 0; b < BUCKETS; b++) {
+			buckets.set(b, 0);
+		}
+		count.set(0);
+		sum.set(0);
+		max.set(0);
+	}
+}
@@ -0,0 +1,65 @@
+package excelian.maze;
+
+import org.apache.log4j.Logger;
+
+import excelian.maze.Maze.Cell;
+
+/**
+ * Logs every step of explorations to log4j for debugging, at INFO level but for backtracks at DEBUG.
+ * Messages are only built when INFO is enabled for this class.
+ * Not ThreadSafe
+ * @author FN
+ */
+public class LoggingExplorationListener implements ExplorationListener {
+
+	private Logger logger = Logger.getLogger(LoggingExplorationListener.class);
+	private Maze maze;
+
+	@Override
+	public void onStart(Maze maze) {
+		this.maze = maze;
+	}
+
+	@Override
+	public void onVisit(int index) {
+		if (logger.isInfoEnabled()) {
+			Cell cell = maze.cellAt(index);
+			logger.info(String.format("Visiting [%s] cell : %s", cell.getType(), getCoordsAsStr(cell)));
+		}
+	}
+
+	@Override
+	public void onWall(int index) {
+		if (logger.isInfoEnabled()) {
+			logger.info(String.format("I just hit a wall at %s", getCoordsAsStr(maze.cellAt(index))));
+		}
+	}
+
+	@Override
+	public void onRevisit(int index) {
+		if (logger.isInfoEnabled()) {
+			logger.info(String.format("I just encountered a cell I have already visited : %s",
+					getCoordsAsStr(maze.cellAt(index))));
+		}
+	}
+
+	@Override
+	public void onBacktrack(int index) {
+		if (logger.isDebugEnabled()) {
+			logger.debug(String.format("Backtracking from %s", getCoordsAsStr(maze.cellAt(index))));
+		}
+	}
+
+	@Override
+	public void onFinish(int index) {
+		if (logger.isInfoEnabled()) {
+			Cell cell = maze.cellAt(index);
+			logger.info(String.format("I have reached the end of the maze [%s] : %s", cell.getType(),
+					getCoordsAsStr(cell)));
+		}
+	}
+
+	private String getCoordsAsStr(Cell cell) {
+		return String.format("coordinates [y=%s, x=%s]", cell.getY(), cell.getX());
+	}
+}
@@ -1,10 +1,14 @@
 package excelian.maze;
 
 import java.awt.Point;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import excelian.maze.Maze.Cell.Type;
@@ -13,127 +17,523 @@ import excelian.maze.Maze.Cell.Type;
  * A Maze consists of walls 'X', Empty spaces ' ', one and only one Start point 'S' and one and only one exit 'F'.
  * Encapsulates an x by y array of neighbouring Cells as defined in {@code Cell}
  * First cell is of x,y coordinate (0,0)
- * Not ThreadSafe
+ * Cells are stored packed, one byte per cell indexed by <code>y * width + x</code>, {@code Cell}
+ * instances are only created on demand as views over that storage. Mazes larger than the heap
+ * hold their cells in tiles of a file, see {@code TileCache}.
+ * Exploration state is kept apart in a {@code SearchState}, so a single Maze may be explored
+ * by many threads at once. Cells may be changed after construction, see
+ * {@code setCellTypes(Collection)}, but not while the maze is being explored.
+ * ThreadSafe for explorations, not for edits
  * @author FN
  */
 public class Maze {
 
-	private static final int MIN_CELL_LEN = 3;
-	private static final int MIN_ROW_LEN = 3;
-	private Cell[][] mazeCells;
-	private Cell startCell;
+	static final int MIN_CELL_LEN = 3;
+	static final int MIN_ROW_LEN = 3;
+	/** cells of a maze at most, as many as an array may hold */
+	static final int MAX_CELLS = Integer.MAX_VALUE - 8;
+	/** low bits of a packed cell hold its {@code Type} ordinal */
+	static final byte TYPE_MASK = 0x03;
+	/** directions, in the order explorers attempt them */
+	static final int RIGHT = 0, DOWN = 1, LEFT = 2, UP = 3;
+	static final int DIRECTIONS = 4;
+	/** next bits of a packed cell flag the directions leading to an open neighbour, see {@code openNeighbours(int)} */
+	private static final int NEIGHBOURS_SHIFT = 2;
+	private static final Type[] TYPES = Type.values();
+
+	private final CellStore grid;
+	private final int cellCount;
+	private final int width;
+	private final int height;
+	private final int[] offsets;
+	private int startIndex = -1;
+	private int finishIndex = -1;
 	private Map<Type, AtomicInteger> contentsMap;
+	private final List<MazeEditListener> editListeners = new CopyOnWriteArrayList<>();
+	private long version;
+	private volatile ComponentIndex components;
 
 	public Maze(Cell[][] mazeCells) {
-		validate(mazeCells);		
-		this.mazeCells = mazeCells;		
+		this(pack(mazeCells), mazeCells[0].length, mazeCells.length);
+	}
+
+	/**
+	 * @param grid packed cells, one {@code Type} ordinal per byte indexed by <code>y * width + x</code>
+	 */
+	Maze(byte[] grid, int width, int height) {
+		this.grid = new CellStore.Heap(grid);
+		this.cellCount = grid.length;
+		this.width = width;
+		this.height = height;
+		this.offsets = offsets(width);
+		validate();
 		computeContents();
+		computeNeighbours();
 	}
 
-	private void validate(Cell[][] cells) {
-		ensureRowSize(cells);
-		validateCells(cells);
+	/**
+	 * Trusted constructor for grids already validated, and counted, while being read.
+	 * @param counts number of cells of each {@code Type}, indexed by ordinal
+	 */
+	Maze(byte[] grid, int width, int height, int startIndex, int finishIndex, int[] counts) {
+		this(new CellStore.Heap(grid), width, height, startIndex, finishIndex, counts);
 	}
 
-	private void ensureRowSize(Cell[][] cells) {
-		if (!(cells.length >= MIN_ROW_LEN)) {
-			throw new IllegalArgumentException("Maze must contan 3 or more rows");
+	/**
+	 * Trusted constructor for cells held in any store, already validated and counted while being read.
+	 * @param counts number of cells of each {@code Type}, indexed by ordinal
+	 */
+	Maze(CellStore grid, int width, int height, int startIndex, int finishIndex, int[] counts) {
+		if ((long) width * height > MAX_CELLS) {
+			throw tooManyCells();
 		}
+		this.grid = grid;
+		this.cellCount = width * height;
+		this.width = width;
+		this.height = height;
+		this.startIndex = startIndex;
+		this.finishIndex = finishIndex;
+		this.offsets = offsets(width);
+		computeContents(counts);
+		computeNeighbours();
 	}
-	
-	private void validateCells(Cell[][] cells) {
+
+	/**
+	 * Trusted constructor flagging open neighbours of each chunk of rows in parallel.
+	 * @see #Maze(byte[], int, int, int, int, int[])
+	 */
+	Maze(byte[] grid, int width, int height, int startIndex, int finishIndex, int[] counts, ForkJoinPool pool) {
+		this.grid = new CellStore.Heap(grid);
+		this.cellCount = grid.length;
+		this.width = width;
+		this.height = height;
+		this.startIndex = startIndex;
+		this.finishIndex = finishIndex;
+		this.offsets = offsets(width);
+		computeContents(counts);
+		pool.invoke(new NeighbourRows(0, height));
+	}
+
+	private static int[] offsets(int width) {
+		int[] offsets = new int[DIRECTIONS];
+		offsets[RIGHT] = 1;
+		offsets[DOWN] = width;
+		offsets[LEFT] = -1;
+		offsets[UP] = -width;
+		return offsets;
+	}
+
+	/** Packs the cells, checking each row's size then its first and last cells before the next row */
+	private static byte[] pack(Cell[][] cells) {
+		ensureRowSize(cells.length);
+		int width = cells[0].length;
+		byte[] grid = new byte[cells.length * width];
 		for (int i = 0; i < cells.length; i++) {
 			if (!(cells[i].length >= MIN_CELL_LEN)) {
-				throw new IllegalStateException("Each row must contain at least 3 cells");
-			} else if (cells[i].length != cells[0].length) {
-				throw new IllegalStateException(
-						String.format("Row %s is of non uniform cell size (%s) - %s cells expected.", i + 1,
-								cells[i].length, cells[0].length));
+				throw tooFewCells();
+			} else if (cells[i].length != width) {
+				throw nonUniformRow(i, cells[i].length, width);
+			} else if (cells[i][0].isSpaceType() || cells[i][width - 1].isSpaceType()) {
+				throw spaceAtRowEdge(i);
 			}
-			if (cells[i][0].isSpaceType() || cells[i][cells[i].length - 1].isSpaceType()) {
-				throw new IllegalStateException(String
-						.format("First and or last cell of row %s should not be a %s type.", i + 1, Cell.Type.SPACE));
+			for (int j = 0; j < width; j++) {
+				grid[i * width + j] = (byte) cells[i][j].getType().ordinal();
+			}
+		}
+		return grid;
+	}
+
+	static IllegalArgumentException tooManyCells() {
+		return new IllegalArgumentException(String.format("Maze too large, more than %s cells", MAX_CELLS));
+	}
+
+	static IllegalArgumentException tooFewRows() {
+		return new IllegalArgumentException("Maze must contan 3 or more rows");
+	}
+
+	static IllegalStateException tooFewCells() {
+		return new IllegalStateException("Each row must contain at least 3 cells");
+	}
+
+	/** @param row zero based row index */
+	static IllegalStateException nonUniformRow(int row, int length, int expected) {
+		return new IllegalStateException(
+				String.format("Row %s is of non uniform cell size (%s) - %s cells expected.", row + 1, length, expected));
+	}
+
+	/** @param row zero based row index */
+	static IllegalStateException spaceAtRowEdge(int row) {
+		return new IllegalStateException(String
+				.format("First and or last cell of row %s should not be a %s type.", row + 1, Cell.Type.SPACE));
+	}
+
+	/** @param cell zero based cell index within row */
+	static IllegalStateException unexpectedSpace(int cell, int rowId) {
+		return new IllegalStateException(
+				String.format("Cell %s of row %s contains unexpected space", cell + 1, rowId));
+	}
+
+	static IllegalStateException notSingle(Type type) {
+		return new IllegalStateException(String.format("Maze should contain only one [%s] point/cell", type));
+	}
+
+	static IllegalStateException missing(Type type) {
+		return new IllegalStateException(String.format("Maze should contain a single [%s] point/cell", type));
+	}
+
+	private void validate() {
+		ensureRowSize(height);
+		validateCells();
+	}
+
+	private static void ensureRowSize(int rows) {
+		if (!(rows >= MIN_ROW_LEN)) {
+			throw tooFewRows();
+		}
+	}
+	
+	private void validateCells() {
+		if (!(width >= MIN_CELL_LEN)) {
+			throw tooFewCells();
+		}
+		for (int i = 0; i < height; i++) {
+			if (typeAt(i * width) == Type.SPACE || typeAt(i * width + width - 1) == Type.SPACE) {
+				throw spaceAtRowEdge(i);
 			}
 		}
 		// cells of top and bottom rows must contain no space
-		ensureNoSpace(cells[0], 0);
-		ensureNoSpace(cells[cells.length - 1], cells.length - 1);
-		ensureSingleStartAndFinish(cells);
+		ensureNoSpace(0);
+		ensureNoSpace(height - 1);
+		ensureSingleStartAndFinish();
 	}
 
-	private void ensureSingleStartAndFinish(Cell[][] cells) {
-		Set<Type> typeSet = new HashSet<>();
-		for (int i = 0; i < cells.length; i++) {
-			Cell[] cols = cells[i];
-			for (int j = 0; j < cols.length; j++) {
-				if (cols[j].isStart() || cols[j].isFinish()) {
-					if (typeSet.contains(cols[j].type)) {
-						throw new IllegalStateException(
-								String.format("Maze should contain only one [%s] point/cell", cols[j].type));
-					} else {
-						typeSet.add(cols[j].type);
-					}
+	private void ensureSingleStartAndFinish() {
+		for (int i = 0; i < cellCount; i++) {
+			Type type = typeAt(i);
+			if (type == Type.START) {
+				if (startIndex >= 0) {
+					throw notSingle(type);
+				}
+				startIndex = i;
+			} else if (type == Type.FINISH) {
+				if (finishIndex >= 0) {
+					throw notSingle(type);
 				}
+				finishIndex = i;
 			}
 		}
-		
-		if(!typeSet.contains(Type.START) ) {
-			throw new IllegalStateException(String.format("Maze should contain a single [%s] point/cell", Type.START));			
-		} else if (!typeSet.contains(Type.FINISH)) {
-			throw new IllegalStateException(String.format("Maze should contain a single [%s] point/cell", Type.FINISH));
+
+		if (startIndex < 0) {
+			throw missing(Type.START);
+		} else if (finishIndex < 0) {
+			throw missing(Type.FINISH);
 		}
 
 	}
 
-	private void ensureNoSpace(Cell[] cells, int rowId) {
-		for (int i = 0; i < cells.length; i++) {
-			if (cells[i].isSpaceType()) {
-				throw new IllegalStateException(
-						String.format("Cell %s of row %s contains unexpected space", i + 1, rowId));
+	private void ensureNoSpace(int rowId) {
+		for (int i = 0; i < width; i++) {
+			if (typeAt(rowId * width + i) == Type.SPACE) {
+				throw unexpectedSpace(i, rowId);
 			}
 		}
 	}
 	
-
-	
 	private void computeContents() {
+		int[] counts = new int[TYPES.length];
+		for (int i = 0; i < cellCount; i++) {
+			counts[grid.get(i) & TYPE_MASK]++;
+		}
+		computeContents(counts);
+	}
+
+	private void computeContents(int[] counts) {
 		if (contentsMap != null) {
 			throw new IllegalStateException("Nultiple invocation not allowed.");
 			
 		}
-		contentsMap = new HashMap<>();
-		Cell[][] cells = mazeCells;
-		for (int i = 0; i < cells.length; i++) {
-			Cell[] cols = cells[i];
-			for (int j = 0; j < cols.length; j++) {				
-				if(contentsMap.get(cols[j].getType()) == null) {
-					contentsMap.put(cols[j].getType(), new AtomicInteger(1));
-				} else {
-					(contentsMap.get(cols[j].getType())).incrementAndGet();
+		contentsMap = new EnumMap<>(Type.class);
+		for (Type type : TYPES) {
+			contentsMap.put(type, new AtomicInteger(counts[type.ordinal()]));
+		}
+	}
+
+	/**
+	 * Flags, for each cell, the directions in which its neighbour is open and within the maze,
+	 * so that searches need no bounds checks.
+	 */
+	private void computeNeighbours() {
+		computeNeighbours(0, height);
+	}
+
+	/**
+	 * Flags open neighbours of rows from (inclusive) to (exclusive). Rows may be flagged
+	 * concurrently: the type bits of a neighbouring row being flagged are never changed.
+	 */
+	private void computeNeighbours(int from, int to) {
+		for (int y = from, index = from * width; y < to; y++) {
+			for (int x = 0; x < width; x++, index++) {
+				int open = 0;
+				if (x < width - 1 && isOpen(index + 1)) {
+					open |= 1 << RIGHT;
 				}
+				if (y < height - 1 && isOpen(index + width)) {
+					open |= 1 << DOWN;
+				}
+				if (x > 0 && isOpen(index - 1)) {
+					open |= 1 << LEFT;
+				}
+				if (y > 0 && isOpen(index - width)) {
+					open |= 1 << UP;
+				}
+				grid.set(index, (byte) ((grid.get(index) & TYPE_MASK) | open << NEIGHBOURS_SHIFT));
 			}
 		}
 	}
 
-	public Cell getStartCell() {
-		if (startCell != null) {
-			return startCell;
+	/** Flags open neighbours of rows from (inclusive) to (exclusive), in chunks of about a million cells */
+	private final class NeighbourRows extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final int from;
+		private final int to;
+
+		NeighbourRows(int from, int to) {
+			this.from = from;
+			this.to = to;
 		}
-		Cell[][] cells = mazeCells;
-		for (int i = 0; i < cells.length; i++) {
-			Cell[] cols = cells[i];
-			for (int j = 0; j < cols.length; j++) {
-				if (cols[j].isStart()) {
-					startCell = cols[j];
-					return cols[j];
+
+		@Override
+		protected void compute() {
+			if ((long) (to - from) * width > 1 << 20 && to - from > 1) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new NeighbourRows(from, middle), new NeighbourRows(middle, to));
+			} else {
+				computeNeighbours(from, to);
+			}
+		}
+	}
+
+	public void setCellType(int x, int y, Type type) {
+		setCellTypes(Collections.singletonList(new Cell(type, new Point(x, y))));
+	}
+
+	/**
+	 * Changes the type of the maze cell at the coordinates of each given cell to the given cell's
+	 * type, as one edit. Validation and counts are kept up to date from the cells changed only:
+	 * the maze must be valid once every change is made, else none is.
+	 * Edit listeners are told of each cell changed once the edit is made.
+	 * @throws IllegalArgumentException if a cell is outside the maze
+	 * @throws IllegalStateException if the maze would no longer be valid, with the message
+	 *             validation of a new maze would give
+	 */
+	public void setCellTypes(Collection<Cell> cells) {
+		int[] indices = new int[cells.size()];
+		byte[] was = new byte[indices.length];
+		int i = 0;
+		for (Cell cell : cells) {
+			int x = cell.getX();
+			int y = cell.getY();
+			if (x < 0 || y < 0 || x >= width || y >= height) {
+				throw new IllegalArgumentException(String.format("Cell [x=%s, y=%s] outside the maze", x, y));
+			}
+			if (cell.getType() == Type.SPACE) {
+				if (x == 0 || x == width - 1) {
+					throw spaceAtRowEdge(y);
+				} else if (y == 0 || y == height - 1) {
+					throw unexpectedSpace(x, y);
 				}
 			}
+			indices[i++] = indexOf(x, y);
+		}
+		i = 0;
+		for (Cell cell : cells) {
+			was[i] = (byte) typeAt(indices[i]).ordinal();
+			change(indices[i++], cell.getType());
+		}
+		IllegalStateException invalid = ensureSingle(Type.START);
+		if (invalid == null) {
+			invalid = ensureSingle(Type.FINISH);
+		}
+		if (invalid != null) {
+			for (i = indices.length - 1; i >= 0; i--) {
+				change(indices[i], TYPES[was[i]]);
+			}
+			throw invalid;
+		}
+		startIndex = locate(Type.START, indices, startIndex);
+		finishIndex = locate(Type.FINISH, indices, finishIndex);
+		version++;
+		for (i = 0; i < indices.length; i++) {
+			if (typeAt(indices[i]).ordinal() != was[i]) {
+				for (MazeEditListener listener : editListeners) {
+					listener.cellChanged(this, indices[i] % width, indices[i] / width);
+				}
+			}
+		}
+	}
+
+	private IllegalStateException ensureSingle(Type type) {
+		int count = contentsMap.get(type).intValue();
+		return count == 0 ? missing(type) : count > 1 ? notSingle(type) : null;
+	}
+
+	/**
+	 * @param indices cells changed by an edit leaving a single cell of given type
+	 * @param previous index of the cell of that type before the edit
+	 * @return index of the cell of that type, previous unless that type was set by the edit
+	 */
+	private int locate(Type type, int[] indices, int previous) {
+		for (int index : indices) {
+			if (typeAt(index) == type) {
+				return index;
+			}
+		}
+		return previous;
+	}
+
+	/**
+	 * Sets the type of the cell at index, updating counts and the open neighbour flags of the cells
+	 * around it. Start and finish are left to be located once the whole edit is known to be valid.
+	 */
+	private void change(int index, Type type) {
+		Type old = typeAt(index);
+		if (old == type) {
+			return;
+		}
+		contentsMap.get(old).decrementAndGet();
+		contentsMap.get(type).incrementAndGet();
+		grid.set(index, (byte) ((grid.get(index) & ~TYPE_MASK) | type.ordinal()));
+		boolean open = type != Type.WALL;
+		if (open == (old != Type.WALL)) {
+			return;
+		}
+		for (int direction = 0; direction < DIRECTIONS; direction++) {
+			int next = neighbourOf(index, direction);
+			if (next >= 0) {
+				// flag of the neighbour pointing back at index
+				int flag = 1 << ((direction + 2) % DIRECTIONS + NEIGHBOURS_SHIFT);
+				byte cell = grid.get(next);
+				grid.set(next, (byte) (open ? cell | flag : cell & ~flag));
+			}
 		}
-		throw new IllegalStateException("Start cell not found as expected");
+	}
+
+	public void addEditListener(MazeEditListener listener) {
+		editListeners.add(listener);
+	}
+
+	public void removeEditListener(MazeEditListener listener) {
+		editListeners.remove(listener);
+	}
+
+	/** @return cache of the tiles holding the cells, null if they are all held in the heap */
+	public TileCache getTileCache() {
+		return grid instanceof TileCache ? (TileCache) grid : null;
+	}
+
+	/** @return number of edits made to the maze since it was built */
+	long version() {
+		return version;
+	}
+
+	public Cell getStartCell() {
+		return cellAt(startIndex);
+	}
+
+	public Cell getFinishCell() {
+		return cellAt(finishIndex);
 	}
 
 	public Cell getCellAt(int x, int y) {
-		return mazeCells[y][x]; 
+		if (x < 0 || x >= width) {
+			throw new ArrayIndexOutOfBoundsException(x);
+		}
+		return cellAt(y * width + x);
+	}
+
+	Cell cellAt(int index) {
+		return new Cell(typeAt(index), new Point(index % width, index / width));
+	}
+
+	Type typeAt(int index) {
+		return TYPES[grid.get(index) & TYPE_MASK];
+	}
+
+	/** @return number of cells in each row */
+	public int width() {
+		return width;
+	}
+
+	/** @return number of rows */
+	public int height() {
+		return height;
+	}
+
+	int indexOf(int x, int y) {
+		return y * width + x;
+	}
+
+	int cellCount() {
+		return cellCount;
+	}
+
+	int startIndex() {
+		return startIndex;
+	}
+
+	int finishIndex() {
+		return finishIndex;
+	}
+
+	boolean isOpen(int index) {
+		return (grid.get(index) & TYPE_MASK) != Type.WALL.ordinal();
+	}
+
+	/**
+	 * @return bit set of the directions, bit {@code RIGHT} lowest, in which the neighbour of the cell
+	 *         at index is open; never set for directions beyond the maze edge
+	 */
+	int openNeighbours(int index) {
+		return grid.get(index) >>> NEIGHBOURS_SHIFT;
+	}
+
+	/**
+	 * @return difference between the index of a cell and that of its neighbour in given direction,
+	 *         only meaningful where that neighbour is within the maze
+	 */
+	int offset(int direction) {
+		return offsets[direction];
+	}
+
+	/**
+	 * @param direction one of {@code RIGHT}, {@code DOWN}, {@code LEFT}, {@code UP}
+	 * @return index of the neighbouring cell in given direction, -1 if beyond the maze edge
+	 */
+	int neighbourOf(int index, int direction) {
+		int x = index % width;
+		switch (direction) {
+		case RIGHT:
+			return x < width - 1 ? index + 1 : -1;
+		case DOWN:
+			return index + width < cellCount ? index + width : -1;
+		case LEFT:
+			return x > 0 ? index - 1 : -1;
+		case UP:
+			return index - width >= 0 ? index - width : -1;
+		default:
+			throw new IllegalArgumentException("Unknown direction " + direction);
+		}
+	}
+
+	/** @return Manhattan distance between two cells */
+	int distance(int from, int to) {
+		return Math.abs(from % width - to % width) + Math.abs(from / width - to / width);
+	}
+
+	/** @return CRC32 of the cells, identifying the layout of the maze */
+	long checksum() {
+		return grid.checksum(cellCount);
 	}
 	
 	public Integer getNumberOfWalls() {
@@ -144,9 +544,25 @@ public class Maze {
 		return contentsMap.get(Type.SPACE).intValue();
 	}
 
+	/**
+	 * @return connected components of the open cells, built on the first call and again after edits
+	 */
+	public ComponentIndex getComponents() {
+		ComponentIndex index = components;
+		if (index == null || !index.isCurrent()) {
+			components = index = ComponentIndex.build(this);
+		}
+		return index;
+	}
+
+	public int getNumberOfComponents() {
+		return getComponents().getNumberOfComponents();
+	}
+
 
+	/** @return number of rows, as {@code height()} */
 	public int size() {
-		return mazeCells.length;
+		return height;
 	}
 
 	public static class Cell {
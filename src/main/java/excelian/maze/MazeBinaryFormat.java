@@ -0,0 +1,175 @@
+package excelian.maze;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import excelian.maze.Maze.Cell.Type;
+
+/**
+ * Versioned binary format of a {@code Maze}, a header followed by the cells packed 2 bits each.
+ * <pre>
+ * offset size
+ *  0     4    magic "MAZB"
+ *  4     2    version
+ *  6     2    flags, bit 0 set if the checksum is present
+ *  8     4    width
+ * 12     4    height
+ * 16     4    start cell index (y * width + x)
+ * 20     4    finish cell index
+ * 24     4    number of walls
+ * 28     4    number of spaces
+ * 32     8    CRC32 of the cells, 0 if absent
+ * 40     -    cells, {@code Type} ordinals packed 4 per byte, first cell in the lowest bits
+ * </pre>
+ * The header is trusted on read, the maze having been validated when it was written, so
+ * no validation pass is made over the cells.
+ * Integers are big endian.
+ * @author FN
+ */
+public final class MazeBinaryFormat {
+
+	static final int MAGIC = 0x4D415A42;
+	static final short VERSION = 1;
+	static final short FLAG_CHECKSUM = 0x01;
+	static final int HEADER_SIZE = 40;
+	private static final int CHUNK_SIZE = 1 << 16;
+
+	private MazeBinaryFormat() {
+	}
+
+	/**
+	 * Writes maze to file, with a checksum of its cells.
+	 */
+	public static void write(Maze maze, File file) throws IOException {
+		write(maze, file, true);
+	}
+
+	public static void write(Maze maze, File file, boolean checksum) throws IOException {
+		CRC32 crc = new CRC32();
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+			long position = HEADER_SIZE;
+			int cells = maze.cellCount();
+			for (int i = 0; i < cells; i += 4) {
+				int packed = 0;
+				for (int j = 0; j < 4 && i + j < cells; j++) {
+					packed |= maze.typeAt(i + j).ordinal() << (j * 2);
+				}
+				chunk.put((byte) packed);
+				if (!chunk.hasRemaining()) {
+					position += flush(chunk, channel, position, crc);
+				}
+			}
+			flush(chunk, channel, position, crc);
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC).putShort(VERSION).putShort(checksum ? FLAG_CHECKSUM : 0);
+			header.putInt(maze.width()).putInt(maze.height());
+			header.putInt(maze.startIndex()).putInt(maze.finishIndex());
+			header.putInt(maze.getNumberOfWalls()).putInt(maze.getNumberOfSpaces());
+			header.putLong(checksum ? crc.getValue() : 0);
+			header.flip();
+			while (header.hasRemaining()) {
+				channel.write(header, header.position());
+			}
+		}
+	}
+
+	private static int flush(ByteBuffer chunk, FileChannel channel, long position, CRC32 crc) throws IOException {
+		chunk.flip();
+		int length = chunk.remaining();
+		crc.update(chunk.array(), 0, length);
+		long offset = position;
+		while (chunk.hasRemaining()) {
+			offset += channel.write(chunk, offset);
+		}
+		chunk.clear();
+		return length;
+	}
+
+	/**
+	 * @return <code>true</code> if buffer, from its position, starts with the binary format's magic number
+	 */
+	public static boolean isBinary(ByteBuffer buffer) {
+		return buffer.remaining() >= 4 && buffer.getInt(buffer.position()) == MAGIC;
+	}
+
+	/**
+	 * Reads a maze from buffer, from its position, leaving the buffer untouched.
+	 * @param verify if <code>true</code> and the checksum is present, it is checked against the cells
+	 * @throws IllegalArgumentException if buffer does not hold a maze of a supported version, or
+	 *             the checksum does not match
+	 */
+	public static Maze read(ByteBuffer buffer, boolean verify) {
+		int offset = buffer.position();
+		if (!isBinary(buffer) || buffer.remaining() < HEADER_SIZE) {
+			throw new IllegalArgumentException("Not a binary maze");
+		}
+		short version = buffer.getShort(offset + 4);
+		if (version != VERSION) {
+			throw new IllegalArgumentException(String.format("Binary maze version %s not supported", version));
+		}
+		short flags = buffer.getShort(offset + 6);
+		int width = buffer.getInt(offset + 8);
+		int height = buffer.getInt(offset + 12);
+		int startIndex = buffer.getInt(offset + 16);
+		int finishIndex = buffer.getInt(offset + 20);
+		int[] counts = new int[Type.values().length];
+		counts[Type.WALL.ordinal()] = buffer.getInt(offset + 24);
+		counts[Type.SPACE.ordinal()] = buffer.getInt(offset + 28);
+		counts[Type.START.ordinal()] = 1;
+		counts[Type.FINISH.ordinal()] = 1;
+		long checksum = buffer.getLong(offset + 32);
+
+		long cells = (long) width * height;
+		long bodySize = (cells + 3) / 4;
+		if (width <= 0 || height <= 0 || cells > Integer.MAX_VALUE - 8
+				|| buffer.remaining() - HEADER_SIZE < bodySize || startIndex < 0 || startIndex >= cells
+				|| finishIndex < 0 || finishIndex >= cells) {
+			throw new IllegalArgumentException(
+					String.format("Binary maze of %s x %s cells truncated or corrupt", width, height));
+		}
+		byte[] grid = new byte[(int) cells];
+		CRC32 crc = verify && (flags & FLAG_CHECKSUM) != 0 ? new CRC32() : null;
+		byte[] chunk = new byte[CHUNK_SIZE];
+		ByteBuffer body = buffer.duplicate();
+		body.position(offset + HEADER_SIZE);
+		int cell = 0;
+		for (long remaining = bodySize; remaining > 0;) {
+			int length = (int) Math.min(remaining, chunk.length);
+			body.get(chunk, 0, length);
+			if (crc != null) {
+				crc.update(chunk, 0, length);
+			}
+			for (int i = 0; i < length; i++) {
+				int packed = chunk[i];
+				for (int j = 0; j < 4 && cell < grid.length; j++) {
+					grid[cell++] = (byte) ((packed >>> (j * 2)) & Maze.TYPE_MASK);
+				}
+			}
+			remaining -= length;
+		}
+		if (crc != null && crc.getValue() != checksum) {
+			throw new IllegalArgumentException("Binary maze checksum mismatch");
+		}
+		return new Maze(grid, width, height, startIndex, finishIndex, counts);
+	}
+
+	/**
+	 * Converts a maze text file to the binary format.
+	 * @param args text file, binary file
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length != 2) {
+			System.err.println("Usage: MazeBinaryFormat <maze text file> <binary file>");
+			System.exit(1);
+		}
+		Maze maze = new MazeReader(DefaultPool.POOL).makeMaze(new File(args[0]));
+		write(maze, new File(args[1]));
+	}
+}
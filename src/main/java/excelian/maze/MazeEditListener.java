@@ -0,0 +1,11 @@
+package excelian.maze;
+
+/**
+ * Told of changes made to the cells of a {@code Maze}, see {@code Maze#setCellTypes(java.util.Collection)}.
+ * Called on the thread making the edit, once the whole edit is made and the maze valid again.
+ * @author FN
+ */
+public interface MazeEditListener {
+
+	void cellChanged(Maze maze, int x, int y);
+}
@@ -0,0 +1,135 @@
+package excelian.maze;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.log4j.Logger;
+
+import excelian.maze.Maze.Cell.Type;
+
+/**
+ * Single pass parser of maze text held in a {@code ByteBuffer}, typically a memory mapped file.
+ * Each byte is classified through a 256 entry lookup table and written straight into the packed
+ * grid of the {@code Maze}; cells are validated and counted in the same pass, by a
+ * {@code RowValidator}, so the {@code Maze} need not scan them again. Rows end with '\n', '\r'
+ * or "\r\n", blank rows are skipped.
+ * Not ThreadSafe
+ * @author FN
+ */
+final class MazeParser {
+
+	/** classes of bytes other than cell type ordinals */
+	static final byte INVALID = -1, LINE_END = -2;
+	/** class of each byte: a cell type ordinal, {@code INVALID} or {@code LINE_END} */
+	static final byte[] CLASSES = new byte[256];
+	static {
+		Arrays.fill(CLASSES, INVALID);
+		for (Type type : Type.values()) {
+			CLASSES[type.getCode().charAt(0)] = (byte) type.ordinal();
+		}
+		CLASSES['\r'] = LINE_END;
+		CLASSES['\n'] = LINE_END;
+	}
+	private Logger logger = Logger.getLogger(MazeParser.class);
+	private final ByteBuffer buffer;
+	private final int limit;
+	private int position;
+
+	private byte[] grid;
+	private int width;
+	private RowValidator rows;
+
+	private MazeParser(ByteBuffer buffer) {
+		this.buffer = buffer;
+		this.position = buffer.position();
+		this.limit = buffer.limit();
+	}
+
+	/**
+	 * Parses and validates the bytes between position and limit of buffer, leaving the buffer untouched.
+	 * @throws IllegalArgumentException on invalid type codes or too few rows
+	 * @throws IllegalStateException on mazes breaking the rules enforced by {@code Maze}
+	 */
+	static Maze parse(ByteBuffer buffer) {
+		return new MazeParser(buffer).parse();
+	}
+
+	private Maze parse() {
+		allocateGrid();
+		while (position < limit) {
+			readRow();
+		}
+		int height = rows.rows();
+		if (grid.length != height * width) {
+			grid = Arrays.copyOf(grid, height * width);
+		}
+		rows.validate();
+		return new Maze(grid, width, height, rows.startIndex(), rows.finishIndex(), rows.counts());
+	}
+
+	/** Sizes grid from the first non blank row, assuming all rows are as wide and end alike */
+	private void allocateGrid() {
+		while (position < limit) {
+			int end = lineEnd(position);
+			if (!isBlank(position, end)) {
+				width = end - position;
+				rows = new RowValidator(width, logger);
+				int terminator = Math.max(nextLine(end) - end, 1);
+				long estimatedRows = (limit - position + terminator) / (width + terminator);
+				grid = new byte[capacity(Math.max(estimatedRows, Maze.MIN_ROW_LEN))];
+				return;
+			}
+			logger.warn("Empty line detected, skipping it.");
+			position = nextLine(end);
+		}
+		throw Maze.tooFewRows();
+	}
+
+	private void readRow() {
+		int base = rows.rows() * width;
+		if (base + width > grid.length) {
+			grid = Arrays.copyOf(grid, capacity(rows.rows() + Math.max(rows.rows() >> 1, 1)));
+		}
+		rows.readRow(buffer, position, limit, grid, base);
+		position = nextLine(rows.end());
+	}
+
+	private int capacity(long rows) {
+		long cells = rows * width;
+		if (cells > Maze.MAX_CELLS) {
+			if ((long) (this.rows.rows() + 1) * width > Maze.MAX_CELLS) {
+				throw Maze.tooManyCells();
+			}
+			return Maze.MAX_CELLS / width * width;
+		}
+		return (int) cells;
+	}
+
+	/** @return index of the end of line character at or after from, or limit */
+	private int lineEnd(int from) {
+		int p = from;
+		while (p < limit && CLASSES[buffer.get(p) & 0xFF] != LINE_END) {
+			p++;
+		}
+		return p;
+	}
+
+	/** @return index of the start of the line following the end of line character at end */
+	private int nextLine(int end) {
+		if (end >= limit) {
+			return limit;
+		} else if (buffer.get(end) == '\r' && end + 1 < limit && buffer.get(end + 1) == '\n') {
+			return end + 2;
+		}
+		return end + 1;
+	}
+
+	private boolean isBlank(int from, int to) {
+		for (int p = from; p < to; p++) {
+			if ((buffer.get(p) & 0xFF) > ' ') {
+				return false;
+			}
+		}
+		return true;
+	}
+}
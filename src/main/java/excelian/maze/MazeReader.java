@@ -1,87 +1,136 @@
 package excelian.maze;
 
-import java.awt.Point;
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStreamReader;
-import java.util.ArrayList;
-import java.util.EnumSet;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
-import org.apache.log4j.Logger;
-
-import excelian.maze.Maze.Cell.Type;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Reads Maze data from specified and parses into {@code Maze} instance.
+ * Files are memory mapped and parsed in a single pass, see {@code MazeParser}, or read as
+ * binary if written by {@code MazeBinaryFormat}. Given a {@code ForkJoinPool}, large text is
+ * parsed and validated in chunks of rows on the pool, see {@code ParallelMazeParser}. Text files
+ * too large for the heap may be read a row at a time into a {@code TileCache}.
  * Not ThreadSafe.  
  * @author FN
  */
 public class MazeReader {	
 	
 	private static final String DEFAULT_FILE_PATH = "src/main/resources/maze.txt";
-	private Logger logger = Logger.getLogger(MazeReader.class);
 	
-	public Maze makeMaze() throws Exception {
-		List<String> readDefault = readDefault();				
-		return parse(readDefault);
-		
+	private final ForkJoinPool pool;
+	private long loadNanos;
+	
+	public MazeReader() {
+		this(null);
 	}
 	
-	private List<String> readDefault() throws Exception {
-		return read(new FileReader(DEFAULT_FILE_PATH));
+	/**
+	 * @param pool parses large text in parallel, or <code>null</code> to parse all text in a single pass
+	 */
+	public MazeReader(ForkJoinPool pool) {
+		this.pool = pool;
 	}
 	
-	public Maze makeMaze(InputStreamReader mazeStream) throws Exception {
-		List<String> readDefault = read(mazeStream);				
-		return parse(readDefault);		
+	public Maze makeMaze() throws Exception {
+		return makeMaze(new File(DEFAULT_FILE_PATH));
 	}
 	
-	private List<String> read(InputStreamReader inputStreamReader) throws Exception {		
-		List<String> lines = new ArrayList<>();
-		String line = null;
-		try (BufferedReader bufReader = new BufferedReader(inputStreamReader);) {
-			while((line=bufReader.readLine()) != null) {				
-				if (!line.trim().equals("")) {
-					lines.add(line);					
-				} else {					
-					logger.warn("Empty line detected, skipping it.");
-				}
-			}					
-		}		
-		return lines;
+	/**
+	 * Memory maps and parses given text or binary file, which must be no larger than 2GB.
+	 */
+	public Maze makeMaze(File mazeFile) throws IOException {
+		long began = System.nanoTime();
+		Maze maze = makeMaze(map(mazeFile));
+		loadNanos = System.nanoTime() - began;
+		return maze;
+	}
+	
+	/**
+	 * Parses maze text, one byte per cell, or a binary maze, held between position and limit of buffer.
+	 * The buffer is left untouched.
+	 */
+	public Maze makeMaze(ByteBuffer mazeData) {
+		long began = System.nanoTime();
+		Maze maze = MazeBinaryFormat.isBinary(mazeData) ? MazeBinaryFormat.read(mazeData, true)
+				: pool != null ? ParallelMazeParser.parse(mazeData, pool) : MazeParser.parse(mazeData);
+		loadNanos = System.nanoTime() - began;
+		return maze;
 	}
 	
-	private Maze parse(List<String>  mazeData) {
-		Maze.Cell mazeCells [][] = null;
-		for (int y = 0; y < mazeData.size(); y++) {
-			String row = mazeData.get(y);
-			char[] cells = row.toCharArray();
-			if (mazeCells == null) {
-				mazeCells = new Maze.Cell[mazeData.size()][cells.length];
-			}			
-							
-			for (int x = 0; x < cells.length; x++) {
-				Maze.Cell cell = new Maze.Cell(typeOf(String.valueOf(cells[x])), new Point(x,y));
-				mazeCells[y][x] = cell;
-			}			
+	/**
+	 * Reads a text file of any size a row at a time into tiles, held in the heap only while cached.
+	 * @param tiles empty cache the cells are written to, see {@code Maze#getTileCache()}
+	 * @throws IllegalArgumentException if the file is of the binary format
+	 */
+	public Maze makeMaze(File mazeFile, TileCache tiles) throws IOException {
+		long began = System.nanoTime();
+		try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(mazeFile))) {
+			in.mark(4);
+			byte[] magic = new byte[4];
+			int read = in.read(magic);
+			if (read == magic.length && MazeBinaryFormat.isBinary(ByteBuffer.wrap(magic))) {
+				throw new IllegalArgumentException(String.format("Binary maze file %s can not be read into tiles", mazeFile));
+			}
+			in.reset();
+			Maze maze = StreamingMazeParser.parse(in, tiles);
+			loadNanos = System.nanoTime() - began;
+			return maze;
 		}
-		return new Maze(mazeCells);
 	}
 	
-	private static Map<String, Type> lookup = new HashMap<>();
-	static {	      
-		for(Type t : EnumSet.allOf(Type.class))
-	           lookup.put(t.getCode(), t);
+	public Maze makeMaze(InputStreamReader mazeStream) throws Exception {
+		long began = System.nanoTime();
+		Maze maze = makeMaze(read(mazeStream));
+		loadNanos = System.nanoTime() - began;
+		return maze;
+	}
+	
+	/** @return time taken by the last successful call to makeMaze, reading and parsing included */
+	public long getLoadNanos() {
+		return loadNanos;
+	}
+	
+	private MappedByteBuffer map(File mazeFile) throws IOException {
+		try (FileChannel channel = FileChannel.open(mazeFile.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException(
+						String.format("Maze file %s of %s bytes too large to be mapped", mazeFile, channel.size()));
+			}
+			return channel.map(MapMode.READ_ONLY, 0, channel.size());
+		}
 	}
 	
-	private static Type typeOf(String code) {
-		Type type = lookup.get(code);
-		if (type == null ) {
-			throw new IllegalArgumentException(String.format("Type code %s not valid", code));
+	/**
+	 * Reads decoded characters into a buffer of one byte per character, characters beyond
+	 * the single byte range can not be valid type codes.
+	 */
+	static ByteBuffer read(InputStreamReader inputStreamReader) throws Exception {		
+		byte[] bytes = new byte[8192];
+		int size = 0;
+		char[] chars = new char[8192];
+		try (InputStreamReader reader = inputStreamReader) {
+			int read;
+			while ((read = reader.read(chars)) != -1) {
+				if (size + read > bytes.length) {
+					bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + read));
+				}
+				for (int i = 0; i < read; i++) {
+					if (chars[i] > 0xFF) {
+						throw new IllegalArgumentException(String.format("Type code %s not valid", chars[i]));
+					}
+					bytes[size++] = (byte) chars[i];
+				}
+			}
 		}
-		return type;
+		return ByteBuffer.wrap(bytes, 0, size);
 	}
 }
@@ -0,0 +1,206 @@
+package excelian.maze;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Finds shortest routes between many pairs of cells of one {@code Maze} in parallel on a
+ * {@code ForkJoinPool}. Unlike an {@code Explorer}, routes need not run from S/START to
+ * F/FINISH: any two open cells may be paired.
+ * Each task of a call to {@code solveAll} borrows a solver and {@code SearchState} from those
+ * of the call, creating one only if none is free, reuses it from one query to the next and
+ * gives it back when done: a call allocates as many as run at once, dropped on return, and
+ * nothing is left behind in the threads of the pool.
+ * ThreadSafe
+ * @author FN
+ */
+public class MultiQuerySolver {
+
+	/** Start and finish coordinates of a route wanted */
+	public static final class Query {
+		private final int startX, startY, finishX, finishY;
+
+		public Query(int startX, int startY, int finishX, int finishY) {
+			this.startX = startX;
+			this.startY = startY;
+			this.finishX = finishX;
+			this.finishY = finishY;
+		}
+
+		public int startX() {
+			return startX;
+		}
+
+		public int startY() {
+			return startY;
+		}
+
+		public int finishX() {
+			return finishX;
+		}
+
+		public int finishY() {
+			return finishY;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("Query [start=(%s, %s), finish=(%s, %s)]", startX, startY, finishX, finishY);
+		}
+	}
+
+	/** Shortest route found for a {@code Query}, start and finish included */
+	public static final class Path {
+		private final int width;
+		private final int[] cells;
+		private final int cellsExpanded;
+
+		Path(int width, int[] cells, int cellsExpanded) {
+			this.width = width;
+			this.cells = cells;
+			this.cellsExpanded = cellsExpanded;
+		}
+
+		/** @return <code>false</code> if finish can not be reached from start */
+		public boolean isFound() {
+			return cells != null;
+		}
+
+		/** @return number of cells on the route, 0 if not found */
+		public int length() {
+			return cells == null ? 0 : cells.length;
+		}
+
+		public int getX(int step) {
+			return cells[step] % width;
+		}
+
+		public int getY(int step) {
+			return cells[step] / width;
+		}
+
+		public int getCellsExpanded() {
+			return cellsExpanded;
+		}
+	}
+
+	private static final class Scratch {
+		final ShortestPathSolver solver;
+		final SearchState state;
+
+		Scratch(ShortestPathSolver solver, SearchState state) {
+			this.solver = solver;
+			this.state = state;
+		}
+	}
+
+	private final Maze maze;
+	private final SolverType solverType;
+	private final ForkJoinPool pool;
+
+	public MultiQuerySolver(Maze maze, SolverType solverType) {
+		this(maze, solverType, DefaultPool.POOL);
+	}
+
+	/**
+	 * @param solverType BREADTH_FIRST, A_STAR, BIDIRECTIONAL or JUMP_POINT, which search the cells themselves
+	 */
+	public MultiQuerySolver(Maze maze, SolverType solverType, ForkJoinPool pool) {
+		if (!(solverType.newSolver() instanceof ShortestPathSolver)) {
+			throw new IllegalArgumentException(String.format("Solver %s does not find shortest routes", solverType));
+		}
+		this.maze = maze;
+		this.solverType = solverType;
+		this.pool = pool;
+	}
+
+	/**
+	 * Solves every query, blocking until all are done.
+	 * @return paths in the order of the queries
+	 * @throws IllegalArgumentException if a query starts or finishes outside the maze or on a wall
+	 */
+	public List<Path> solveAll(List<Query> queries) {
+		int[] starts = new int[queries.size()];
+		int[] finishes = new int[queries.size()];
+		for (int i = 0; i < starts.length; i++) {
+			Query query = queries.get(i);
+			starts[i] = openIndex(query, query.startX, query.startY);
+			finishes[i] = openIndex(query, query.finishX, query.finishY);
+		}
+		Path[] paths = new Path[starts.length];
+		int chunk = Math.max(1, starts.length / (pool.getParallelism() * 8));
+		pool.invoke(new Batch(starts, finishes, paths, new ConcurrentLinkedQueue<Scratch>(), 0, starts.length, chunk));
+		return Arrays.asList(paths);
+	}
+
+	/** Solves a single query on the calling thread, with a solver and state of its own */
+	public Path solve(Query query) {
+		return solve(newScratch(), openIndex(query, query.startX, query.startY),
+				openIndex(query, query.finishX, query.finishY));
+	}
+
+	private Path solve(Scratch scratch, int start, int finish) {
+		int[] cells = scratch.solver.route(maze, start, finish, scratch.state);
+		return new Path(maze.width(), cells, scratch.state.cellsExpanded());
+	}
+
+	private Scratch newScratch() {
+		return new Scratch((ShortestPathSolver) solverType.newSolver(), new SearchState(maze));
+	}
+
+	private int openIndex(Query query, int x, int y) {
+		if (x < 0 || y < 0 || x >= maze.width() || y >= maze.height()) {
+			throw new IllegalArgumentException(String.format("%s: cell [x=%s, y=%s] outside the maze", query, x, y));
+		}
+		int index = maze.indexOf(x, y);
+		if (!maze.isOpen(index)) {
+			throw new IllegalArgumentException(String.format("%s: cell [x=%s, y=%s] is a wall", query, x, y));
+		}
+		return index;
+	}
+
+	/**
+	 * Queries from..to, split in halves until no more than chunk long, solved with a scratch
+	 * borrowed from those free
+	 */
+	private final class Batch extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int[] starts, finishes;
+		private final Path[] paths;
+		private final ConcurrentLinkedQueue<Scratch> free;
+		private final int from, to, chunk;
+
+		Batch(int[] starts, int[] finishes, Path[] paths, ConcurrentLinkedQueue<Scratch> free, int from, int to,
+				int chunk) {
+			this.starts = starts;
+			this.finishes = finishes;
+			this.paths = paths;
+			this.free = free;
+			this.from = from;
+			this.to = to;
+			this.chunk = chunk;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= chunk) {
+				Scratch scratch = free.poll();
+				if (scratch == null) {
+					scratch = newScratch();
+				}
+				for (int i = from; i < to; i++) {
+					paths[i] = solve(scratch, starts[i], finishes[i]);
+				}
+				free.offer(scratch);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new Batch(starts, finishes, paths, free, from, middle, chunk),
+					new Batch(starts, finishes, paths, free, middle, to, chunk));
+		}
+	}
+}
@@ -0,0 +1,399 @@
+package excelian.maze;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Breadth first solver for very large mazes, expanding each level of the search in parallel on a
+ * {@code ForkJoinPool} and finding a route as short as {@code BreadthFirstSolver} does.
+ * Cells visited are held in a bitmap. Levels are expanded top down, each frontier cell claiming its
+ * unvisited neighbours, while the frontier is small against the cells left unvisited, and bottom
+ * up, each unvisited open cell looking for a neighbour in a frontier bitmap, once it is large; the
+ * frontier is held as a list of cells top down and as a bitmap bottom up. Grid cells having no
+ * more than four neighbours, bottom up pays only once the frontier is a good part of the cells left,
+ * so ALPHA is well below the 14 suited to graphs of many edges per vertex. Levels of fewer cells
+ * than a task expands are expanded in the calling thread.
+ * Only the finish is reported to the listener, steps taken on many threads at once are not.
+ * Not ThreadSafe
+ * @author FN
+ */
+public class ParallelBreadthFirstSolver extends ShortestPathSolver {
+
+	/** bottom up once a growing frontier holds more than 1/ALPHA of the open cells left unvisited */
+	static final int ALPHA = 4;
+	/** top down again once a shrinking frontier holds less than 1/BETA of the open cells */
+	static final int BETA = 24;
+	/** frontier cells expanded by a top down task at least */
+	private static final int TASK_CELLS = 1 << 12;
+	/** bitmap words scanned by a bottom up task at least, 64 cells each */
+	private static final int TASK_WORDS = 1 << 10;
+
+	private final ForkJoinPool pool;
+	private final int taskCells;
+	private final int taskWords;
+	private final int alpha;
+	private int[] frontier = new int[64];
+	private int[] next = new int[64];
+	private long[] frontierBits = new long[0];
+	private long[] nextBits = new long[0];
+	/** open cells of the maze last searched bottom up, as it was at openVersion */
+	private long[] openBits;
+	private Maze openMaze;
+	private long openVersion;
+	private int levels;
+	private int bottomUpLevels;
+
+	public ParallelBreadthFirstSolver() {
+		this(DefaultPool.POOL);
+	}
+
+	public ParallelBreadthFirstSolver(ForkJoinPool pool) {
+		this(pool, TASK_CELLS, TASK_WORDS, ALPHA);
+	}
+
+	ParallelBreadthFirstSolver(ForkJoinPool pool, int taskCells, int taskWords, int alpha) {
+		this.pool = pool;
+		this.taskCells = taskCells;
+		this.taskWords = taskWords;
+		this.alpha = alpha;
+	}
+
+	@Override
+	int search(Maze maze, int start, int finish, SearchState state, ExplorationListener listener) {
+		int words = (maze.cellCount() + 63) >>> 6;
+		AtomicLongArray visited = new AtomicLongArray(words);
+		if (frontierBits.length != words) {
+			frontierBits = new long[words];
+			nextBits = new long[words];
+		}
+		// parent links are written by many threads, to distinct cells, once allocated
+		state.setParent(start, SearchState.NONE);
+		visited.set(start >>> 6, 1L << start);
+		frontier[0] = start;
+		int size = 1;
+		int unvisited = maze.cellCount() - maze.getNumberOfWalls() - 1;
+		int open = unvisited + 1;
+		int previous = 0;
+		boolean bottomUp = false;
+		levels = 0;
+		bottomUpLevels = 0;
+		while (size > 0 && (visited.get(finish >>> 6) & 1L << finish) == 0) {
+			state.frontierSize(size);
+			state.countExpansions(size);
+			boolean wasBottomUp = bottomUp;
+			if (!bottomUp && size > previous && (long) size * alpha > unvisited) {
+				bottomUp = true;
+			} else if (bottomUp && size < previous && (long) size * BETA < open) {
+				bottomUp = false;
+			}
+			previous = size;
+			if (bottomUp && !wasBottomUp) {
+				openBits(maze, words);
+				toBits(size);
+			} else if (!bottomUp && wasBottomUp) {
+				size = toList(words);
+			}
+			size = bottomUp ? bottomUp(maze, state, visited, words) : topDown(maze, state, visited, size);
+			unvisited -= size;
+			levels++;
+			if (bottomUp) {
+				bottomUpLevels++;
+			}
+		}
+		long[] visitedWords = new long[words];
+		for (int word = 0; word < words; word++) {
+			visitedWords[word] = visited.get(word);
+		}
+		state.visitAll(visitedWords);
+		return (visitedWords[finish >>> 6] & 1L << finish) != 0 ? finish : -1;
+	}
+
+	/** @return number of levels expanded by the last search */
+	public int levels() {
+		return levels;
+	}
+
+	/** @return number of levels of the last search expanded bottom up */
+	public int bottomUpLevels() {
+		return bottomUpLevels;
+	}
+
+	/** Expands the cells of frontier into next, then swaps the two */
+	private int topDown(Maze maze, SearchState state, AtomicLongArray visited, int size) {
+		if (size <= taskCells) {
+			return expand(maze, state, visited, size);
+		}
+		TopDown[] tasks = new TopDown[(size + taskCells - 1) / taskCells];
+		for (int i = 0; i < tasks.length; i++) {
+			tasks[i] = new TopDown(maze, state, visited, frontier, i * taskCells, Math.min(size, (i + 1) * taskCells));
+		}
+		pool.invoke(new Level(tasks));
+		int count = 0;
+		for (TopDown task : tasks) {
+			count += task.count;
+		}
+		if (next.length < count) {
+			next = new int[Math.max(count, next.length * 2)];
+		}
+		count = 0;
+		for (TopDown task : tasks) {
+			System.arraycopy(task.found, 0, next, count, task.count);
+			count += task.count;
+		}
+		int[] swap = frontier;
+		frontier = next;
+		next = swap;
+		return count;
+	}
+
+	/** Expands a level too small to split in the calling thread, as a {@code TopDown} task does */
+	private int expand(Maze maze, SearchState state, AtomicLongArray visited, int size) {
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			int index = frontier[i];
+			int open = maze.openNeighbours(index);
+			for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+				if ((open & 1 << direction) != 0) {
+					int next = index + maze.offset(direction);
+					long bits = visited.get(next >>> 6);
+					if ((bits & 1L << next) == 0) {
+						visited.lazySet(next >>> 6, bits | 1L << next);
+						state.setParent(next, index);
+						if (count == this.next.length) {
+							this.next = Arrays.copyOf(this.next, count * 2);
+						}
+						this.next[count++] = next;
+					}
+				}
+			}
+		}
+		int[] swap = frontier;
+		frontier = next;
+		next = swap;
+		return count;
+	}
+
+	/** Expands the cells of frontierBits into nextBits, then swaps the two */
+	private int bottomUp(Maze maze, SearchState state, AtomicLongArray visited, int words) {
+		BottomUp[] tasks = new BottomUp[(words + taskWords - 1) / taskWords];
+		for (int i = 0; i < tasks.length; i++) {
+			tasks[i] = new BottomUp(maze, state, visited, openBits, frontierBits, nextBits, i * taskWords,
+					Math.min(words, (i + 1) * taskWords));
+		}
+		if (tasks.length == 1) {
+			tasks[0].compute();
+		} else {
+			pool.invoke(new Level(tasks));
+		}
+		int count = 0;
+		for (BottomUp task : tasks) {
+			count += task.count;
+		}
+		long[] swap = frontierBits;
+		frontierBits = nextBits;
+		nextBits = swap;
+		return count;
+	}
+
+	/** Sets openBits for maze, unless set already and the maze unchanged since */
+	private void openBits(Maze maze, int words) {
+		if (maze == openMaze && maze.version() == openVersion) {
+			return;
+		}
+		openBits = new long[words];
+		OpenBits[] tasks = new OpenBits[(words + taskWords - 1) / taskWords];
+		for (int i = 0; i < tasks.length; i++) {
+			tasks[i] = new OpenBits(maze, openBits, i * taskWords, Math.min(words, (i + 1) * taskWords));
+		}
+		pool.invoke(new Level(tasks));
+		openMaze = maze;
+		openVersion = maze.version();
+	}
+
+	private void toBits(int size) {
+		Arrays.fill(frontierBits, 0);
+		for (int i = 0; i < size; i++) {
+			frontierBits[frontier[i] >>> 6] |= 1L << frontier[i];
+		}
+	}
+
+	private int toList(int words) {
+		int size = 0;
+		for (int word = 0; word < words; word++) {
+			for (long bits = frontierBits[word]; bits != 0; bits &= bits - 1) {
+				if (size == frontier.length) {
+					frontier = Arrays.copyOf(frontier, size * 2);
+				}
+				frontier[size++] = word << 6 | Long.numberOfTrailingZeros(bits);
+			}
+		}
+		return size;
+	}
+
+	/** Runs the tasks expanding a level */
+	private static final class Level extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final RecursiveAction[] tasks;
+
+		Level(RecursiveAction[] tasks) {
+			this.tasks = tasks;
+		}
+
+		@Override
+		protected void compute() {
+			invokeAll(tasks);
+		}
+	}
+
+	/**
+	 * Claims the unvisited neighbours of frontier cells from (inclusive) to (exclusive), setting
+	 * their bits in visited, then their parents, and lists them in found.
+	 */
+	private static final class TopDown extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final Maze maze;
+		private final SearchState state;
+		private final AtomicLongArray visited;
+		private final int[] frontier;
+		private final int from;
+		private final int to;
+		private int[] found;
+		private int count;
+
+		TopDown(Maze maze, SearchState state, AtomicLongArray visited, int[] frontier, int from, int to) {
+			this.maze = maze;
+			this.state = state;
+			this.visited = visited;
+			this.frontier = frontier;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			found = new int[to - from + 16];
+			for (int i = from; i < to; i++) {
+				int index = frontier[i];
+				int open = maze.openNeighbours(index);
+				for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+					if ((open & 1 << direction) != 0) {
+						int next = index + maze.offset(direction);
+						if (claim(next)) {
+							state.setParent(next, index);
+							if (count == found.length) {
+								found = Arrays.copyOf(found, count * 2);
+							}
+							found[count++] = next;
+						}
+					}
+				}
+			}
+		}
+
+		/** @return <code>true</code> if index was unvisited, and is visited by this task */
+		private boolean claim(int index) {
+			int word = index >>> 6;
+			long bit = 1L << index;
+			long bits;
+			do {
+				bits = visited.get(word);
+				if ((bits & bit) != 0) {
+					return false;
+				}
+			} while (!visited.compareAndSet(word, bits, bits | bit));
+			return true;
+		}
+	}
+
+	/** Sets the bits of the open cells of bitmap words from (inclusive) to (exclusive) */
+	private static final class OpenBits extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final Maze maze;
+		private final long[] open;
+		private final int from;
+		private final int to;
+
+		OpenBits(Maze maze, long[] open, int from, int to) {
+			this.maze = maze;
+			this.open = open;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			int cells = maze.cellCount();
+			for (int word = from; word < to; word++) {
+				long bits = 0;
+				for (int bit = 0, index = word << 6; bit < 64 && index < cells; bit++, index++) {
+					if (maze.isOpen(index)) {
+						bits |= 1L << bit;
+					}
+				}
+				open[word] = bits;
+			}
+		}
+	}
+
+	/**
+	 * Visits the unvisited open cells of bitmap words from (inclusive) to (exclusive) having a
+	 * neighbour in the frontier, setting their bits in next. No other task writes those words.
+	 */
+	private static final class BottomUp extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final Maze maze;
+		private final SearchState state;
+		private final AtomicLongArray visited;
+		private final long[] open;
+		private final long[] frontier;
+		private final long[] next;
+		private final int from;
+		private final int to;
+		private int count;
+
+		BottomUp(Maze maze, SearchState state, AtomicLongArray visited, long[] open, long[] frontier, long[] next,
+				int from, int to) {
+			this.maze = maze;
+			this.state = state;
+			this.visited = visited;
+			this.open = open;
+			this.frontier = frontier;
+			this.next = next;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			for (int word = from; word < to; word++) {
+				long bits = visited.get(word);
+				long found = 0;
+				for (long unvisited = open[word] & ~bits; unvisited != 0; unvisited &= unvisited - 1) {
+					int index = word << 6 | Long.numberOfTrailingZeros(unvisited);
+					int neighbours = maze.openNeighbours(index);
+					for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+						if ((neighbours & 1 << direction) != 0) {
+							int parent = index + maze.offset(direction);
+							if ((frontier[parent >>> 6] & 1L << parent) != 0) {
+								state.setParent(index, parent);
+								found |= 1L << index;
+								count++;
+								break;
+							}
+						}
+					}
+				}
+				next[word] = found;
+				if (found != 0) {
+					visited.set(word, bits | found);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,180 @@
+package excelian.maze;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import excelian.maze.Maze.Cell.Type;
+
+/**
+ * Parses maze text in row aligned chunks on a {@code ForkJoinPool}.
+ * Text laid out regularly, every row as wide as the first and ended alike with no blank rows,
+ * is split into chunks of rows by arithmetic alone; each chunk is parsed straight into its rows of
+ * the packed grid, counting cells and noting START/FINISH candidates, and the chunks are merged
+ * once all are done. Anything else, an irregular layout or a rule broken, is handed to
+ * {@code MazeParser}: mazes read and errors reported are exactly those of the single pass parse.
+ * ThreadSafe
+ * @author FN
+ */
+final class ParallelMazeParser {
+
+	/** text smaller than this is parsed in a single chunk */
+	static final int CHUNK_BYTES = 1 << 20;
+	private static final byte SPACE = (byte) Type.SPACE.ordinal();
+	private static final byte START = (byte) Type.START.ordinal();
+	private static final byte FINISH = (byte) Type.FINISH.ordinal();
+
+	private final ByteBuffer buffer;
+	private final int first;
+	private final int width;
+	private final int stride;
+	private final int rows;
+	private final int chunkBytes;
+	private final byte terminator;
+	private final byte[] grid;
+
+	private ParallelMazeParser(ByteBuffer buffer, int width, int terminatorLength, int rows, int chunkBytes) {
+		this.buffer = buffer;
+		this.first = buffer.position();
+		this.width = width;
+		this.stride = width + terminatorLength;
+		this.rows = rows;
+		this.chunkBytes = chunkBytes;
+		this.terminator = buffer.get(first + width);
+		this.grid = new byte[rows * width];
+	}
+
+	/**
+	 * Parses and validates the bytes between position and limit of buffer, leaving the buffer untouched.
+	 * @throws IllegalArgumentException on invalid type codes or too few rows
+	 * @throws IllegalStateException on mazes breaking the rules enforced by {@code Maze}
+	 */
+	static Maze parse(ByteBuffer buffer, ForkJoinPool pool) {
+		return parse(buffer, pool, CHUNK_BYTES);
+	}
+
+	/** @param chunkBytes size of text beyond which a chunk of rows is split in two */
+	static Maze parse(ByteBuffer buffer, ForkJoinPool pool, int chunkBytes) {
+		ParallelMazeParser parser = buffer.remaining() > chunkBytes ? regular(buffer, chunkBytes) : null;
+		Maze maze = parser == null ? null : parser.parse(pool);
+		return maze == null ? MazeParser.parse(buffer) : maze;
+	}
+
+	/**
+	 * Sizes rows from the first, which must start at the buffer position, and expects every other
+	 * row to be as wide and ended alike, the last row's end being optional.
+	 * @return <code>null</code> if the text can not be so laid out
+	 */
+	private static ParallelMazeParser regular(ByteBuffer buffer, int chunkBytes) {
+		int position = buffer.position();
+		int limit = buffer.limit();
+		int end = position;
+		while (end < limit && MazeParser.CLASSES[buffer.get(end) & 0xFF] >= 0) {
+			end++;
+		}
+		if (end == limit || MazeParser.CLASSES[buffer.get(end) & 0xFF] != MazeParser.LINE_END) {
+			return null;
+		}
+		int width = end - position;
+		int terminatorLength = buffer.get(end) == '\r' && end + 1 < limit && buffer.get(end + 1) == '\n' ? 2 : 1;
+		long stride = width + terminatorLength;
+		long length = limit - position;
+		long rows = length % stride == 0 ? length / stride
+				: (length + terminatorLength) % stride == 0 ? (length + terminatorLength) / stride : -1;
+		if (width < Maze.MIN_CELL_LEN || rows < Maze.MIN_ROW_LEN || rows * width > Integer.MAX_VALUE - 8) {
+			return null;
+		}
+		return new ParallelMazeParser(buffer, width, terminatorLength, (int) rows, chunkBytes);
+	}
+
+	/** @return <code>null</code> if any chunk is irregular or breaks a rule */
+	private Maze parse(ForkJoinPool pool) {
+		Chunk chunk = new Chunk(0, rows);
+		pool.invoke(chunk);
+		if (!chunk.regular || chunk.starts != 1 || chunk.finishes != 1) {
+			return null;
+		}
+		return new Maze(grid, width, rows, chunk.startIndex, chunk.finishIndex, chunk.counts, pool);
+	}
+
+	/**
+	 * Parses rows from (inclusive) to (exclusive), splitting them in two while larger than
+	 * {@code chunkBytes}, and merges the counts and START/FINISH candidates of both halves.
+	 */
+	private final class Chunk extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final int from;
+		private final int to;
+		private final int[] counts = new int[Type.values().length];
+		private boolean regular = true;
+		private int starts;
+		private int finishes;
+		private int startIndex = -1;
+		private int finishIndex = -1;
+
+		Chunk(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if ((long) (to - from) * stride > chunkBytes && to - from > 1) {
+				int middle = (from + to) >>> 1;
+				Chunk left = new Chunk(from, middle);
+				Chunk right = new Chunk(middle, to);
+				invokeAll(left, right);
+				merge(left);
+				merge(right);
+			} else {
+				for (int row = from; row < to && regular; row++) {
+					regular = readRow(row);
+				}
+			}
+		}
+
+		private void merge(Chunk chunk) {
+			regular &= chunk.regular;
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] += chunk.counts[i];
+			}
+			starts += chunk.starts;
+			finishes += chunk.finishes;
+			if (chunk.startIndex >= 0) {
+				startIndex = chunk.startIndex;
+			}
+			if (chunk.finishIndex >= 0) {
+				finishIndex = chunk.finishIndex;
+			}
+		}
+
+		/** @return <code>false</code> if the row is not as expected or breaks a rule */
+		private boolean readRow(int row) {
+			int base = row * width;
+			int p = first + row * stride;
+			boolean outer = row == 0 || row == rows - 1;
+			for (int i = 0; i < width; i++, p++) {
+				byte type = MazeParser.CLASSES[buffer.get(p) & 0xFF];
+				if (type < 0 || (type == SPACE && outer)) {
+					return false;
+				}
+				grid[base + i] = type;
+				counts[type]++;
+				if (type == START) {
+					starts++;
+					startIndex = base + i;
+				} else if (type == FINISH) {
+					finishes++;
+					finishIndex = base + i;
+				}
+			}
+			if (grid[base] == SPACE || grid[base + width - 1] == SPACE) {
+				return false;
+			} else if (row == rows - 1 && p == buffer.limit()) {
+				return true;
+			}
+			return buffer.get(p) == terminator && (stride - width == 1 || buffer.get(p + 1) == '\n');
+		}
+	}
+}
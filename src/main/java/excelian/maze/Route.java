@@ -0,0 +1,360 @@
+package excelian.maze;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import excelian.maze.Maze.Cell;
+
+/**
+ * Cells walked through a {@code Maze}, held run length encoded: a run of steps in one direction,
+ * "RIGHT x12", takes a single int whatever its length. Consecutive cells that are not neighbours,
+ * as when a depth first search backtracks, are held as a jump to the cell's index.
+ * Routes are immutable and so may be shared without copying; cells and coordinates are worked
+ * out lazily while iterating, the type of each {@code Cell} being read from the maze as it is then.
+ * ThreadSafe
+ * @author FN
+ */
+public final class Route implements Iterable<Cell> {
+
+	/** a run op holds <code>steps << 2 | direction</code>, a jump op <code>-(index + 1)</code> */
+	private static final int MAX_STEPS = Integer.MAX_VALUE >> 2;
+	private static final String[] DIRECTION_NAMES = { "RIGHT", "DOWN", "LEFT", "UP" };
+
+	private final Maze maze;
+	private final int[] ops;
+	private final int opCount;
+	private final int length;
+	private final int last;
+
+	private Route(Maze maze, int[] ops, int opCount, int length, int last) {
+		this.maze = maze;
+		this.ops = ops;
+		this.opCount = opCount;
+		this.length = length;
+		this.last = last;
+	}
+
+	/** @return route of no cells through maze */
+	public static Route empty(Maze maze) {
+		return new Route(maze, new int[0], 0, 0, -1);
+	}
+
+	/** @return number of cells on the route */
+	public int length() {
+		return length;
+	}
+
+	public boolean isEmpty() {
+		return length == 0;
+	}
+
+	/** @return first cell of the route, null if empty */
+	public Cell getFirst() {
+		return isEmpty() ? null : visited(-ops[0] - 1);
+	}
+
+	/** @return last cell of the route, null if empty */
+	public Cell getLast() {
+		return isEmpty() ? null : visited(last);
+	}
+
+	/** @return number of runs and jumps the route is held in */
+	public int segments() {
+		return opCount;
+	}
+
+	public Maze getMaze() {
+		return maze;
+	}
+
+	/** @return cells of the route in order, each flagged visited */
+	@Override
+	public Iterator<Cell> iterator() {
+		return new Iterator<Cell>() {
+			private final Cursor cursor = cursor();
+			private boolean ready;
+
+			@Override
+			public boolean hasNext() {
+				if (!ready) {
+					ready = cursor.next();
+				}
+				return ready;
+			}
+
+			@Override
+			public Cell next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				ready = false;
+				return visited(cursor.index());
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/** @return cursor over the coordinates of the route, allocating nothing per cell */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	private Cell visited(int index) {
+		Cell cell = maze.cellAt(index);
+		cell.setVisited(true);
+		return cell;
+	}
+
+	/**
+	 * Writes the route in a few bytes per run or jump: the number of ops, then each op as an
+	 * unsigned variable length int, runs as <code>steps << 3 | direction << 1</code> and jumps as
+	 * <code>index << 1 | 1</code>. Consecutive runs in the same direction are written as one.
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		int[] merged = merged();
+		writeVarInt(out, merged.length);
+		for (int op : merged) {
+			if (op < 0) {
+				writeVarInt(out, (long) (-op - 1) << 1 | 1);
+			} else {
+				writeVarInt(out, (long) (op >>> 2) << 3 | (op & 3) << 1);
+			}
+		}
+	}
+
+	/**
+	 * Reads a route written by {@code writeTo(DataOutput)} through maze.
+	 * @throws IllegalArgumentException if the route leaves maze
+	 */
+	public static Route readFrom(DataInput in, Maze maze) throws IOException {
+		int count = (int) readVarInt(in);
+		Builder builder = new Builder(maze);
+		for (int i = 0; i < count; i++) {
+			long op = readVarInt(in);
+			if ((op & 1) != 0) {
+				builder.jump(checked(maze, op >>> 1));
+			} else if (builder.last < 0) {
+				throw new IllegalArgumentException("Route must start with a cell index");
+			} else {
+				int direction = (int) (op >>> 1 & 3);
+				for (long step = op >>> 3, index = builder.last; step > 0; step--) {
+					index = maze.neighbourOf((int) index, direction);
+					builder.add(checked(maze, index));
+				}
+			}
+		}
+		return builder.build();
+	}
+
+	private static int checked(Maze maze, long index) {
+		if (index < 0 || index >= maze.cellCount()) {
+			throw new IllegalArgumentException(String.format("Route leaves the maze at cell %s", index));
+		}
+		return (int) index;
+	}
+
+	private static void writeVarInt(DataOutput out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	private static long readVarInt(DataInput in) throws IOException {
+		long value = 0;
+		for (int shift = 0;; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+	}
+
+	/** @return ops with consecutive runs in the same direction joined, where not too long */
+	private int[] merged() {
+		int[] merged = new int[opCount];
+		int count = 0;
+		for (int i = 0; i < opCount; i++) {
+			int op = ops[i];
+			if (op >= 0 && count > 0 && merged[count - 1] >= 0 && (merged[count - 1] & 3) == (op & 3)
+					&& (long) (merged[count - 1] >>> 2) + (op >>> 2) <= MAX_STEPS) {
+				merged[count - 1] += op & ~3;
+			} else {
+				merged[count++] = op;
+			}
+		}
+		return Arrays.copyOf(merged, count);
+	}
+
+	/** @return the route in words, "start (x, y), RIGHT x12, DOWN x3", jumps given as "to (x, y)" */
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder("Route [");
+		int width = maze.width();
+		int[] merged = merged();
+		for (int i = 0; i < merged.length; i++) {
+			int op = merged[i];
+			if (i > 0) {
+				text.append(", ");
+			}
+			if (op < 0) {
+				int index = -op - 1;
+				text.append(i == 0 ? "start (" : "to (").append(index % width).append(", ").append(index / width)
+						.append(')');
+			} else {
+				text.append(DIRECTION_NAMES[op & 3]).append(" x").append(op >>> 2);
+			}
+		}
+		return text.append(']').toString();
+	}
+
+	/**
+	 * Walks the route a cell at a time: <code>while (cursor.next()) { cursor.x(); cursor.y(); }</code>
+	 * Not ThreadSafe
+	 */
+	public final class Cursor {
+
+		private int op = -1;
+		private int stepsLeft;
+		private int index = -1;
+
+		Cursor() {
+		}
+
+		/** @return <code>false</code> once past the last cell */
+		public boolean next() {
+			if (stepsLeft > 0) {
+				stepsLeft--;
+				index += maze.offset(ops[op] & 3);
+				return true;
+			} else if (op + 1 >= opCount) {
+				return false;
+			}
+			int code = ops[++op];
+			if (code < 0) {
+				index = -code - 1;
+			} else {
+				stepsLeft = (code >>> 2) - 1;
+				index += maze.offset(code & 3);
+			}
+			return true;
+		}
+
+		public int x() {
+			return index % maze.width();
+		}
+
+		public int y() {
+			return index / maze.width();
+		}
+
+		int index() {
+			return index;
+		}
+	}
+
+	/**
+	 * Appends cells to a route. Routes built share the ops appended so far rather than copying them,
+	 * a run extended after a build being continued by a new run.
+	 * Not ThreadSafe
+	 */
+	public static final class Builder {
+
+		private final Maze maze;
+		private int[] ops = new int[16];
+		private int opCount;
+		private int length;
+		private int last = -1;
+		/** index of the first op a build has not shared, which may be changed in place */
+		private int unshared;
+
+		public Builder(Maze maze) {
+			this.maze = maze;
+		}
+
+		/** Appends the cell at the coordinates of cell */
+		public void add(Cell cell) {
+			add(maze.indexOf(cell.getX(), cell.getY()));
+		}
+
+		void add(int index) {
+			int direction = length == 0 ? -1 : directionTo(index);
+			if (direction < 0) {
+				jump(index);
+				return;
+			}
+			int op = opCount - 1;
+			if (op >= unshared && ops[op] >= 0 && (ops[op] & 3) == direction && ops[op] >>> 2 < MAX_STEPS) {
+				ops[op] += 1 << 2;
+			} else {
+				append(1 << 2 | direction);
+			}
+			last = index;
+			length++;
+		}
+
+		private void jump(int index) {
+			append(-index - 1);
+			last = index;
+			length++;
+		}
+
+		private int directionTo(int index) {
+			int width = maze.width();
+			int delta = index - last;
+			if (delta == 1 && index % width != 0) {
+				return Maze.RIGHT;
+			} else if (delta == -1 && last % width != 0) {
+				return Maze.LEFT;
+			} else if (delta == width) {
+				return Maze.DOWN;
+			} else if (delta == -width) {
+				return Maze.UP;
+			}
+			return -1;
+		}
+
+		private void append(int op) {
+			if (opCount == ops.length) {
+				ops = Arrays.copyOf(ops, opCount * 2);
+				// the copy is not shared
+				unshared = 0;
+			}
+			ops[opCount++] = op;
+		}
+
+		/** @return number of cells appended */
+		public int length() {
+			return length;
+		}
+
+		/** @return index of the last cell appended, -1 if none */
+		int last() {
+			return last;
+		}
+
+		public void clear() {
+			ops = unshared == 0 ? ops : new int[16];
+			opCount = 0;
+			length = 0;
+			last = -1;
+			unshared = 0;
+		}
+
+		/** @return route of the cells appended so far, unaffected by later appends */
+		public Route build() {
+			unshared = opCount;
+			return new Route(maze, ops, opCount, length, last);
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package excelian.maze;
+
+import java.nio.ByteBuffer;
+
+import org.apache.log4j.Logger;
+
+import excelian.maze.Maze.Cell.Type;
+
+/**
+ * Classifies, counts and checks the rows of maze text one at a time for the parsers, which
+ * keep only the reading of the text and the storing of the cells. Each byte is classified
+ * through {@code MazeParser#CLASSES}; invalid type codes are reported as soon as met, other
+ * problems once all rows are read, by {@code validate()}, in the order {@code Maze} checks for
+ * them. Rows of whitespace only are skipped, any other whitespace than space is invalid.
+ * Not ThreadSafe
+ * @author FN
+ */
+final class RowValidator {
+
+	private static final byte SPACE = (byte) Type.SPACE.ordinal();
+	private static final byte START = (byte) Type.START.ordinal();
+	private static final byte FINISH = (byte) Type.FINISH.ordinal();
+
+	private final Logger logger;
+	private final int width;
+	private final int[] counts = new int[Type.values().length];
+	private int rows;
+	private int end;
+	private int startIndex = -1;
+	private int finishIndex = -1;
+	/** first problems met, reported once all rows are read in the order {@code Maze} validates them */
+	private Type duplicate;
+	private int unevenRow = -1;
+	private int unevenLength;
+	private int edgeSpaceRow = -1;
+	/** first space of the top and of the last row read, -1 if none */
+	private int topRowSpace = -1;
+	private int bottomRowSpace = -1;
+
+	/**
+	 * @param width number of cells of each row, that of the first non blank row
+	 * @param logger logger warned of blank rows skipped
+	 */
+	RowValidator(int width, Logger logger) {
+		this.width = width;
+		this.logger = logger;
+	}
+
+	/**
+	 * Classifies the bytes of buffer from position up to the first line end or limit, writing the
+	 * types of the first width cells into cells from offset on. A row of another width is kept too,
+	 * and reported by {@code validate()}.
+	 * @return <code>true</code> if the row is kept as row {@code rows() - 1}, <code>false</code> if
+	 *         skipped as blank
+	 * @throws IllegalArgumentException at the first invalid type code
+	 */
+	boolean readRow(ByteBuffer buffer, int position, int limit, byte[] cells, int offset) {
+		int base = rows * width;
+		int length = 0;
+		int written = 0;
+		int whitespace = -1;
+		int space = -1;
+		boolean blank = true;
+		int p = position;
+		for (; p < limit; p++) {
+			int b = buffer.get(p) & 0xFF;
+			byte type = MazeParser.CLASSES[b];
+			if (type >= 0) {
+				if (length < width) {
+					cells[offset + length] = type;
+					counts[type]++;
+					written++;
+					if (type != SPACE) {
+						if (whitespace >= 0) {
+							throw invalidCode(whitespace);
+						}
+						blank = false;
+						if (type >= START) {
+							recordStartOrFinish(type, base + length);
+						}
+					} else if (space < 0) {
+						space = length;
+					}
+				} else if (type != SPACE) {
+					if (whitespace >= 0) {
+						throw invalidCode(whitespace);
+					}
+					blank = false;
+				}
+				length++;
+			} else if (type == MazeParser.LINE_END) {
+				break;
+			} else if (b > ' ') {
+				throw invalidCode(whitespace >= 0 ? whitespace : b);
+			} else if (!blank) {
+				throw invalidCode(b);
+			} else {
+				// whitespace other than space, only allowed on blank rows, reported once a row proves not blank
+				if (whitespace < 0) {
+					whitespace = b;
+				}
+				length++;
+			}
+		}
+		end = p;
+		if (blank) {
+			logger.warn("Empty line detected, skipping it.");
+			counts[SPACE] -= written;
+			return false;
+		} else if (length < width && cells[offset] == SPACE) {
+			// short rows are checked as if padded to width, their first cell before their length
+			if (edgeSpaceRow < 0) {
+				edgeSpaceRow = rows;
+			}
+		} else if (length != width) {
+			if (unevenRow < 0) {
+				unevenRow = rows;
+				unevenLength = length;
+			}
+		} else if (edgeSpaceRow < 0 && (cells[offset] == SPACE || cells[offset + width - 1] == SPACE)) {
+			edgeSpaceRow = rows;
+		}
+		if (rows == 0) {
+			topRowSpace = space;
+		}
+		bottomRowSpace = space;
+		rows++;
+		return true;
+	}
+
+	private void recordStartOrFinish(byte type, int index) {
+		if (type == START) {
+			if (startIndex >= 0 && duplicate == null) {
+				duplicate = Type.START;
+			}
+			startIndex = index;
+		} else if (type == FINISH) {
+			if (finishIndex >= 0 && duplicate == null) {
+				duplicate = Type.FINISH;
+			}
+			finishIndex = index;
+		}
+	}
+
+	/** Reports the first problem met, in the order {@code Maze} checks for them */
+	void validate() {
+		if (rows < Maze.MIN_ROW_LEN) {
+			throw Maze.tooFewRows();
+		} else if (width < Maze.MIN_CELL_LEN) {
+			throw Maze.tooFewCells();
+		} else if (unevenRow >= 0 && (edgeSpaceRow < 0 || unevenRow < edgeSpaceRow)) {
+			throw Maze.nonUniformRow(unevenRow, unevenLength, width);
+		} else if (edgeSpaceRow >= 0) {
+			throw Maze.spaceAtRowEdge(edgeSpaceRow);
+		} else if (topRowSpace >= 0) {
+			throw Maze.unexpectedSpace(topRowSpace, 0);
+		} else if (bottomRowSpace >= 0) {
+			throw Maze.unexpectedSpace(bottomRowSpace, rows - 1);
+		} else if (duplicate != null) {
+			throw Maze.notSingle(duplicate);
+		} else if (startIndex < 0) {
+			throw Maze.missing(Type.START);
+		} else if (finishIndex < 0) {
+			throw Maze.missing(Type.FINISH);
+		}
+	}
+
+	/** @return index just past the last byte of the last row read, that of its line end if any */
+	int end() {
+		return end;
+	}
+
+	/** @return number of rows kept */
+	int rows() {
+		return rows;
+	}
+
+	int startIndex() {
+		return startIndex;
+	}
+
+	int finishIndex() {
+		return finishIndex;
+	}
+
+	/** @return number of cells of each {@code Type} kept, indexed by ordinal */
+	int[] counts() {
+		return counts;
+	}
+
+	private static IllegalArgumentException invalidCode(int code) {
+		return new IllegalArgumentException(String.format("Type code %s not valid", (char) code));
+	}
+}
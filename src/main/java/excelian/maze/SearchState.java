@@ -0,0 +1,137 @@
+package excelian.maze;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * State of a single exploration of a {@code Maze}: cells visited, the cell each was
+ * reached from and the current position. Cells are identified by their index
+ * <code>y * width + x</code>.
+ * Keeping this apart from the {@code Maze} lets one maze be explored by many
+ * explorers at once, each with its own state.
+ * The lowest and highest cells visited or linked are tracked, so that {@code clear()} after a
+ * short search resets only the rows it spanned rather than the whole maze.
+ * Not ThreadSafe
+ * @author FN
+ */
+public final class SearchState {
+
+	public static final int NONE = -1;
+
+	private final BitSet visited;
+	private final int cells;
+	private int[] parents;
+	/** lowest and highest index of the cells visited or linked since the last clear */
+	private int lowestTouched = Integer.MAX_VALUE;
+	private int highestTouched = NONE;
+	private int current = NONE;
+	private int cellsExpanded;
+	private int peakFrontier;
+	private int pathLength;
+
+	public SearchState(Maze maze) {
+		this.cells = maze.cellCount();
+		this.visited = new BitSet(cells);
+	}
+
+	public boolean isVisited(int index) {
+		return visited.get(index);
+	}
+
+	public void visit(int index) {
+		visited.set(index);
+		touch(index);
+	}
+
+	/** Visits the cells whose bits are set in words, 64 cells a word from cell 0 on */
+	void visitAll(long[] words) {
+		visited.or(BitSet.valueOf(words));
+		lowestTouched = 0;
+		highestTouched = cells - 1;
+	}
+
+	public int visitedCount() {
+		return visited.cardinality();
+	}
+
+	/** @return index of the cell the given cell was reached from, {@code NONE} if unknown */
+	public int parentOf(int index) {
+		return parents == null ? NONE : parents[index];
+	}
+
+	public void setParent(int index, int parent) {
+		if (parents == null) {
+			parents = new int[cells];
+			Arrays.fill(parents, NONE);
+		}
+		parents[index] = parent;
+		touch(index);
+	}
+
+	private void touch(int index) {
+		if (index < lowestTouched) {
+			lowestTouched = index;
+		}
+		if (index > highestTouched) {
+			highestTouched = index;
+		}
+	}
+
+	/** @return index of the current cell, {@code NONE} before the exploration starts */
+	public int current() {
+		return current;
+	}
+
+	public void moveTo(int index) {
+		current = index;
+	}
+
+	/** @return number of cells expanded, i.e. whose neighbours were examined */
+	public int cellsExpanded() {
+		return cellsExpanded;
+	}
+
+	public void countExpansion() {
+		cellsExpanded++;
+	}
+
+	public void countExpansions(int cells) {
+		cellsExpanded += cells;
+	}
+
+	/** @return largest number of cells held at once by the solver's frontier, queue, heap or stack */
+	public int peakFrontier() {
+		return peakFrontier;
+	}
+
+	public void frontierSize(int size) {
+		if (size > peakFrontier) {
+			peakFrontier = size;
+		}
+	}
+
+	/** @return number of cells on the route found from start to finish inclusive, 0 if none found */
+	public int pathLength() {
+		return pathLength;
+	}
+
+	public void setPathLength(int pathLength) {
+		this.pathLength = pathLength;
+	}
+
+	/** Forgets all visited cells, parent links, the current position and counts */
+	public void clear() {
+		if (lowestTouched <= highestTouched) {
+			visited.clear(lowestTouched, highestTouched + 1);
+			if (parents != null) {
+				Arrays.fill(parents, lowestTouched, highestTouched + 1, NONE);
+			}
+			lowestTouched = Integer.MAX_VALUE;
+			highestTouched = NONE;
+		}
+		current = NONE;
+		cellsExpanded = 0;
+		peakFrontier = 0;
+		pathLength = 0;
+	}
+}
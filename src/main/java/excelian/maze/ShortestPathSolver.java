@@ -0,0 +1,86 @@
+package excelian.maze;
+
+import excelian.maze.Maze.Cell;
+
+/**
+ * Base of solvers finding a shortest route, the route reported being only the cells
+ * on the path from start to finish rather than every cell explored.
+ * Not ThreadSafe
+ * @author FN
+ */
+abstract class ShortestPathSolver implements Solver {
+
+	private final IntStack path = new IntStack();
+
+	@Override
+	public boolean solve(Maze maze, Cell start, SearchState state, Route.Builder route, ExplorationListener listener) {
+		int finish = search(maze, maze.indexOf(start.getX(), start.getY()), maze.finishIndex(), state, listener);
+		if (finish < 0) {
+			return false;
+		}
+		listener.onFinish(finish);
+		state.setPathLength(appendRoute(maze, state, finish, route));
+		state.moveTo(finish);
+		return true;
+	}
+
+	/**
+	 * Finds a shortest route between any two open cells, start and finish included, into a
+	 * cleared state.
+	 * @return indices of the cells on the route from start to finish, null if there is none
+	 */
+	int[] route(Maze maze, int start, int finish, SearchState state) {
+		state.clear();
+		if (start == finish) {
+			return new int[] { start };
+		}
+		if (search(maze, start, finish, state, ExplorationListener.NONE) < 0) {
+			return null;
+		}
+		int length = 0;
+		for (int index = finish; index != SearchState.NONE; index = state.parentOf(index)) {
+			length++;
+		}
+		int[] route = new int[length];
+		for (int index = finish; index != SearchState.NONE; index = state.parentOf(index)) {
+			route[--length] = index;
+		}
+		state.setPathLength(route.length);
+		return route;
+	}
+
+	/**
+	 * Searches maze from start towards finish, recording visited cells, cells expanded and the cell
+	 * each was reached from in state. Parent links must lead from finish back to start.
+	 * Cells expanded, walls and cells already visited met are reported to listener.
+	 * @return finish if reached, -1 otherwise
+	 */
+	abstract int search(Maze maze, int start, int finish, SearchState state, ExplorationListener listener);
+
+	/**
+	 * Reports the neighbour of the cell at index in given direction as a wall, unless beyond the maze edge.
+	 * For searches iterating {@code Maze#openNeighbours(int)}, which skips both.
+	 */
+	static void reportWall(Maze maze, int index, int direction, ExplorationListener listener) {
+		int wall = maze.neighbourOf(index, direction);
+		if (wall >= 0) {
+			listener.onWall(wall);
+		}
+	}
+
+	/**
+	 * Appends the cells from the start to the given cell, following parent links in state.
+	 * @return number of cells appended
+	 */
+	private int appendRoute(Maze maze, SearchState state, int to, Route.Builder route) {
+		path.clear();
+		for (int index = to; index != SearchState.NONE; index = state.parentOf(index)) {
+			path.push(index);
+		}
+		int length = path.size();
+		while (!path.isEmpty()) {
+			route.add(path.pop());
+		}
+		return length;
+	}
+}
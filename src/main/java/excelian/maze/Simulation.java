@@ -0,0 +1,347 @@
+package excelian.maze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import excelian.maze.Maze.Cell;
+
+/**
+ * Fleet of agents walking one {@code Maze} a tick at a time, each keeping its right hand on the wall:
+ * turning right if it can, else going straight on, else turning left, else back. An agent reaching
+ * F/FINISH leaves the maze. Open cells hold one agent at most: an agent moves only by claiming the
+ * bit of its next cell in a bitmap of cells occupied, by compare and set, then clearing that of the
+ * cell it leaves. An agent failing to claim its cell collides, staying where it is and turning back.
+ * Position, heading, moves, collisions and the tick of arrival of the agents are held in an array
+ * each, indexed by agent, the last positions of every agent in a ring of one array, so that a tick
+ * sweeps a few arrays in order. The agents of a tick are advanced in parallel, in batches, on a
+ * {@code ForkJoinPool}; which of two agents moving to the same cell in the same tick gets it, and
+ * whether an agent may move into a cell left in that tick, depends on the order batches run in.
+ * The maze is only read, flags {@code Cell#isVisited()} included, and must not be edited while
+ * simulated.
+ * Not ThreadSafe
+ * @author FN
+ */
+public final class Simulation {
+
+	/** positions of each agent kept by default, that after the last tick included */
+	static final int HISTORY = 16;
+	/** agents advanced by a task at most */
+	private static final int TASK_AGENTS = 1 << 12;
+	/** turns tried, right, none, left and back, as added to a heading */
+	private static final int[] TURNS = { 1, 0, 3, 2 };
+
+	private final Maze maze;
+	private final long version;
+	private final ForkJoinPool pool;
+	private final int taskAgents;
+	private final int historyLength;
+	private final int agents;
+	private final int[] positions;
+	private final byte[] headings;
+	private final int[] moves;
+	private final int[] collisions;
+	/** -1 for agents still in the maze */
+	private final int[] finishTicks;
+	/** last historyLength positions of each agent in turn, that after tick t at t % historyLength */
+	private final int[] history;
+	private final AtomicLongArray occupied;
+	private int ticks;
+	private long tickNanos;
+	private long totalMoves;
+	private long totalCollisions;
+	private int finished;
+
+	/**
+	 * @param agents number of agents, set down on distinct open cells picked at random, F/FINISH
+	 *            excepted
+	 */
+	public Simulation(Maze maze, int agents, long seed) {
+		this(maze, agents, seed, DefaultPool.POOL);
+	}
+
+	public Simulation(Maze maze, int agents, long seed, ForkJoinPool pool) {
+		this(maze, place(maze, agents, seed), pool, TASK_AGENTS, HISTORY);
+	}
+
+	/**
+	 * @param positions cell of each agent, all open, distinct and other than F/FINISH, each agent
+	 *            heading RIGHT
+	 */
+	Simulation(Maze maze, int[] positions, ForkJoinPool pool, int taskAgents, int historyLength) {
+		this.maze = maze;
+		this.version = maze.version();
+		this.pool = pool;
+		this.taskAgents = taskAgents;
+		this.historyLength = historyLength;
+		this.agents = positions.length;
+		this.positions = positions;
+		this.headings = new byte[agents];
+		this.moves = new int[agents];
+		this.collisions = new int[agents];
+		this.finishTicks = new int[agents];
+		this.history = new int[agents * historyLength];
+		this.occupied = new AtomicLongArray((maze.cellCount() + 63) >>> 6);
+		Arrays.fill(finishTicks, -1);
+		for (int agent = 0; agent < agents; agent++) {
+			int position = positions[agent];
+			if (!maze.isOpen(position) || position == maze.finishIndex() || !claim(position)) {
+				throw new IllegalArgumentException(
+						String.format("Agent %s can not be set down on cell %s", agent, position));
+			}
+			Arrays.fill(history, agent * historyLength, (agent + 1) * historyLength, position);
+		}
+	}
+
+	/**
+	 * Picks cells at random until enough free ones are found while the maze is less than half full,
+	 * else shuffles the candidate cells.
+	 * @return distinct open cells, F/FINISH excepted, one per agent
+	 */
+	static int[] place(Maze maze, int agents, long seed) {
+		int capacity = maze.getNumberOfSpaces() + 1;
+		if (agents < 1 || agents > capacity) {
+			throw new IllegalArgumentException(
+					String.format("%s agents can not be set down on %s open cells", agents, capacity));
+		}
+		Random random = new Random(seed);
+		int[] positions = new int[agents];
+		if (agents <= capacity / 2) {
+			long[] taken = new long[(maze.cellCount() + 63) >>> 6];
+			for (int agent = 0; agent < agents;) {
+				int index = random.nextInt(maze.cellCount());
+				if (maze.isOpen(index) && index != maze.finishIndex() && (taken[index >>> 6] & 1L << index) == 0) {
+					taken[index >>> 6] |= 1L << index;
+					positions[agent++] = index;
+				}
+			}
+			return positions;
+		}
+		int[] cells = new int[capacity];
+		for (int index = 0, count = 0; count < capacity; index++) {
+			if (maze.isOpen(index) && index != maze.finishIndex()) {
+				cells[count++] = index;
+			}
+		}
+		for (int agent = 0; agent < agents; agent++) {
+			int other = agent + random.nextInt(capacity - agent);
+			positions[agent] = cells[other];
+			cells[other] = cells[agent];
+		}
+		return positions;
+	}
+
+	/**
+	 * Advances every agent still in the maze a cell, or into a collision.
+	 * @throws IllegalStateException if the maze has been edited since the simulation began
+	 */
+	public void tick() {
+		if (maze.version() != version) {
+			throw new IllegalStateException(
+					String.format("Maze edited since the simulation began, at version %s now %s", version,
+							maze.version()));
+		}
+		long began = System.nanoTime();
+		Batch batch = new Batch(++ticks, 0, agents);
+		pool.invoke(batch);
+		tickNanos += System.nanoTime() - began;
+		totalMoves += batch.moved;
+		totalCollisions += batch.collided;
+		finished += batch.arrived;
+	}
+
+	/** Runs given number of ticks */
+	public void run(int ticks) {
+		for (int i = 0; i < ticks; i++) {
+			tick();
+		}
+	}
+
+	/**
+	 * Advances agents from (inclusive) to (exclusive), splitting them between two tasks while more
+	 * than a task advances.
+	 */
+	private final class Batch extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final int tick;
+		private final int from;
+		private final int to;
+		private int moved;
+		private int collided;
+		private int arrived;
+
+		Batch(int tick, int from, int to) {
+			this.tick = tick;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > taskAgents) {
+				int middle = (from + to) >>> 1;
+				Batch low = new Batch(tick, from, middle);
+				Batch high = new Batch(tick, middle, to);
+				invokeAll(low, high);
+				moved = low.moved + high.moved;
+				collided = low.collided + high.collided;
+				arrived = low.arrived + high.arrived;
+				return;
+			}
+			int slot = tick % historyLength;
+			int finish = maze.finishIndex();
+			for (int agent = from; agent < to; agent++) {
+				if (finishTicks[agent] >= 0) {
+					continue;
+				}
+				int position = positions[agent];
+				int direction = direction(position, headings[agent]);
+				if (direction >= 0) {
+					int next = position + maze.offset(direction);
+					if (claim(next)) {
+						release(position);
+						position = next;
+						positions[agent] = next;
+						headings[agent] = (byte) direction;
+						moves[agent]++;
+						moved++;
+						if (next == finish) {
+							release(next);
+							finishTicks[agent] = tick;
+							arrived++;
+						}
+					} else {
+						headings[agent] = (byte) (direction + 2 & 3);
+						collisions[agent]++;
+						collided++;
+					}
+				}
+				history[agent * historyLength + slot] = position;
+			}
+		}
+	}
+
+	/** @return direction of the first open neighbour of the cell on the right hand rule, -1 if none */
+	private int direction(int index, int heading) {
+		int open = maze.openNeighbours(index);
+		for (int turn : TURNS) {
+			int direction = heading + turn & 3;
+			if ((open & 1 << direction) != 0) {
+				return direction;
+			}
+		}
+		return -1;
+	}
+
+	/** @return <code>true</code> if the cell was free and is now occupied */
+	private boolean claim(int index) {
+		long bit = 1L << index;
+		int word = index >>> 6;
+		for (;;) {
+			long bits = occupied.get(word);
+			if ((bits & bit) != 0) {
+				return false;
+			} else if (occupied.compareAndSet(word, bits, bits | bit)) {
+				return true;
+			}
+		}
+	}
+
+	private void release(int index) {
+		long bit = 1L << index;
+		int word = index >>> 6;
+		for (;;) {
+			long bits = occupied.get(word);
+			if (occupied.compareAndSet(word, bits, bits & ~bit)) {
+				return;
+			}
+		}
+	}
+
+	public Maze getMaze() {
+		return maze;
+	}
+
+	public int getAgents() {
+		return agents;
+	}
+
+	/** @return number of ticks run */
+	public int getTicks() {
+		return ticks;
+	}
+
+	/** @return cell of the agent, F/FINISH once it has left the maze */
+	public Cell getCell(int agent) {
+		return maze.cellAt(positions[agent]);
+	}
+
+	/** @return number of cells the agent has moved */
+	public int getMoves(int agent) {
+		return moves[agent];
+	}
+
+	/** @return number of times the agent has found its next cell occupied */
+	public int getCollisions(int agent) {
+		return collisions[agent];
+	}
+
+	/** @return tick the agent reached F/FINISH in, -1 if it has not */
+	public int getFinishTick(int agent) {
+		return finishTicks[agent];
+	}
+
+	/**
+	 * @return cells of the agent after each of the last ticks, oldest first, and where it was set down
+	 *         while fewer ticks have been run than positions are kept
+	 */
+	public List<Cell> getHistory(int agent) {
+		int count = Math.min(ticks + 1, historyLength);
+		List<Cell> cells = new ArrayList<>(count);
+		for (int tick = ticks - count + 1; tick <= ticks; tick++) {
+			cells.add(maze.cellAt(history[agent * historyLength + tick % historyLength]));
+		}
+		return cells;
+	}
+
+	/** @return <code>true</code> if an agent is on the cell at x, y */
+	public boolean isOccupied(int x, int y) {
+		int index = maze.indexOf(x, y);
+		return (occupied.get(index >>> 6) & 1L << index) != 0;
+	}
+
+	/** @return number of agents that have reached F/FINISH */
+	public int getFinished() {
+		return finished;
+	}
+
+	public long getTotalMoves() {
+		return totalMoves;
+	}
+
+	public long getTotalCollisions() {
+		return totalCollisions;
+	}
+
+	/** @return time taken by all ticks run */
+	public long getTickNanos() {
+		return tickNanos;
+	}
+
+	/** @return ticks run per second of time taken by them, 0 before the first */
+	public double getTicksPerSecond() {
+		return tickNanos == 0 ? 0 : ticks * 1e9 / tickNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"Simulation [agents=%s, ticks=%s, finished=%s, moves=%s, collisions=%s, ticksPerSecond=%.1f]", agents,
+				ticks, finished, totalMoves, totalCollisions, getTicksPerSecond());
+	}
+}
@@ -0,0 +1,267 @@
+package excelian.maze;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Results of solving maze text, held by a 128 bit hash of the text and the {@code SolverType}
+ * solving it, so that text seen before is neither parsed nor solved again. Each result holds the
+ * stats of the solve and its route, encoded as by {@code Route#writeTo(DataOutput)}. The cache is
+ * bounded by a number of results and by an estimate of the bytes they take, the least recently
+ * used being evicted. Hits, misses and evictions are counted. Text is hashed a word at a time;
+ * different texts of equal hash, though most unlikely, would share a result.
+ * Invalid text is not cached, it is parsed again, and fails again, each time it is given.
+ * ThreadSafe - texts missed by several threads at once are solved by each of them
+ * @author FN
+ */
+public final class SolveCache {
+
+	/** bytes taken by a result besides its route, key, map entry and stats included */
+	static final int ENTRY_BYTES = 256;
+	private static final long SEED = 0x9E3779B97F4A7C15L;
+	private static final long MULTIPLIER_1 = 0x87C37B91114253D5L;
+	private static final long MULTIPLIER_2 = 0x4CF5AD432745937FL;
+
+	private final int maxEntries;
+	private final long maxBytes;
+	/** in order of last use, least recent first */
+	private final LinkedHashMap<Key, Result> results = new LinkedHashMap<>(16, 0.75f, true);
+	private long bytes;
+
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * @param maxEntries number of results held at most
+	 * @param maxBytes bytes taken by the results held at most, results larger than that are not cached
+	 */
+	public SolveCache(int maxEntries, long maxBytes) {
+		if (maxEntries < 1 || maxBytes < 1) {
+			throw new IllegalArgumentException(
+					String.format("Cache of %s results in %s bytes at most not valid", maxEntries, maxBytes));
+		}
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Reads the text as {@code MazeReader#makeMaze(InputStreamReader)} does, then solves it as
+	 * {@code solve(ByteBuffer, SolverType)} does.
+	 */
+	public Result solve(InputStreamReader mazeStream, SolverType solverType) throws Exception {
+		return solve(MazeReader.read(mazeStream), solverType);
+	}
+
+	/**
+	 * @param mazeData maze text or binary maze, held between position and limit, left untouched
+	 * @return result cached for the same data and solver type, or the result of parsing and solving
+	 *         the data with a new solver of the type, cached if not too large
+	 */
+	public Result solve(ByteBuffer mazeData, SolverType solverType) {
+		Key key = new Key(mazeData, solverType);
+		synchronized (this) {
+			Result result = results.get(key);
+			if (result != null) {
+				hits++;
+				return result;
+			}
+			misses++;
+		}
+		MazeReader reader = new MazeReader();
+		Maze maze = reader.makeMaze(mazeData);
+		Explorer explorer = new Explorer(maze, solverType.newSolver());
+		explorer.setLoadNanos(reader.getLoadNanos());
+		explorer.exploreMaze();
+		Result result = new Result(maze, explorer.getRoute(), explorer.getSolveStats());
+		put(key, result);
+		return result;
+	}
+
+	private synchronized void put(Key key, Result result) {
+		long size = result.bytes();
+		if (size > maxBytes) {
+			return;
+		}
+		Result replaced = results.put(key, result);
+		bytes += size - (replaced == null ? 0 : replaced.bytes());
+		Iterator<Result> eldest = results.values().iterator();
+		while (results.size() > maxEntries || bytes > maxBytes) {
+			bytes -= eldest.next().bytes();
+			eldest.remove();
+			evictions++;
+		}
+	}
+
+	public synchronized void clear() {
+		results.clear();
+		bytes = 0;
+	}
+
+	/** @return number of results held */
+	public synchronized int size() {
+		return results.size();
+	}
+
+	/** @return estimate of the bytes taken by the results held */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/** @return hits as a fraction of all lookups, 0 before the first */
+	public synchronized double getHitRate() {
+		return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("SolveCache [results=%s, bytes=%s, hits=%s, misses=%s, evictions=%s, hitRate=%.3f]",
+				results.size(), bytes, hits, misses, evictions, getHitRate());
+	}
+
+	/**
+	 * Stats and route of solving a maze, the route held in a few bytes per run of cells.
+	 * Immutable, ThreadSafe
+	 */
+	public static final class Result {
+
+		private final int width;
+		private final int height;
+		private final byte[] route;
+		private final SolveStats stats;
+
+		Result(Maze maze, Route route, SolveStats stats) {
+			this.width = maze.width();
+			this.height = maze.height();
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			try {
+				route.writeTo(new DataOutputStream(out));
+			} catch (IOException e) {
+				throw new IllegalStateException("Failed encoding route", e);
+			}
+			this.route = out.toByteArray();
+			this.stats = stats;
+		}
+
+		public int getWidth() {
+			return width;
+		}
+
+		public int getHeight() {
+			return height;
+		}
+
+		/** @return stats of the solve, its load and solve times those of the solve cached */
+		public SolveStats getStats() {
+			return stats;
+		}
+
+		/** Writes the route as {@code Route#writeTo(DataOutput)} does */
+		public void writeRouteTo(DataOutput out) throws IOException {
+			out.write(route);
+		}
+
+		/**
+		 * @param maze maze parsed from the text solved
+		 * @return the route through maze
+		 * @throws IllegalArgumentException if maze is not of the size of that solved
+		 */
+		public Route getRoute(Maze maze) {
+			if (maze.width() != width || maze.height() != height) {
+				throw new IllegalArgumentException(String.format("Maze of %sx%s cells, route of a maze of %sx%s",
+						maze.width(), maze.height(), width, height));
+			}
+			try {
+				return Route.readFrom(new DataInputStream(new ByteArrayInputStream(route)), maze);
+			} catch (IOException e) {
+				throw new IllegalStateException("Failed decoding route", e);
+			}
+		}
+
+		long bytes() {
+			return ENTRY_BYTES + route.length;
+		}
+
+		@Override
+		public String toString() {
+			return "Result [width=" + width + ", height=" + height + ", routeBytes=" + route.length + ", stats="
+					+ stats + "]";
+		}
+	}
+
+	/**
+	 * Two 64 bit hashes of the data, mixing in eight bytes at a time, its length and a solver type.
+	 */
+	private static final class Key {
+
+		private final long hash1;
+		private final long hash2;
+		private final int length;
+		private final SolverType solverType;
+
+		Key(ByteBuffer data, SolverType solverType) {
+			ByteBuffer words = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+			int position = words.position();
+			int limit = words.limit();
+			long h1 = SEED ^ (limit - position);
+			long h2 = ~SEED ^ (limit - position);
+			for (; position + 8 <= limit; position += 8) {
+				long word = words.getLong(position);
+				h1 = (Long.rotateLeft(h1 ^ word * MULTIPLIER_1, 31) + h2) * 5 + 0x52DCE729;
+				h2 = (Long.rotateLeft(h2 ^ word * MULTIPLIER_2, 33) + h1) * 5 + 0x38495AB5;
+			}
+			long tail = 0;
+			for (int shift = 0; position < limit; position++, shift += 8) {
+				tail |= (words.get(position) & 0xFFL) << shift;
+			}
+			h1 ^= tail * MULTIPLIER_1;
+			h2 ^= Long.rotateLeft(tail * MULTIPLIER_2, 29);
+			this.hash1 = mix(h1 + h2);
+			this.hash2 = mix(h2 + h1 * 3);
+			this.length = data.remaining();
+			this.solverType = solverType;
+		}
+
+		private static long mix(long h) {
+			h = (h ^ h >>> 33) * 0xFF51AFD7ED558CCDL;
+			h = (h ^ h >>> 33) * 0xC4CEB9FE1A85EC53L;
+			return h ^ h >>> 33;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) hash1 * 31 + solverType.ordinal();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return hash1 == other.hash1 && hash2 == other.hash2 && length == other.length
+					&& solverType == other.solverType;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package excelian.maze;
+
+/**
+ * Measurements of a single exploration of a {@code Maze}, see {@code Explorer#getSolveStats()}.
+ * Probes count neighbours examined but not entered, being walls or cells already visited. Probes and
+ * backtracks are counted only by explorers given a listener or asked to, see
+ * {@code Explorer#setCountProbes(boolean)}, and are 0 otherwise.
+ * Immutable, ThreadSafe
+ * @author FN
+ */
+public final class SolveStats {
+
+	private final String solver;
+	private final boolean solved;
+	private final int spaces;
+	private final int walls;
+	private final int cellsExpanded;
+	private final boolean probesCounted;
+	private final long wallProbes;
+	private final long revisitProbes;
+	private final long backtracks;
+	private final int peakFrontier;
+	private final int pathLength;
+	private final long loadNanos;
+	private final long solveNanos;
+
+	/**
+	 * @param counts steps of the exploration, null if not counted
+	 */
+	SolveStats(String solver, boolean solved, Maze maze, SearchState state, CountingExplorationListener counts,
+			long loadNanos, long solveNanos) {
+		this.solver = solver;
+		this.solved = solved;
+		this.spaces = maze.getNumberOfSpaces();
+		this.walls = maze.getNumberOfWalls();
+		this.cellsExpanded = state.cellsExpanded();
+		this.probesCounted = counts != null;
+		this.wallProbes = counts == null ? 0 : counts.getWalls();
+		this.revisitProbes = counts == null ? 0 : counts.getRevisits();
+		this.backtracks = counts == null ? 0 : counts.getBacktracks();
+		this.peakFrontier = state.peakFrontier();
+		this.pathLength = state.pathLength();
+		this.loadNanos = loadNanos;
+		this.solveNanos = solveNanos;
+	}
+
+	/** @return simple class name of the {@code Solver} used */
+	public String getSolver() {
+		return solver;
+	}
+
+	/** @return <code>true</code> if F/FINISH was reached */
+	public boolean isSolved() {
+		return solved;
+	}
+
+	/** @return number of SPACE cells in the maze, as counted when it was built */
+	public int getSpaces() {
+		return spaces;
+	}
+
+	/** @return number of WALL cells in the maze, as counted when it was built */
+	public int getWalls() {
+		return walls;
+	}
+
+	public int getCellsExpanded() {
+		return cellsExpanded;
+	}
+
+	/** @return <code>true</code> if probes and backtracks were counted */
+	public boolean isProbesCounted() {
+		return probesCounted;
+	}
+
+	public long getWallProbes() {
+		return wallProbes;
+	}
+
+	public long getRevisitProbes() {
+		return revisitProbes;
+	}
+
+	public long getBacktracks() {
+		return backtracks;
+	}
+
+	/** @return largest frontier, queue, heap or stack depth reached */
+	public int getPeakFrontier() {
+		return peakFrontier;
+	}
+
+	public int getPathLength() {
+		return pathLength;
+	}
+
+	/** @return time taken to load the maze, 0 if not known */
+	public long getLoadNanos() {
+		return loadNanos;
+	}
+
+	public long getSolveNanos() {
+		return solveNanos;
+	}
+
+	@Override
+	public String toString() {
+		return "SolveStats [solver=" + solver + ", solved=" + solved + ", spaces=" + spaces + ", walls=" + walls
+				+ ", cellsExpanded=" + cellsExpanded + ", probesCounted=" + probesCounted + ", wallProbes="
+				+ wallProbes + ", revisitProbes=" + revisitProbes + ", backtracks=" + backtracks + ", peakFrontier="
+				+ peakFrontier + ", pathLength=" + pathLength + ", loadNanos=" + loadNanos + ", solveNanos="
+				+ solveNanos + "]";
+	}
+}
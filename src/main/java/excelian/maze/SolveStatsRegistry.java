@@ -0,0 +1,166 @@
+package excelian.maze;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Aggregates {@code SolveStats} of many explorations into histograms, optionally exposed
+ * over JMX. Hand one registry to any number of {@code Explorer}s, see
+ * {@code Explorer#setStatsRegistry(SolveStatsRegistry)}.
+ * ThreadSafe
+ * @author FN
+ */
+public class SolveStatsRegistry implements SolveStatsRegistryMBean {
+
+	private static final String DOMAIN = "excelian.maze";
+
+	private final AtomicLong unsolved = new AtomicLong();
+	private final Log2Histogram loadNanos = new Log2Histogram();
+	private final Log2Histogram solveNanos = new Log2Histogram();
+	private final Log2Histogram cellsExpanded = new Log2Histogram();
+	private final Log2Histogram wallProbes = new Log2Histogram();
+	private final Log2Histogram revisitProbes = new Log2Histogram();
+	private final Log2Histogram backtracks = new Log2Histogram();
+	private final Log2Histogram peakFrontier = new Log2Histogram();
+	private final Log2Histogram pathLength = new Log2Histogram();
+	private ObjectName objectName;
+
+	public void record(SolveStats stats) {
+		if (!stats.isSolved()) {
+			unsolved.incrementAndGet();
+		}
+		if (stats.getLoadNanos() > 0) {
+			loadNanos.record(stats.getLoadNanos());
+		}
+		solveNanos.record(stats.getSolveNanos());
+		cellsExpanded.record(stats.getCellsExpanded());
+		if (stats.isProbesCounted()) {
+			wallProbes.record(stats.getWallProbes());
+			revisitProbes.record(stats.getRevisitProbes());
+			backtracks.record(stats.getBacktracks());
+		}
+		peakFrontier.record(stats.getPeakFrontier());
+		pathLength.record(stats.getPathLength());
+	}
+
+	/**
+	 * Registers with the platform MBean server as <code>excelian.maze:type=SolveStats,name=&lt;name&gt;</code>
+	 */
+	public synchronized void register(String name) throws JMException {
+		if (objectName != null) {
+			throw new IllegalStateException("Already registered as " + objectName);
+		}
+		ObjectName registered = new ObjectName(DOMAIN + ":type=SolveStats,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, registered);
+		objectName = registered;
+	}
+
+	public synchronized void unregister() throws JMException {
+		if (objectName != null) {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+			objectName = null;
+		}
+	}
+
+	@Override
+	public long getSolveCount() {
+		return solveNanos.count();
+	}
+
+	@Override
+	public long getUnsolvedCount() {
+		return unsolved.get();
+	}
+
+	@Override
+	public double getMeanLoadMicros() {
+		return loadNanos.mean() / 1000;
+	}
+
+	@Override
+	public long getMaxLoadMicros() {
+		return loadNanos.max() / 1000;
+	}
+
+	@Override
+	public double getMeanSolveMicros() {
+		return solveNanos.mean() / 1000;
+	}
+
+	@Override
+	public long getP50SolveMicros() {
+		return solveNanos.percentile(0.5) / 1000;
+	}
+
+	@Override
+	public long getP99SolveMicros() {
+		return solveNanos.percentile(0.99) / 1000;
+	}
+
+	@Override
+	public long getMaxSolveMicros() {
+		return solveNanos.max() / 1000;
+	}
+
+	@Override
+	public double getMeanCellsExpanded() {
+		return cellsExpanded.mean();
+	}
+
+	@Override
+	public long getP99CellsExpanded() {
+		return cellsExpanded.percentile(0.99);
+	}
+
+	@Override
+	public long getMaxCellsExpanded() {
+		return cellsExpanded.max();
+	}
+
+	@Override
+	public double getMeanWallProbes() {
+		return wallProbes.mean();
+	}
+
+	@Override
+	public double getMeanRevisitProbes() {
+		return revisitProbes.mean();
+	}
+
+	@Override
+	public double getMeanBacktracks() {
+		return backtracks.mean();
+	}
+
+	@Override
+	public long getMaxPeakFrontier() {
+		return peakFrontier.max();
+	}
+
+	@Override
+	public double getMeanPathLength() {
+		return pathLength.mean();
+	}
+
+	@Override
+	public long[] getSolveNanosHistogram() {
+		return solveNanos.snapshot();
+	}
+
+	@Override
+	public long[] getCellsExpandedHistogram() {
+		return cellsExpanded.snapshot();
+	}
+
+	@Override
+	public void reset() {
+		unsolved.set(0);
+		for (Log2Histogram histogram : new Log2Histogram[] { loadNanos, solveNanos, cellsExpanded, wallProbes,
+				revisitProbes, backtracks, peakFrontier, pathLength }) {
+			histogram.reset();
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package excelian.maze;
+
+/**
+ * JMX view of {@code SolveStatsRegistry}. Times are in microseconds, percentiles are
+ * the upper bound of a power of two histogram bucket.
+ * @author FN
+ */
+public interface SolveStatsRegistryMBean {
+
+	long getSolveCount();
+
+	long getUnsolvedCount();
+
+	double getMeanLoadMicros();
+
+	long getMaxLoadMicros();
+
+	double getMeanSolveMicros();
+
+	long getP50SolveMicros();
+
+	long getP99SolveMicros();
+
+	long getMaxSolveMicros();
+
+	double getMeanCellsExpanded();
+
+	long getP99CellsExpanded();
+
+	long getMaxCellsExpanded();
+
+	/** @return mean of the explorations whose probes were counted, as are the two following */
+	double getMeanWallProbes();
+
+	double getMeanRevisitProbes();
+
+	double getMeanBacktracks();
+
+	long getMaxPeakFrontier();
+
+	double getMeanPathLength();
+
+	/** @return solves per power of two bucket of solve time in nanoseconds */
+	long[] getSolveNanosHistogram();
+
+	/** @return solves per power of two bucket of cells expanded */
+	long[] getCellsExpandedHistogram();
+
+	void reset();
+}
@@ -0,0 +1,25 @@
+package excelian.maze;
+
+import excelian.maze.Maze.Cell;
+
+/**
+ * Strategy used by {@code Explorer} to find its way from a start cell to the F/FINISH cell.
+ * Implementations must not recurse per cell so that arbitrarily large mazes can be solved
+ * within the default thread stack size, and must keep any exploration state in the given
+ * {@code SearchState} (or their own fields) rather than in the shared {@code Maze}.
+ * Each step is reported to the given {@code ExplorationListener}, which the caller will have started.
+ * @author FN
+ */
+public interface Solver {
+
+	/**
+	 * Explores maze from the given cell.
+	 * @param maze maze to explore
+	 * @param start cell exploration starts from
+	 * @param state state of this exploration, cells visited are recorded in it
+	 * @param route receives the cells walked through, in order
+	 * @param listener receives each step of the exploration
+	 * @return <code>true</code> if the F/FINISH cell was reached
+	 */
+	boolean solve(Maze maze, Cell start, SearchState state, Route.Builder route, ExplorationListener listener);
+}
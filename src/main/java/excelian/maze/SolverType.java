@@ -0,0 +1,50 @@
+package excelian.maze;
+
+/**
+ * Available {@code Solver} strategies.
+ * DEPTH_FIRST reports every cell it walks through, backtracking included, the others
+ * report a shortest route only.
+ * @author FN
+ */
+public enum SolverType {
+
+	DEPTH_FIRST {
+		@Override
+		public Solver newSolver() {
+			return new DepthFirstSolver();
+		}
+	},
+	BREADTH_FIRST {
+		@Override
+		public Solver newSolver() {
+			return new BreadthFirstSolver();
+		}
+	},
+	A_STAR {
+		@Override
+		public Solver newSolver() {
+			return new AStarSolver();
+		}
+	},
+	BIDIRECTIONAL {
+		@Override
+		public Solver newSolver() {
+			return new BidirectionalSolver();
+		}
+	},
+	JUMP_POINT {
+		@Override
+		public Solver newSolver() {
+			return new JumpPointSolver();
+		}
+	},
+	JUNCTION_GRAPH {
+		@Override
+		public Solver newSolver() {
+			return new JunctionGraphSolver();
+		}
+	};
+
+	/** @return new solver, solvers are not ThreadSafe so one is needed per thread */
+	public abstract Solver newSolver();
+}
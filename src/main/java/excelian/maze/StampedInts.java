@@ -0,0 +1,49 @@
+package excelian.maze;
+
+import java.util.Arrays;
+
+/**
+ * Array of ints that solvers keep per cell across searches, forgotten in constant time rather
+ * than refilled before each search. Each value is stored with the stamp of the search that set
+ * it; values set under an older stamp read as the absent value.
+ * Not ThreadSafe
+ * @author FN
+ */
+final class StampedInts {
+
+	private final int absent;
+	private long[] values = new long[0];
+	private int stamp;
+
+	/** @param absent value of the entries not set since the last reset */
+	StampedInts(int absent) {
+		this.absent = absent;
+	}
+
+	/** Forgets all values, sizing the array for given number of entries */
+	void reset(int size) {
+		if (values.length != size) {
+			values = new long[size];
+			stamp = 0;
+		}
+		if (++stamp == 0) {
+			// stamps wrapped round, values of 2^32 resets ago would read as set
+			Arrays.fill(values, 0);
+			stamp = 1;
+		}
+	}
+
+	/** @return value set at index since the last reset, the absent value otherwise */
+	int get(int index) {
+		long value = values[index];
+		return (int) (value >>> 32) == stamp ? (int) value : absent;
+	}
+
+	boolean isSet(int index) {
+		return (int) (values[index] >>> 32) == stamp;
+	}
+
+	void set(int index, int value) {
+		values[index] = (long) stamp << 32 | value & 0xFFFFFFFFL;
+	}
+}
@@ -0,0 +1,125 @@
+package excelian.maze;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Parser of maze text read from a stream a row at a time into a {@code CellStore}, so that the
+ * text and the cells need never be held in the heap as a whole, see {@code TileCache}.
+ * Rows are checked and cells counted by a {@code RowValidator}, as {@code MazeParser} does, problems
+ * being reported with the same messages.
+ * Not ThreadSafe
+ * @author FN
+ */
+final class StreamingMazeParser {
+
+	private Logger logger = Logger.getLogger(StreamingMazeParser.class);
+	private final InputStream in;
+	private final byte[] buffer = new byte[1 << 16];
+	private int position;
+	private int limit;
+	private byte[] line = new byte[256];
+	private ByteBuffer lineBuffer = ByteBuffer.wrap(line);
+	private int lineLength;
+
+	private final CellStore store;
+	private byte[] row;
+	private int width;
+	private RowValidator rows;
+
+	private StreamingMazeParser(InputStream in, CellStore store) {
+		this.in = in;
+		this.store = store;
+	}
+
+	/**
+	 * Parses and validates the text read from in, writing the cells into store.
+	 * @throws IllegalArgumentException on invalid type codes or too few rows
+	 * @throws IllegalStateException on mazes breaking the rules enforced by {@code Maze}
+	 */
+	static Maze parse(InputStream in, CellStore store) throws IOException {
+		return new StreamingMazeParser(in, store).parse();
+	}
+
+	private Maze parse() throws IOException {
+		boolean more = readLine();
+		while (more && isBlank()) {
+			logger.warn("Empty line detected, skipping it.");
+			more = readLine();
+		}
+		if (!more) {
+			throw Maze.tooFewRows();
+		}
+		// sized from the first non blank row, as the rows of the single pass parse are
+		width = lineLength;
+		row = new byte[width];
+		rows = new RowValidator(width, logger);
+		do {
+			readRow();
+		} while (readLine());
+		rows.validate();
+		return new Maze(store, width, rows.rows(), rows.startIndex(), rows.finishIndex(), rows.counts());
+	}
+
+	/**
+	 * Reads the next line, without its end, into line.
+	 * @return <code>false</code> at the end of the stream
+	 */
+	private boolean readLine() throws IOException {
+		lineLength = 0;
+		int b;
+		while ((b = read()) >= 0) {
+			if (MazeParser.CLASSES[b] == MazeParser.LINE_END) {
+				if (b == '\r' && peek() == '\n') {
+					position++;
+				}
+				return true;
+			}
+			if (lineLength == line.length) {
+				line = Arrays.copyOf(line, lineLength * 2);
+				lineBuffer = ByteBuffer.wrap(line);
+			}
+			line[lineLength++] = (byte) b;
+		}
+		return lineLength > 0;
+	}
+
+	private int read() throws IOException {
+		return position < limit || fill() ? buffer[position++] & 0xFF : -1;
+	}
+
+	private int peek() throws IOException {
+		return position < limit || fill() ? buffer[position] & 0xFF : -1;
+	}
+
+	private boolean fill() throws IOException {
+		limit = Math.max(in.read(buffer), 0);
+		position = 0;
+		return limit > 0;
+	}
+
+	private boolean isBlank() {
+		for (int p = 0; p < lineLength; p++) {
+			if ((line[p] & 0xFF) > ' ') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void readRow() {
+		if ((long) (rows.rows() + 1) * width > Maze.MAX_CELLS) {
+			throw Maze.tooManyCells();
+		}
+		int base = rows.rows() * width;
+		if (rows.readRow(lineBuffer, 0, lineLength, row, 0)) {
+			for (int i = 0; i < width; i++) {
+				store.set(base + i, row[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,244 @@
+package excelian.maze;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Cells of a maze larger than the heap, held in a file split into tiles of a fixed number of
+ * consecutive cells, rows of a wide maze spanning several tiles and tiles of a narrow one several rows.
+ * Tiles are read on demand into a bounded cache, the least recently used tile being evicted, and
+ * written back if changed, when the cache is full: the heap taken is that of the cache whatever
+ * the size of the maze. Slots are kept in a list in order of last use, so that a tile is found,
+ * used and evicted in constant time. Hits, misses and evictions are counted.
+ * The file is scratch storage, left in place when the cache is closed.
+ * ThreadSafe - explorations of a tiled maze serialise on its cache
+ * @author FN
+ */
+public final class TileCache extends CellStore implements Closeable {
+
+	private final File file;
+	private final FileChannel channel;
+	private final int tileShift;
+	private final int tileMask;
+	/** per slot: cells of the tile held, index of that tile and whether changed */
+	private final byte[][] slots;
+	private final int[] slotTiles;
+	private final boolean[] dirty;
+	/** per slot: slots used just before and after it, -1 if none */
+	private final int[] older;
+	private final int[] newer;
+	/** least and most recently used slots, -1 if none */
+	private int eldest = -1;
+	private int newest = -1;
+	private int slotsUsed;
+	/** per tile: slot holding it, -1 if none */
+	private int[] tileSlots = new int[0];
+	private int length;
+	private int lastTile = -1;
+	private byte[] lastCells;
+
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long writes;
+
+	/**
+	 * @param file file the tiles are held in, created or truncated
+	 * @param tileCells number of cells of each tile, rounded up to a power of two
+	 * @param maxTiles number of tiles held in the heap at most
+	 */
+	public TileCache(File file, int tileCells, int maxTiles) throws IOException {
+		if (tileCells < 1 || tileCells > 1 << 30 || maxTiles < 1) {
+			throw new IllegalArgumentException(
+					String.format("Tiles of %s cells, %s at most in the heap, not valid", tileCells, maxTiles));
+		}
+		this.file = file;
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		this.tileShift = 32 - Integer.numberOfLeadingZeros(tileCells - 1);
+		this.tileMask = (1 << tileShift) - 1;
+		this.slots = new byte[maxTiles][];
+		this.slotTiles = new int[maxTiles];
+		this.dirty = new boolean[maxTiles];
+		this.older = new int[maxTiles];
+		this.newer = new int[maxTiles];
+	}
+
+	@Override
+	synchronized byte get(int index) {
+		return tile(index >>> tileShift)[index & tileMask];
+	}
+
+	@Override
+	synchronized void set(int index, byte cell) {
+		int tile = index >>> tileShift;
+		tile(tile)[index & tileMask] = cell;
+		dirty[tileSlots[tile]] = true;
+		if (index >= length) {
+			length = index + 1;
+		}
+	}
+
+	@Override
+	synchronized long checksum(int cells) {
+		CRC32 crc = new CRC32();
+		for (int start = 0; start < cells; start += tileCells()) {
+			crc.update(tile(start >>> tileShift), 0, Math.min(tileCells(), cells - start));
+		}
+		return crc.getValue();
+	}
+
+	private byte[] tile(int tile) {
+		if (tile == lastTile) {
+			hits++;
+			return lastCells;
+		}
+		if (tile >= tileSlots.length) {
+			int tiles = tileSlots.length;
+			tileSlots = Arrays.copyOf(tileSlots, Math.max(tile + 1, tiles * 2));
+			Arrays.fill(tileSlots, tiles, tileSlots.length, -1);
+		}
+		int slot = tileSlots[tile];
+		if (slot >= 0) {
+			hits++;
+			unlink(slot);
+		} else {
+			misses++;
+			slot = slotsUsed < slots.length ? slotsUsed++ : evict();
+			load(slot, tile);
+		}
+		link(slot);
+		lastTile = tile;
+		lastCells = slots[slot];
+		return lastCells;
+	}
+
+	/** @return slot of the least recently used tile, written back if changed */
+	private int evict() {
+		int slot = eldest;
+		unlink(slot);
+		writeBack(slot);
+		tileSlots[slotTiles[slot]] = -1;
+		evictions++;
+		return slot;
+	}
+
+	/** Removes the slot from the list of slots in order of use */
+	private void unlink(int slot) {
+		int before = older[slot];
+		int after = newer[slot];
+		if (before >= 0) {
+			newer[before] = after;
+		} else {
+			eldest = after;
+		}
+		if (after >= 0) {
+			older[after] = before;
+		} else {
+			newest = before;
+		}
+	}
+
+	/** Appends the slot to the list of slots in order of use, as the most recently used */
+	private void link(int slot) {
+		older[slot] = newest;
+		newer[slot] = -1;
+		if (newest >= 0) {
+			newer[newest] = slot;
+		} else {
+			eldest = slot;
+		}
+		newest = slot;
+	}
+
+	private void load(int slot, int tile) {
+		byte[] cells = slots[slot];
+		if (cells == null) {
+			cells = slots[slot] = new byte[tileCells()];
+		} else {
+			Arrays.fill(cells, (byte) 0);
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(cells);
+		long position = (long) tile << tileShift;
+		try {
+			while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) > 0) {
+				// read on, tiles beyond the end of the file are empty
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(String.format("Failed reading tile %s of %s", tile, file), e);
+		}
+		slotTiles[slot] = tile;
+		tileSlots[tile] = slot;
+		dirty[slot] = false;
+	}
+
+	private void writeBack(int slot) {
+		if (!dirty[slot]) {
+			return;
+		}
+		long position = (long) slotTiles[slot] << tileShift;
+		ByteBuffer buffer = ByteBuffer.wrap(slots[slot], 0, (int) Math.min(tileCells(), length - position));
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer, position + buffer.position());
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(String.format("Failed writing tile %s of %s", slotTiles[slot], file), e);
+		}
+		dirty[slot] = false;
+		writes++;
+	}
+
+	/** Writes back every changed tile held */
+	public synchronized void flush() {
+		for (int slot = 0; slot < slotsUsed; slot++) {
+			writeBack(slot);
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		flush();
+		channel.close();
+	}
+
+	public int tileCells() {
+		return 1 << tileShift;
+	}
+
+	public int maxTiles() {
+		return slots.length;
+	}
+
+	/** @return accesses to a tile held in the heap */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/** @return accesses to a tile read from the file */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/** @return tiles dropped from the heap to make room for others */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/** @return tiles written back to the file */
+	public synchronized long getWrites() {
+		return writes;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("TileCache [file=%s, tileCells=%s, maxTiles=%s, hits=%s, misses=%s, evictions=%s, writes=%s]",
+				file, tileCells(), slots.length, hits, misses, evictions, writes);
+	}
+}
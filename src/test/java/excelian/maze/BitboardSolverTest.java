@@ -0,0 +1,106 @@
+package excelian.maze;
+
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.util.Iterator;
+import java.util.Random;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import excelian.maze.Maze.Cell;
+import excelian.maze.MazeGenerator.Shape;
+
+public class BitboardSolverTest {
+
+	/**
+	 * Distances counted in wavefronts are those of breadth first search, and the routes walked back
+	 * through them as short, on mazes of widths other than a multiple of 64.
+	 */
+	@Test
+	public void testMatchesBreadthFirst() throws Exception {
+		BitboardSolver solver = new BitboardSolver();
+		for (Shape shape : Shape.values()) {
+			for (int side : new int[] { 5, 63, 65, 129, 201 }) {
+				Maze maze = MazeGenerator.generate(shape, side, side);
+				assertRouteMatches(shape + " " + side, maze, solver);
+			}
+		}
+		Random random = new Random(5);
+		for (int trial = 0; trial < 30; trial++) {
+			Maze maze = MazeGenerator.randomWalls(random, 5 + random.nextInt(150), 5 + random.nextInt(100), 35);
+			assertRouteMatches("random " + trial, maze, solver);
+		}
+	}
+
+	/**
+	 * Cells reachable from a cell are those of its connected component.
+	 */
+	@Test
+	public void testCountReachable() throws Exception {
+		BitboardSolver solver = new BitboardSolver();
+		Random random = new Random(9);
+		for (int trial = 0; trial < 10; trial++) {
+			Maze maze = MazeGenerator.randomWalls(random, 70 + random.nextInt(70), 20 + random.nextInt(40), 35);
+			ComponentIndex components = maze.getComponents();
+			for (int i = 0; i < 20; i++) {
+				int index;
+				do {
+					index = random.nextInt(maze.cellCount());
+				} while (!maze.isOpen(index));
+				int x = index % maze.width();
+				int y = index / maze.width();
+				assertThat(solver.countReachable(maze, x, y),
+						Matchers.is(components.getComponentSize(components.componentOf(x, y))));
+			}
+		}
+	}
+
+	/**
+	 * Open cells set since the last fill are filled through.
+	 */
+	@Test
+	public void testEditedMaze() throws Exception {
+		Maze maze = new MazeReader().makeMaze(new InputStreamReader(
+				new ByteArrayInputStream("XXXXXXX\nXS X  X\nX  X  X\nX  X  X\nXXXXXFX".getBytes())));
+		BitboardSolver solver = new BitboardSolver();
+		assertThat(solver.distance(maze), Matchers.is(-1));
+		Explorer explorer = new Explorer(maze, solver);
+		explorer.exploreMaze();
+		assertThat(explorer.getSolveStats().isSolved(), Matchers.is(false));
+		assertThat(explorer.getPathLength(), Matchers.is(0));
+		assertThat(explorer.getCellsExpanded(), Matchers.is(6));
+
+		maze.setCellType(3, 2, Cell.Type.SPACE);
+		assertThat(solver.distance(maze), Matchers.is(7));
+		explorer.exploreMaze();
+		assertThat(explorer.getPathLength(), Matchers.is(8));
+		assertThat(explorer.whereAmI().isFinish(), Matchers.is(true));
+	}
+
+	private static void assertRouteMatches(String name, Maze maze, BitboardSolver solver) {
+		Explorer expected = new Explorer(maze, new BreadthFirstSolver());
+		expected.exploreMaze();
+		Explorer actual = new Explorer(maze, solver);
+		actual.exploreMaze();
+		assertThat(name, actual.getSolveStats().isSolved(), Matchers.is(expected.getSolveStats().isSolved()));
+		assertThat(name, actual.getPathLength(), Matchers.is(expected.getPathLength()));
+		assertThat(name, solver.distance(maze), Matchers.is(expected.getPathLength() - 1));
+		if (expected.getPathLength() == 0) {
+			return;
+		}
+		assertThat(name, actual.whereAmI().isFinish(), Matchers.is(true));
+		Iterator<Cell> cells = actual.getRoute().iterator();
+		Cell previous = cells.next();
+		assertThat(name, previous.isStart(), Matchers.is(true));
+		while (cells.hasNext()) {
+			Cell cell = cells.next();
+			assertThat(name, cell.isWallType(), Matchers.is(false));
+			assertThat(name, Math.abs(cell.getX() - previous.getX()) + Math.abs(cell.getY() - previous.getY()),
+					Matchers.is(1));
+			previous = cell;
+		}
+	}
+}
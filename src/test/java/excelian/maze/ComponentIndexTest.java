@@ -0,0 +1,113 @@
+package excelian.maze;
+
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import excelian.maze.Maze.Cell;
+
+public class ComponentIndexTest {
+
+	/**
+	 * Components found in stripes merged at their borders are those a flood fill of the whole maze finds.
+	 */
+	@Test
+	public void testMatchesFloodFill() throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		Random random = new Random(11);
+		for (int trial = 0; trial < 20; trial++) {
+			Maze maze = MazeGenerator.randomWalls(random, 20 + random.nextInt(60), 20 + random.nextInt(60), 40);
+			int[] expected = floodFill(maze);
+			for (int stripeRows : new int[] { 1, 3, 7, maze.height() }) {
+				ComponentIndex index = ComponentIndex.build(maze, pool, stripeRows);
+				int[] sizes = new int[index.getNumberOfComponents()];
+				for (int cell = 0; cell < maze.cellCount(); cell++) {
+					assertThat(index.componentOf(cell), Matchers.is(expected[cell]));
+					if (expected[cell] != ComponentIndex.NONE) {
+						sizes[expected[cell]]++;
+					}
+				}
+				for (int component = 0; component < sizes.length; component++) {
+					assertThat(index.getComponentSize(component), Matchers.is(sizes[component]));
+				}
+			}
+		}
+		pool.shutdown();
+	}
+
+	@Test
+	public void testConnectivity() throws Exception {
+		Maze maze = new MazeReader().makeMaze(new InputStreamReader(
+				new ByteArrayInputStream("XXXXXXX\nXS X  X\nXXXX XX\nX  X  X\nXXXXXFX".getBytes())));
+		ComponentIndex index = maze.getComponents();
+		assertThat(maze.getNumberOfComponents(), Matchers.is(3));
+		assertThat(index.isSolvable(), Matchers.is(false));
+		assertThat(index.isConnected(1, 1, 2, 1), Matchers.is(true));
+		assertThat(index.isConnected(4, 1, 5, 4), Matchers.is(true));
+		assertThat(index.isConnected(1, 3, 2, 3), Matchers.is(true));
+		assertThat(index.isConnected(1, 1, 1, 3), Matchers.is(false));
+		assertThat(index.isConnected(0, 0, 0, 0), Matchers.is(false));
+		assertThat(index.componentOf(0, 0), Matchers.is(ComponentIndex.NONE));
+		assertThat(index.getComponentSize(index.componentOf(4, 1)), Matchers.is(6));
+
+		maze.setCellType(3, 1, Cell.Type.SPACE);
+		assertThat(index.isCurrent(), Matchers.is(false));
+		assertThat(maze.getComponents().isSolvable(), Matchers.is(true));
+		assertThat(maze.getNumberOfComponents(), Matchers.is(2));
+	}
+
+	/**
+	 * Explorations of unsolvable mazes may be rejected without a cell being explored.
+	 */
+	@Test
+	public void testUnsolvableRejected() throws Exception {
+		Maze maze = new MazeReader().makeMaze(new InputStreamReader(
+				new ByteArrayInputStream("XXXXXXX\nXS X  X\nX  X  X\nX  X  X\nXXXXXFX".getBytes())));
+		Explorer explorer = new Explorer(maze, new BreadthFirstSolver());
+		explorer.exploreMaze();
+		assertThat(explorer.getCellsExpanded(), Matchers.greaterThan(0));
+		explorer.setRejectUnsolvable(true);
+		explorer.exploreMaze();
+		assertThat(explorer.getCellsExpanded(), Matchers.is(0));
+		assertThat(explorer.getPathLength(), Matchers.is(0));
+		assertThat(explorer.getSolveStats().isSolved(), Matchers.is(false));
+		assertThat(explorer.whereAmI().isStart(), Matchers.is(true));
+	}
+
+	/** @return component of each cell, numbered in order of their first cell */
+	private static int[] floodFill(Maze maze) {
+		int[] components = new int[maze.cellCount()];
+		Arrays.fill(components, -2);
+		int count = 0;
+		Deque<Integer> queue = new ArrayDeque<>();
+		for (int cell = 0; cell < components.length; cell++) {
+			if (!maze.isOpen(cell)) {
+				components[cell] = ComponentIndex.NONE;
+			} else if (components[cell] == -2) {
+				components[cell] = count;
+				queue.add(cell);
+				while (!queue.isEmpty()) {
+					int index = queue.poll();
+					for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+						int next = maze.neighbourOf(index, direction);
+						if (next >= 0 && maze.isOpen(next) && components[next] == -2) {
+							components[next] = count;
+							queue.add(next);
+						}
+					}
+				}
+				count++;
+			}
+		}
+		return components;
+	}
+}
@@ -0,0 +1,96 @@
+package excelian.maze;
+
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import excelian.maze.Maze.Cell;
+import excelian.maze.MazeGenerator.Shape;
+
+public class DeadEndFilterTest {
+
+	/**
+	 * Every solver finds routes as short through the pruned maze as through the maze, stripes of a
+	 * row or a few merging as a single stripe does.
+	 */
+	@Test
+	public void testRoutesKept() throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		Random random = new Random(3);
+		for (int trial = 0; trial < 20; trial++) {
+			Maze maze = MazeGenerator.randomWalls(random, 5 + random.nextInt(60), 5 + random.nextInt(40), 35);
+			DeadEndFilter single = DeadEndFilter.filter(maze, pool, maze.height());
+			for (int stripeRows : new int[] { 1, 3, 7 }) {
+				DeadEndFilter filter = DeadEndFilter.filter(maze, pool, stripeRows);
+				assertThat(filter.getCellsRemoved(), Matchers.is(single.getCellsRemoved()));
+				assertThat(filter.getPrunedMaze().checksum(), Matchers.is(single.getPrunedMaze().checksum()));
+			}
+			for (SolverType solverType : SolverType.values()) {
+				Explorer expected = new Explorer(maze, solverType.newSolver());
+				expected.exploreMaze();
+				Explorer actual = new Explorer(single.getPrunedMaze(), solverType.newSolver());
+				actual.exploreMaze();
+				String name = solverType + " " + trial;
+				assertThat(name, actual.getSolveStats().isSolved(), Matchers.is(expected.getSolveStats().isSolved()));
+				if (solverType.newSolver() instanceof ShortestPathSolver) {
+					assertThat(name, actual.getPathLength(), Matchers.is(expected.getPathLength()));
+				}
+			}
+		}
+		pool.shutdown();
+	}
+
+	/**
+	 * A perfect maze, having a single route between any two cells, is pruned down to its route.
+	 */
+	@Test
+	public void testPerfectMazePrunedToRoute() throws Exception {
+		for (int side : new int[] { 5, 41, 301 }) {
+			Maze maze = MazeGenerator.generate(Shape.PERFECT, side, side);
+			DeadEndFilter filter = DeadEndFilter.filter(maze, new ForkJoinPool(2), 4);
+			Explorer explorer = new Explorer(maze, new BreadthFirstSolver());
+			explorer.exploreMaze();
+			Maze pruned = filter.getPrunedMaze();
+			assertThat(pruned.getNumberOfSpaces() + 2, Matchers.is(explorer.getPathLength()));
+			assertThat(filter.getCellsRemoved(), Matchers.is(maze.getNumberOfSpaces() - pruned.getNumberOfSpaces()));
+			assertThat(filter.getUnreachableRemoved(), Matchers.is(0));
+		}
+	}
+
+	/**
+	 * Dead ends are filled, loops and cells out of reach of S/START are told apart, and a maze edited
+	 * after filtering is no longer current.
+	 */
+	@Test
+	public void testCellsRemoved() throws Exception {
+		Maze maze = new MazeReader().makeMaze(new InputStreamReader(new ByteArrayInputStream(
+				("XXXXXXXX\n" //
+						+ "XS    XX\n" //
+						+ "X X X XX\n" //
+						+ "X     XX\n" //
+						+ "X XXXXXX\n" //
+						+ "X    X X\n" //
+						+ "XXFXXX X\n" //
+						+ "XXXXXXXX").getBytes())));
+		DeadEndFilter filter = DeadEndFilter.filter(maze);
+		assertThat(filter.getDeadEndsFilled(), Matchers.is(2));
+		assertThat(filter.getUnreachableRemoved(), Matchers.is(2));
+		assertThat(filter.getCellsRemoved(), Matchers.is(4));
+		Maze pruned = filter.getPrunedMaze();
+		assertThat(pruned.getCellAt(3, 5).isWallType(), Matchers.is(true));
+		assertThat(pruned.getCellAt(4, 5).isWallType(), Matchers.is(true));
+		assertThat(pruned.getCellAt(6, 5).isWallType(), Matchers.is(true));
+		assertThat(pruned.getCellAt(3, 1).isWallType(), Matchers.is(false));
+		assertThat(pruned.getNumberOfSpaces(), Matchers.is(maze.getNumberOfSpaces() - 4));
+		assertThat(filter.isCurrent(), Matchers.is(true));
+
+		maze.setCellType(6, 5, Cell.Type.WALL);
+		assertThat(filter.isCurrent(), Matchers.is(false));
+	}
+}
@@ -0,0 +1,145 @@
+package excelian.maze;
+
+import static org.junit.Assert.assertThat;
+
+import java.awt.Point;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import excelian.maze.Maze.Cell;
+import excelian.maze.MazeGenerator.Shape;
+import excelian.maze.MultiQuerySolver.Query;
+
+public class DistanceIndexTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Distance to the exit matches the shortest route found by search, and following the gradient walks it.
+	 */
+	@Test
+	public void testDistanceAndRouteToFinish() throws Exception {
+		Maze maze = new MazeReader().makeMaze(new File("src/test/resources/maze.txt"));
+		DistanceIndex index = DistanceIndex.build(maze);
+		Cell start = maze.getStartCell();
+		assertThat(index.distanceToFinish(start.getX(), start.getY()), Matchers.is(73));
+		assertThat(index.distanceToFinish(0, 0), Matchers.is(DistanceIndex.UNREACHABLE));
+		Cell finish = maze.getFinishCell();
+		assertThat(index.distanceToFinish(finish.getX(), finish.getY()), Matchers.is(0));
+
+		List<Cell> route = index.routeToFinish(start.getX(), start.getY());
+		assertThat(route, Matchers.hasSize(74));
+		assertThat(route.get(0).getType(), Matchers.is(Cell.Type.START));
+		assertThat(route.get(73).getType(), Matchers.is(Cell.Type.FINISH));
+		for (int i = 1; i < route.size(); i++) {
+			Cell from = route.get(i - 1);
+			Cell to = route.get(i);
+			assertThat(Math.abs(from.getX() - to.getX()) + Math.abs(from.getY() - to.getY()), Matchers.is(1));
+			assertThat(to.isWallType(), Matchers.is(false));
+		}
+		assertThat(index.routeToFinish(0, 0), Matchers.empty());
+	}
+
+	/**
+	 * Landmark bounds never exceed the true distance between two cells.
+	 */
+	@Test
+	public void testLandmarkLowerBoundIsAdmissible() throws Exception {
+		Maze maze = MazeGenerator.generate(Shape.PERFECT, 41, 3);
+		DistanceIndex index = DistanceIndex.build(maze, new Point(39, 1), new Point(1, 39));
+		assertThat(index.landmarks(), Matchers.is(2));
+		assertThat(index.distanceToLandmark(0, 39, 1), Matchers.is(0));
+		MultiQuerySolver solver = new MultiQuerySolver(maze, SolverType.BREADTH_FIRST);
+		boolean tighter = false;
+		for (Query query : MultiQuerySolverTest.randomQueries(maze, 200, 5)) {
+			int steps = solver.solve(query).length() - 1;
+			int bound = index.lowerBound(query.startX(), query.startY(), query.finishX(), query.finishY());
+			assertThat(query.toString(), bound, Matchers.lessThanOrEqualTo(steps));
+			tighter |= bound > maze.distance(maze.indexOf(query.startX(), query.startY()),
+					maze.indexOf(query.finishX(), query.finishY()));
+		}
+		assertThat(tighter, Matchers.is(true));
+	}
+
+	/**
+	 * A* guided by landmarks finds routes as short as when guided by the Manhattan distance,
+	 * expanding fewer cells, and falls back on the Manhattan distance once the maze is edited.
+	 */
+	@Test
+	public void testLandmarksGuideAStar() throws Exception {
+		AStarSolver manhattan = new AStarSolver();
+		Maze maze = null;
+		AStarSolver guided = null;
+		for (Shape shape : Arrays.asList(Shape.OPEN_ROOM, Shape.PERFECT)) {
+			maze = MazeGenerator.generate(shape, 61, 7);
+			guided = new AStarSolver(DistanceIndex.build(maze, new Point(59, 1), new Point(1, 59)));
+			int guidedExpanded = 0;
+			int manhattanExpanded = 0;
+			for (Query query : MultiQuerySolverTest.randomQueries(maze, 100, 11)) {
+				int start = maze.indexOf(query.startX(), query.startY());
+				int finish = maze.indexOf(query.finishX(), query.finishY());
+				SearchState state = new SearchState(maze);
+				int[] expected = manhattan.route(maze, start, finish, state);
+				manhattanExpanded += state.cellsExpanded();
+				int[] actual = guided.route(maze, start, finish, state);
+				guidedExpanded += state.cellsExpanded();
+				assertThat(shape + " " + query, actual.length, Matchers.is(expected.length));
+			}
+			assertThat(shape.toString(), guidedExpanded, Matchers.lessThanOrEqualTo(manhattanExpanded));
+			if (shape == Shape.PERFECT) {
+				assertThat(guidedExpanded, Matchers.lessThan(manhattanExpanded / 2));
+			}
+		}
+
+		// a corridor across the middle of the perfect maze, shortening many routes
+		for (int x = 1; x < 60; x++) {
+			maze.setCellType(x, 30, Cell.Type.SPACE);
+		}
+		for (Query query : MultiQuerySolverTest.randomQueries(maze, 50, 13)) {
+			int start = maze.indexOf(query.startX(), query.startY());
+			int finish = maze.indexOf(query.finishX(), query.finishY());
+			int[] expected = manhattan.route(maze, start, finish, new SearchState(maze));
+			int[] actual = guided.route(maze, start, finish, new SearchState(maze));
+			assertThat(query.toString(), actual.length, Matchers.is(expected.length));
+		}
+	}
+
+	/**
+	 * The index is written next to the maze file once and read back on later loads, unless the maze changed.
+	 */
+	@Test
+	public void testPersistedNextToMazeFile() throws Exception {
+		File mazeFile = folder.newFile("maze.txt");
+		Files.copy(new File("src/test/resources/maze.txt").toPath(), mazeFile.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+		Maze maze = new MazeReader().makeMaze(mazeFile);
+		File indexFile = DistanceIndex.indexFileFor(mazeFile);
+		assertThat(indexFile.exists(), Matchers.is(false));
+
+		DistanceIndex built = DistanceIndex.load(maze, mazeFile, new Point(1, 1));
+		assertThat(indexFile.length(), Matchers.is(28L + 4 * 2 * (1 + 15 * 15)));
+		DistanceIndex read = DistanceIndex.read(maze, indexFile);
+		assertThat(read.landmarks(), Matchers.is(1));
+		for (int y = 0; y < maze.height(); y++) {
+			for (int x = 0; x < maze.width(); x++) {
+				assertThat(read.distanceToFinish(x, y), Matchers.is(built.distanceToFinish(x, y)));
+				assertThat(read.distanceToLandmark(0, x, y), Matchers.is(built.distanceToLandmark(0, x, y)));
+			}
+		}
+
+		Maze other = MazeGenerator.generate(Shape.PERFECT, 15, 1);
+		assertThat(DistanceIndex.read(other, indexFile), Matchers.nullValue());
+		DistanceIndex rebuilt = DistanceIndex.load(other, mazeFile);
+		assertThat(rebuilt.landmarks(), Matchers.is(0));
+		assertThat(DistanceIndex.read(other, indexFile), Matchers.notNullValue());
+	}
+}
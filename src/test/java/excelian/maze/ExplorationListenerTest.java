@@ -0,0 +1,89 @@
+package excelian.maze;
+
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import excelian.maze.EventLogExplorationListener.Event;
+
+public class ExplorationListenerTest {
+
+	private Maze testMaze() throws Exception {
+		return new MazeReader().makeMaze(new InputStreamReader(new FileInputStream("src/test/resources/maze.txt")));
+	}
+
+	/**
+	 * Every solver reports one start, one finish and a visit per cell expanded, cell by cell solvers
+	 * probe walls.
+	 */
+	@Test
+	public void testCountsMatchSearchState() throws Exception {
+		Maze maze = testMaze();
+		for (SolverType type : SolverType.values()) {
+			CountingExplorationListener counter = new CountingExplorationListener();
+			Explorer explorer = new Explorer(maze, type.newSolver(), counter);
+			explorer.exploreMaze();
+			assertThat(type.name(), counter.getStarts(), Matchers.is(1L));
+			assertThat(type.name(), counter.getFinishes(), Matchers.is(1L));
+			assertThat(type.name(), counter.getVisits(), Matchers.is((long) explorer.getCellsExpanded()));
+			if (type != SolverType.JUNCTION_GRAPH && type != SolverType.JUMP_POINT) {
+				assertThat(type.name(), counter.getWalls(), Matchers.greaterThan(0L));
+			}
+		}
+	}
+
+	/**
+	 * Depth first search backtracks out of dead ends, the event log ends at F/FINISH.
+	 */
+	@Test
+	public void testEventLogOfDepthFirstExploration() throws Exception {
+		Maze maze = testMaze();
+		EventLogExplorationListener log = new EventLogExplorationListener();
+		new Explorer(maze, new DepthFirstSolver(), log).exploreMaze();
+		assertThat(log.getEvent(0), Matchers.is(Event.START));
+		assertThat(log.getIndex(0), Matchers.is(maze.width()));
+		assertThat(log.getEvent(1), Matchers.is(Event.VISIT));
+		assertThat(log.getIndex(1), Matchers.is(maze.startIndex()));
+		assertThat(log.getEvent(log.size() - 1), Matchers.is(Event.FINISH));
+		assertThat(log.getIndex(log.size() - 1), Matchers.is(maze.finishIndex()));
+		int backtracks = 0;
+		for (int i = 0; i < log.size(); i++) {
+			if (log.getEvent(i) == Event.BACKTRACK) {
+				backtracks++;
+			}
+		}
+		assertThat(backtracks, Matchers.greaterThan(0));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		log.writeTo(out);
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+		assertThat(in.readInt(), Matchers.is(log.size()));
+		assertThat(out.size(), Matchers.is(4 * (log.size() + 1)));
+	}
+
+	/**
+	 * Manual moves report walls, visits and revisits.
+	 */
+	@Test
+	public void testManualMovesAreReported() throws Exception {
+		Maze maze = testMaze();
+		CountingExplorationListener counter = new CountingExplorationListener();
+		Explorer explorer = new Explorer(maze, new DepthFirstSolver(), counter);
+		explorer.moveToStartPoint();
+		explorer.moveDown();
+		explorer.moveUp();
+		explorer.turnRight();
+		explorer.turnLeft();
+		assertThat(counter.getStarts(), Matchers.is(1L));
+		assertThat(counter.getWalls(), Matchers.is(1L));
+		assertThat(counter.getVisits(), Matchers.is(2L));
+		assertThat(counter.getRevisits(), Matchers.is(2L));
+	}
+}
@@ -0,0 +1,83 @@
+package excelian.maze;
+
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import excelian.maze.Maze.Cell;
+import excelian.maze.MazeGenerator.Shape;
+
+public class IncrementalSolverTest {
+
+	/**
+	 * After each edit the repaired route is as short as a breadth first search of the edited maze finds,
+	 * expanding fewer cells than solving afresh.
+	 */
+	@Test
+	public void testRepairsMatchFreshSearch() throws Exception {
+		for (Shape shape : new Shape[] { Shape.OPEN_ROOM, Shape.PERFECT }) {
+			Maze maze = MazeGenerator.generate(shape, 61, 4);
+			IncrementalSolver solver = new IncrementalSolver(maze);
+			solver.solve();
+			int initialExpansions = solver.getCellsExpanded();
+			Random random = new Random(8);
+			long repairExpansions = 0;
+			int edits = 200;
+			for (int i = 0; i < edits; i++) {
+				int x = 1 + random.nextInt(maze.width() - 2);
+				int y = 1 + random.nextInt(maze.height() - 2);
+				Cell cell = maze.getCellAt(x, y);
+				if (cell.isStart() || cell.isFinish()) {
+					continue;
+				}
+				maze.setCellType(x, y, cell.isWallType() ? Cell.Type.SPACE : Cell.Type.WALL);
+				boolean solved = solver.solve();
+				repairExpansions += solver.getCellsExpanded();
+
+				Explorer fresh = new Explorer(maze, new BreadthFirstSolver());
+				fresh.exploreMaze();
+				assertThat(shape + " edit " + i, solver.getPathLength(), Matchers.is(fresh.getPathLength()));
+				assertThat(solved, Matchers.is(fresh.getPathLength() > 0));
+				assertContiguous(solver.getRoute(), solver.getPathLength());
+			}
+			assertThat(shape.name(), repairExpansions / edits, Matchers.lessThan((long) initialExpansions));
+			solver.close();
+		}
+	}
+
+	/**
+	 * Moving the finish starts the search afresh.
+	 */
+	@Test
+	public void testFinishMoved() throws Exception {
+		Maze maze = MazeGenerator.generate(Shape.CORRIDOR, 11, 1);
+		IncrementalSolver solver = new IncrementalSolver(maze);
+		solver.solve();
+		Cell finish = maze.getFinishCell();
+		Cell start = maze.getStartCell();
+		maze.setCellTypes(Arrays.asList(new Cell(Cell.Type.SPACE, finish.getCoords()),
+				new Cell(Cell.Type.FINISH, maze.getCellAt(start.getX() + 1, start.getY()).getCoords())));
+		assertThat(solver.solve(), Matchers.is(true));
+		assertThat(solver.getPathLength(), Matchers.is(2));
+		solver.close();
+	}
+
+	private static void assertContiguous(List<Cell> route, int length) {
+		assertThat(route, Matchers.hasSize(length));
+		for (int i = 1; i < route.size(); i++) {
+			Cell from = route.get(i - 1);
+			Cell to = route.get(i);
+			assertThat(to.isWallType(), Matchers.is(false));
+			assertThat(Math.abs(from.getX() - to.getX()) + Math.abs(from.getY() - to.getY()), Matchers.is(1));
+		}
+		if (length > 0) {
+			assertThat(route.get(0).isStart(), Matchers.is(true));
+			assertThat(route.get(length - 1).isFinish(), Matchers.is(true));
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package excelian.maze;
+
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import excelian.maze.Maze.Cell;
+import excelian.maze.MazeGenerator.Shape;
+
+public class JunctionGraphTest {
+
+	/**
+	 * A single winding corridor collapses to one edge between S and F, expanded back cell for cell.
+	 */
+	@Test
+	public void testCorridorCollapsesToSingleEdge() throws Exception {
+		Maze maze = new MazeReader().makeMaze(
+				new InputStreamReader(new ByteArrayInputStream(MazeExplorerTest.serpentine(41).getBytes())));
+		JunctionGraph graph = JunctionGraph.build(maze);
+		assertThat(graph.nodeCount(), Matchers.is(2));
+		assertThat(graph.edgeCount(), Matchers.is(2));
+
+		Explorer explorer = new Explorer(maze, new JunctionGraphSolver(graph));
+		explorer.exploreMaze();
+		assertThat(explorer.getCellsExpanded(), Matchers.is(1));
+		assertThat(explorer.getPathLength(), Matchers.is(maze.getNumberOfSpaces() + 2));
+		assertThat(explorer.getRoute().length(), Matchers.is(maze.getNumberOfSpaces() + 2));
+		assertThat(explorer.getRoute().getLast().getType(), Matchers.is(Cell.Type.FINISH));
+	}
+
+	/**
+	 * Routes through the graph are as short as breadth first routes through the cells and walk neighbouring cells.
+	 */
+	@Test
+	public void testRoutesMatchBreadthFirst() throws Exception {
+		for (Shape shape : Shape.values()) {
+			Maze maze = MazeGenerator.generate(shape, 61, 9);
+			Explorer breadthFirst = new Explorer(maze, new BreadthFirstSolver());
+			breadthFirst.exploreMaze();
+			Explorer junctions = new Explorer(maze, new JunctionGraphSolver());
+			junctions.exploreMaze();
+			assertThat(shape.name(), junctions.getPathLength(), Matchers.is(breadthFirst.getPathLength()));
+			List<Cell> route = new ArrayList<>();
+			for (Cell cell : junctions.getRoute()) {
+				route.add(cell);
+			}
+			assertThat(shape.name(), route, Matchers.hasSize(breadthFirst.getPathLength()));
+			for (int i = 1; i < route.size(); i++) {
+				Cell from = route.get(i - 1);
+				Cell to = route.get(i);
+				assertThat(Math.abs(from.getX() - to.getX()) + Math.abs(from.getY() - to.getY()), Matchers.is(1));
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testStartMustBeNode() throws Exception {
+		Maze maze = MazeGenerator.generate(Shape.CORRIDOR, 11, 1);
+		new JunctionGraphSolver().solve(maze, maze.getCellAt(2, 1), new SearchState(maze), new Route.Builder(maze),
+				ExplorationListener.NONE);
+	}
+}
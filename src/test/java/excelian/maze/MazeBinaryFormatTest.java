@@ -0,0 +1,94 @@
+package excelian.maze;
+
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MazeBinaryFormatTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * A maze written in binary reads back cell for cell, with its counts and start and finish cells.
+	 */
+	@Test
+	public void testRoundTrip() throws Exception {
+		MazeReader reader = new MazeReader();
+		Maze maze = reader.makeMaze(new File("src/test/resources/maze.txt"));
+		File binary = folder.newFile("maze.mazb");
+		MazeBinaryFormat.write(maze, binary);
+		assertThat(binary.length(), Matchers.is((long) MazeBinaryFormat.HEADER_SIZE + (15 * 15 + 3) / 4));
+
+		Maze read = reader.makeMaze(binary);
+		assertSameMaze(read, maze);
+		assertThat(explore(read), Matchers.is(explore(maze)));
+	}
+
+	@Test
+	public void testRoundTripWithoutChecksum() throws Exception {
+		Maze maze = new MazeReader().makeMaze(ByteBuffer.wrap("XXXXX\nXS  X\nXX XX\nXXXFX".getBytes()));
+		File binary = folder.newFile("maze.mazb");
+		MazeBinaryFormat.write(maze, binary, false);
+		assertSameMaze(MazeBinaryFormat.read(ByteBuffer.wrap(Files.readAllBytes(binary.toPath())), true), maze);
+	}
+
+	/**
+	 * The text to binary converter writes a file the reader recognises as binary.
+	 */
+	@Test
+	public void testConverter() throws Exception {
+		File binary = new File(folder.getRoot(), "converted.mazb");
+		MazeBinaryFormat.main(new String[] { "src/test/resources/maze.txt", binary.getPath() });
+		assertThat(MazeBinaryFormat.isBinary(ByteBuffer.wrap(Files.readAllBytes(binary.toPath()))), Matchers.is(true));
+		assertSameMaze(new MazeReader().makeMaze(binary), new MazeReader().makeMaze(new File("src/test/resources/maze.txt")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void exceptionShouldOccurOnChecksumMismatch() throws Exception {
+		File binary = folder.newFile("maze.mazb");
+		MazeBinaryFormat.write(new MazeReader().makeMaze(new File("src/test/resources/maze.txt")), binary);
+		try (RandomAccessFile file = new RandomAccessFile(binary, "rw")) {
+			file.seek(MazeBinaryFormat.HEADER_SIZE + 10);
+			int b = file.read();
+			file.seek(MazeBinaryFormat.HEADER_SIZE + 10);
+			file.write(b ^ 0x01);
+		}
+		new MazeReader().makeMaze(binary);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void exceptionShouldOccurOnTruncatedFile() throws Exception {
+		File binary = folder.newFile("maze.mazb");
+		MazeBinaryFormat.write(new MazeReader().makeMaze(new File("src/test/resources/maze.txt")), binary);
+		byte[] bytes = Files.readAllBytes(binary.toPath());
+		MazeBinaryFormat.read(ByteBuffer.wrap(bytes, 0, bytes.length - 1), false);
+	}
+
+	private static void assertSameMaze(Maze actual, Maze expected) {
+		assertThat(actual.size(), Matchers.is(expected.size()));
+		assertThat(actual.getNumberOfWalls(), Matchers.is(expected.getNumberOfWalls()));
+		assertThat(actual.getNumberOfSpaces(), Matchers.is(expected.getNumberOfSpaces()));
+		assertThat(actual.getStartCell().getCoords(), Matchers.is(expected.getStartCell().getCoords()));
+		assertThat(actual.getFinishCell().getCoords(), Matchers.is(expected.getFinishCell().getCoords()));
+		for (int y = 0; y < expected.size(); y++) {
+			for (int x = 0; x < expected.width(); x++) {
+				assertThat(actual.getCellAt(x, y).getType(), Matchers.is(expected.getCellAt(x, y).getType()));
+			}
+		}
+	}
+
+	private static String explore(Maze maze) {
+		Explorer explorer = new Explorer(maze);
+		explorer.exploreMaze();
+		return explorer.getRoute().toString();
+	}
+}
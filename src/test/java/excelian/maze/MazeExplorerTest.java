@@ -6,6 +6,15 @@ import java.awt.Point;
 import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.InputStreamReader;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -21,6 +30,7 @@ public class MazeExplorerTest {
 	 * @throws Exception
 	 */
 	@Test
+	@SuppressWarnings("deprecation")
 	public void testExploreMaze() throws Exception {
 		MazeReader reader = new MazeReader();
 		Maze maze = reader.makeMaze(new InputStreamReader(new FileInputStream("src/test/resources/maze.txt")));
@@ -32,6 +42,9 @@ public class MazeExplorerTest {
 		//ensure that first and last cell is appropriately stored in history stack
 		assertThat(explorer.getHistory().peekFirst().getType(), Matchers.is(Cell.Type.START));
 		assertThat(explorer.getHistory().peekLast().getType(), Matchers.is(Cell.Type.FINISH));
+		assertThat(explorer.getRoute().length(), Matchers.is(76));
+		assertThat(explorer.getRoute().getFirst().getType(), Matchers.is(Cell.Type.START));
+		assertThat(explorer.getRoute().getLast().getType(), Matchers.is(Cell.Type.FINISH));
 	}
 
 	/**
@@ -100,6 +113,7 @@ public class MazeExplorerTest {
 	 * right; Understand what is in front of them;
 	 */
 	@Test
+	@SuppressWarnings("deprecation")
 	public void testTurnRight() throws Exception {
 		MazeReader reader = new MazeReader();
 		Maze maze = reader.makeMaze(new InputStreamReader(new FileInputStream("src/test/resources/maze.txt")));
@@ -110,6 +124,7 @@ public class MazeExplorerTest {
 		// in maze.txt, a Space ' ' is to the right of S cell
 		assertThat(explorer.whereAmI().getType(), Matchers.is(Cell.Type.SPACE));
 		assertThat(explorer.getHistory(), Matchers.hasSize(2));
+		assertThat(explorer.getRoute().length(), Matchers.is(2));
 	}
 
 	/**
@@ -128,4 +143,195 @@ public class MazeExplorerTest {
 		assertThat(explorer.whereAmI().getType(), Matchers.is(Cell.Type.START));
 	}
 
+	/**
+	 * A loaded maze is left untouched by exploration, so it can be explored again.
+	 */
+	@Test
+	public void testExploreSameMazeTwice() throws Exception {
+		Maze maze = new MazeReader().makeMaze(new InputStreamReader(new FileInputStream("src/test/resources/maze.txt")));
+		Explorer first = new Explorer(maze);
+		first.exploreMaze();
+		Explorer second = new Explorer(maze);
+		second.exploreMaze();
+		assertThat(second.whereAmI().getType(), Matchers.is(Cell.Type.FINISH));
+		assertThat(second.getRoute().length(), Matchers.is(76));
+		first.exploreMaze();
+		assertThat(first.getRoute().length(), Matchers.is(76));
+	}
+
+	/**
+	 * Batches of commands report each step and the moves open after it, then where they ended.
+	 */
+	@Test
+	public void testExecuteCommands() throws Exception {
+		Maze maze = new MazeReader().makeMaze(
+				new InputStreamReader(new ByteArrayInputStream("XXXX\nXS X\nXX X\nX XX\nX  X\nXXXF".getBytes())));
+		Explorer explorer = new Explorer(maze);
+		IntBuffer results = IntBuffer.allocate(20);
+		int first = explorer.execute(IntBuffer.wrap(new int[] { Explorer.MOVE_DOWN, Explorer.MOVE_DOWN,
+				Explorer.MOVE_UP, Explorer.MOVE_UP, Explorer.TURN_LEFT, Explorer.TURN_LEFT }), results);
+		assertThat(first, Matchers.is(-1));
+		int right = 1 << Explorer.TURN_RIGHT;
+		int down = 1 << Explorer.MOVE_DOWN;
+		int up = 1 << Explorer.MOVE_UP;
+		assertThat(results.position(), Matchers.is(8));
+		assertThat(Arrays.copyOf(results.array(), 8), Matchers.is(new int[] { 0, 1,
+				Explorer.WALL | (right | down | up) << Explorer.OPEN_SHIFT,
+				Explorer.MOVED | down << Explorer.OPEN_SHIFT,
+				Explorer.WALL | (right | down | up) << Explorer.OPEN_SHIFT,
+				Explorer.VISITED | right << Explorer.OPEN_SHIFT,
+				Explorer.WALL | right << Explorer.OPEN_SHIFT,
+				Explorer.EDGE | right << Explorer.OPEN_SHIFT }));
+		assertThat(explorer.whereAmI().getCoords(), Matchers.is(new Point(0, 1)));
+		assertThat(explorer.whereAmI().getType(), Matchers.is(Cell.Type.WALL));
+
+		results.clear();
+		byte[] commands = { -1, Explorer.TURN_RIGHT, Explorer.MOVE_DOWN, Explorer.MOVE_DOWN, Explorer.MOVE_DOWN,
+				Explorer.TURN_RIGHT, Explorer.MOVE_DOWN, Explorer.TURN_RIGHT, -1 };
+		assertThat(explorer.execute(commands, 1, 7, results), Matchers.is(6));
+		assertThat(results.position(), Matchers.is(9));
+		assertThat(results.get(0), Matchers.is(3));
+		assertThat(results.get(1), Matchers.is(5));
+		assertThat(results.get(4) & 0xFF, Matchers.is((int) Explorer.VISITED));
+		assertThat(results.get(5) & 0xFF, Matchers.is((int) Explorer.MOVED));
+		assertThat(results.get(8) & 0xFF, Matchers.is((int) Explorer.FINISHED));
+		assertThat(explorer.whereAmI().isFinish(), Matchers.is(true));
+		assertThat(explorer.getRoute().length(), Matchers.is(5));
+	}
+
+	/**
+	 * A batch of commands leaves an explorer, its route and its listener as the manual moves would.
+	 */
+	@Test
+	public void testExecuteMatchesManualMoves() throws Exception {
+		Maze maze = new MazeReader().makeMaze(new InputStreamReader(new FileInputStream("src/test/resources/maze.txt")));
+		Random random = new Random(11);
+		for (int trial = 0; trial < 20; trial++) {
+			CountingExplorationListener manualSteps = new CountingExplorationListener();
+			CountingExplorationListener batchSteps = new CountingExplorationListener();
+			Explorer manual = new Explorer(maze, new DepthFirstSolver(), manualSteps);
+			Explorer batch = new Explorer(maze, new DepthFirstSolver(), batchSteps);
+			int[] commands = new int[1 + random.nextInt(200)];
+			for (int i = 0; i < commands.length; i++) {
+				commands[i] = random.nextInt(4);
+				switch (commands[i]) {
+				case Explorer.TURN_RIGHT:
+					manual.turnRight();
+					break;
+				case Explorer.MOVE_DOWN:
+					manual.moveDown();
+					break;
+				case Explorer.TURN_LEFT:
+					manual.turnLeft();
+					break;
+				default:
+					manual.moveUp();
+				}
+			}
+			IntBuffer results = IntBuffer.allocate(commands.length + 2);
+			batch.execute(IntBuffer.wrap(commands), results);
+			assertThat(batch.whereAmI().getCoords(), Matchers.is(manual.whereAmI().getCoords()));
+			assertThat(results.get(0), Matchers.is(manual.whereAmI().getX()));
+			assertThat(results.get(1), Matchers.is(manual.whereAmI().getY()));
+			assertThat(batch.whereAmI().isVisited(), Matchers.is(manual.whereAmI().isVisited()));
+			assertThat(batch.getRoute().toString(), Matchers.is(manual.getRoute().toString()));
+			assertThat(batchSteps.toString(), Matchers.is(manualSteps.toString()));
+		}
+	}
+
+	/**
+	 * Commands are checked, and room for their results, before any is run.
+	 */
+	@Test
+	public void testExecuteInvalidCommand() throws Exception {
+		Maze maze = new MazeReader().makeMaze(new InputStreamReader(new FileInputStream("src/test/resources/maze.txt")));
+		Explorer explorer = new Explorer(maze);
+		try {
+			explorer.execute(new byte[] { Explorer.MOVE_DOWN, 4 }, 0, 2, IntBuffer.allocate(4));
+			fail("Command 4 run");
+		} catch (IllegalArgumentException e) {
+			assertThat(explorer.whereAmI(), Matchers.nullValue());
+		}
+		try {
+			explorer.execute(new byte[] { Explorer.MOVE_DOWN, Explorer.MOVE_UP }, 0, 2, IntBuffer.allocate(3));
+			fail("Results put beyond limit");
+		} catch (IllegalArgumentException e) {
+			assertThat(explorer.whereAmI(), Matchers.nullValue());
+		}
+	}
+
+	/**
+	 * Many explorers, each on its own thread, may explore a single maze instance at once.
+	 */
+	@Test
+	public void testConcurrentExplorationOfSharedMaze() throws Exception {
+		final Maze maze = new MazeReader().makeMaze(new InputStreamReader(new FileInputStream("src/test/resources/maze.txt")));
+		Explorer reference = new Explorer(maze);
+		reference.exploreMaze();
+		final String expectedRoute = reference.getRoute().toString();
+
+		int threads = 8;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Route>> routes = new ArrayList<>();
+			for (int i = 0; i < threads * 25; i++) {
+				routes.add(pool.submit(new Callable<Route>() {
+					@Override
+					public Route call() throws Exception {
+						Explorer explorer = new Explorer(maze);
+						explorer.exploreMaze();
+						return explorer.getRoute();
+					}
+				}));
+			}
+			for (Future<Route> route : routes) {
+				assertThat(route.get().length(), Matchers.is(76));
+				assertThat(route.get().toString(), Matchers.is(expectedRoute));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Exploring a long winding corridor must not be bounded by the thread stack size.
+	 */
+	@Test
+	public void testExploreLargeMazeWithoutStackOverflow() throws Exception {
+		int size = 401;
+		Maze maze = new MazeReader().makeMaze(
+				new InputStreamReader(new ByteArrayInputStream(serpentine(size).getBytes())));
+		Explorer explorer = new Explorer(maze);
+		explorer.exploreMaze();
+		assertThat(explorer.whereAmI().getType(), Matchers.is(Cell.Type.FINISH));
+		assertThat(explorer.getRoute().length(), Matchers.is(maze.getNumberOfSpaces() + 2));
+	}
+
+	/**
+	 * Square maze made of a single corridor winding from S (top left) to F (bottom right).
+	 */
+	static String serpentine(int size) {
+		StringBuilder maze = new StringBuilder();
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				char c = 'X';
+				if (x == 0 || x == size - 1 || y == 0 || y == size - 1) {
+					c = 'X';
+				} else if (y % 2 == 1) {
+					c = ' ';
+				} else if ((y % 4 == 2 && x == size - 2) || (y % 4 == 0 && x == 1)) {
+					c = ' ';
+				}
+				if (y == 1 && x == 1) {
+					c = 'S';
+				} else if (y == size - 2 && x == (y % 4 == 1 ? size - 2 : 1)) {
+					c = 'F';
+				}
+				maze.append(c);
+			}
+			maze.append('\n');
+		}
+		return maze.toString();
+	}
+
 }
@@ -0,0 +1,203 @@
+package excelian.maze;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import excelian.maze.Maze.Cell.Type;
+
+/**
+ * Generates square mazes of a given shape, deterministically for a given seed.
+ * The side length is odd, S is at (1,1) and F in the opposite corner of the corridors.
+ * Mazes of random walls, of any size and not always solvable, are generated too.
+ * Held with the tests, the benchmarks compiling against them, so as not to ship in the main artifact.
+ * ThreadSafe
+ * @author FN
+ */
+public final class MazeGenerator {
+
+	public enum Shape {
+		/** a single corridor winding row by row from S to F */
+		CORRIDOR,
+		/** open floor scattered with single cell pillars, which never cut one part of the floor from another */
+		OPEN_ROOM,
+		/** a perfect maze - exactly one route between any two open cells */
+		PERFECT
+	}
+
+	private static final byte WALL = (byte) Type.WALL.ordinal();
+	private static final byte SPACE = (byte) Type.SPACE.ordinal();
+	private static final byte START = (byte) Type.START.ordinal();
+	private static final byte FINISH = (byte) Type.FINISH.ordinal();
+	/** share of candidate pillar positions holding a pillar in open rooms */
+	private static final int PILLAR_PERCENT = 30;
+
+	private MazeGenerator() {
+	}
+
+	/**
+	 * @return side length of the smallest generated maze of at least the given number of cells
+	 */
+	public static int sideFor(long cells) {
+		int side = (int) Math.ceil(Math.sqrt(cells));
+		return Math.max(side | 1, 5);
+	}
+
+	public static Maze generate(Shape shape, int side, long seed) {
+		return new Maze(grid(shape, side, seed), side, side);
+	}
+
+	/**
+	 * @param wallPercent share of the cells within the outer walls walled up, at random
+	 * @return maze walled round, S at (1,1), F at (width - 2, height - 2) and the other cells walls
+	 *         or spaces at random, not always solvable
+	 */
+	public static Maze randomWalls(Random random, int width, int height, int wallPercent) {
+		byte[] grid = new byte[width * height];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				byte type;
+				if (x == 1 && y == 1) {
+					type = START;
+				} else if (x == width - 2 && y == height - 2) {
+					type = FINISH;
+				} else if (x == 0 || y == 0 || x == width - 1 || y == height - 1
+						|| random.nextInt(100) < wallPercent) {
+					type = WALL;
+				} else {
+					type = SPACE;
+				}
+				grid[y * width + x] = type;
+			}
+		}
+		return new Maze(grid, width, height);
+	}
+
+	/**
+	 * @return the maze as text, rows ending with '\n', as read by {@code MazeReader}
+	 */
+	public static byte[] generateText(Shape shape, int side, long seed) {
+		return toText(grid(shape, side, seed), side);
+	}
+
+	static byte[] toText(byte[] grid, int width) {
+		Type[] types = Type.values();
+		byte[] codes = new byte[types.length];
+		for (Type type : types) {
+			codes[type.ordinal()] = (byte) type.getCode().charAt(0);
+		}
+		int height = grid.length / width;
+		byte[] text = new byte[grid.length + height];
+		int t = 0;
+		for (int i = 0; i < grid.length; i++) {
+			text[t++] = codes[grid[i] & Maze.TYPE_MASK];
+			if ((i + 1) % width == 0) {
+				text[t++] = '\n';
+			}
+		}
+		return text;
+	}
+
+	static byte[] grid(Shape shape, int side, long seed) {
+		if (side < 5 || side % 2 == 0) {
+			throw new IllegalArgumentException("Side must be odd and 5 or more, was " + side);
+		}
+		byte[] grid = new byte[side * side];
+		Arrays.fill(grid, WALL);
+		switch (shape) {
+		case CORRIDOR:
+			corridor(grid, side);
+			break;
+		case OPEN_ROOM:
+			openRoom(grid, side, seed);
+			break;
+		case PERFECT:
+			perfect(grid, side, seed);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown shape " + shape);
+		}
+		grid[side + 1] = START;
+		return grid;
+	}
+
+	private static void corridor(byte[] grid, int side) {
+		for (int y = 1; y < side - 1; y++) {
+			if (y % 2 == 1) {
+				Arrays.fill(grid, y * side + 1, y * side + side - 1, SPACE);
+			} else {
+				// gap linking to next row, alternately at the right and left end
+				grid[y * side + (y % 4 == 2 ? side - 2 : 1)] = SPACE;
+			}
+		}
+		int last = side - 2;
+		grid[last * side + (last % 4 == 1 ? side - 2 : 1)] = FINISH;
+	}
+
+	private static void openRoom(byte[] grid, int side, long seed) {
+		long random = seed(seed);
+		for (int y = 1; y < side - 1; y++) {
+			Arrays.fill(grid, y * side + 1, y * side + side - 1, SPACE);
+		}
+		// pillars only on odd,odd positions, away from S and F, so the floor stays connected
+		for (int y = 3; y < side - 3; y += 2) {
+			for (int x = 3; x < side - 3; x += 2) {
+				random = next(random);
+				if ((random >>> 33) % 100 < PILLAR_PERCENT) {
+					grid[y * side + x] = WALL;
+				}
+			}
+		}
+		grid[(side - 2) * side + side - 2] = FINISH;
+	}
+
+	/** Randomised depth first carving over the odd,odd lattice */
+	private static void perfect(byte[] grid, int side, long seed) {
+		long random = seed(seed);
+		int[] steps = { 2, 2 * side, -2, -2 * side };
+		int[] candidates = new int[4];
+		IntStack stack = new IntStack();
+		int first = side + 1;
+		grid[first] = SPACE;
+		stack.push(first);
+		while (!stack.isEmpty()) {
+			int index = stack.peek();
+			int x = index % side;
+			int y = index / side;
+			int options = 0;
+			if (x + 2 < side - 1 && grid[index + 2] == WALL) {
+				candidates[options++] = 0;
+			}
+			if (y + 2 < side - 1 && grid[index + 2 * side] == WALL) {
+				candidates[options++] = 1;
+			}
+			if (x - 2 > 0 && grid[index - 2] == WALL) {
+				candidates[options++] = 2;
+			}
+			if (y - 2 > 0 && grid[index - 2 * side] == WALL) {
+				candidates[options++] = 3;
+			}
+			if (options == 0) {
+				stack.pop();
+				continue;
+			}
+			random = next(random);
+			int step = steps[candidates[(int) ((random >>> 33) % options)]];
+			grid[index + step / 2] = SPACE;
+			grid[index + step] = SPACE;
+			stack.push(index + step);
+		}
+		grid[(side - 2) * side + side - 2] = FINISH;
+	}
+
+	private static long seed(long seed) {
+		return seed == 0 ? 0x9E3779B97F4A7C15L : seed;
+	}
+
+	/** xorshift64 */
+	private static long next(long x) {
+		x ^= x << 13;
+		x ^= x >>> 7;
+		x ^= x << 17;
+		return x;
+	}
+}
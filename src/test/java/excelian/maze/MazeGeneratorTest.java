@@ -0,0 +1,41 @@
+package excelian.maze;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+import java.nio.ByteBuffer;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import excelian.maze.MazeGenerator.Shape;
+
+public class MazeGeneratorTest {
+
+	/**
+	 * Every shape generates a valid maze, the same for the same seed, with F reachable from S.
+	 */
+	@Test
+	public void testGeneratedMazesAreValidAndSolvable() throws Exception {
+		for (Shape shape : Shape.values()) {
+			int side = MazeGenerator.sideFor(10000);
+			assertThat(side, Matchers.is(101));
+			byte[] text = MazeGenerator.generateText(shape, side, 7);
+			assertArrayEquals(shape.name(), text, MazeGenerator.generateText(shape, side, 7));
+			Maze maze = new MazeReader().makeMaze(ByteBuffer.wrap(text));
+			assertThat(maze.size(), Matchers.is(side));
+
+			Explorer explorer = new Explorer(maze, new BreadthFirstSolver());
+			explorer.exploreMaze();
+			assertThat(shape.name(), explorer.getPathLength(), Matchers.greaterThan(0));
+		}
+	}
+
+	@Test
+	public void testPerfectMazeShapeDependsOnSeed() throws Exception {
+		int side = MazeGenerator.sideFor(2500);
+		byte[] first = MazeGenerator.generateText(Shape.PERFECT, side, 1);
+		byte[] second = MazeGenerator.generateText(Shape.PERFECT, side, 2);
+		assertThat(new String(first).equals(new String(second)), Matchers.is(false));
+	}
+}
@@ -0,0 +1,171 @@
+package excelian.maze;
+
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.awt.Point;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import excelian.maze.Maze.Cell;
+import excelian.maze.MazeGenerator.Shape;
+
+public class MazeReaderTest {
+
+	/**
+	 * A memory mapped maze file reads the same as the stream of its characters.
+	 */
+	@Test
+	public void testMappedFileMatchesStream() throws Exception {
+		MazeReader reader = new MazeReader();
+		Maze mapped = reader.makeMaze(new File("src/test/resources/maze.txt"));
+		Maze streamed = reader.makeMaze(new InputStreamReader(new FileInputStream("src/test/resources/maze.txt")));
+		assertThat(mapped.size(), Matchers.is(15));
+		assertThat(mapped.getNumberOfWalls(), Matchers.is(streamed.getNumberOfWalls()));
+		assertThat(mapped.getNumberOfSpaces(), Matchers.is(streamed.getNumberOfSpaces()));
+		assertThat(mapped.getStartCell().getCoords(), Matchers.is(new Point(3, 3)));
+		assertThat(mapped.getFinishCell().getCoords(), Matchers.is(new Point(1, 14)));
+		for (int y = 0; y < mapped.height(); y++) {
+			for (int x = 0; x < mapped.width(); x++) {
+				assertThat(mapped.getCellAt(x, y).getType(), Matchers.is(streamed.getCellAt(x, y).getType()));
+			}
+		}
+	}
+
+	/**
+	 * Rows may end with any of \n, \r\n or \r and blank rows are skipped.
+	 */
+	@Test
+	public void testLineEndingsAndBlankLines() throws Exception {
+		Maze maze = new MazeReader().makeMaze(ByteBuffer.wrap("\n  \nXXXX\r\nXS X\rXX X\n\t\nX XX\r\n\r\nX  X\nXXXF\n\n".getBytes()));
+		assertThat(maze.size(), Matchers.is(6));
+		assertThat(maze.getNumberOfWalls(), Matchers.is(17));
+		assertThat(maze.getNumberOfSpaces(), Matchers.is(5));
+		assertThat(maze.getCellAt(3, 5).getType(), Matchers.is(Cell.Type.FINISH));
+	}
+
+	@Test
+	public void testInvalidTypeCode() throws Exception {
+		assertFailure("XXXX\nXS X\nXXQX\nXXXF", "Type code Q not valid");
+		assertFailure("XXXX\nXS\tX\nXX X\nXXXF", "Type code \t not valid");
+		// the first invalid character of a row is reported, whitespace included unless the row is blank
+		assertFailure("XXXX\nX\taX\nXS X\nXXXF", "Type code \t not valid");
+		assertFailure("XXXX\nXa\tX\nXS X\nXXXF", "Type code a not valid");
+		assertFailure("XXXX\n \taX\nXS X\nXXXF", "Type code \t not valid");
+		assertFailure("XXXX\n \t X\nXS X\nXXXF", "Type code \t not valid");
+	}
+
+	/**
+	 * Of several problems, invalid type codes are reported first, then the first rule broken in the
+	 * order {@code Maze} checks them, however the rows breaking them are ordered.
+	 */
+	@Test
+	public void testFirstOfSeveralProblems() throws Exception {
+		assertFailure(" S X\nXX\n", "Maze must contan 3 or more rows");
+		assertFailure("XX \nX\nXaX\nXSF\n", "Type code a not valid");
+		assertFailure("XXXX\nXSX\nX   \nXXXF", "Row 2 is of non uniform cell size (3) - 4 cells expected.");
+		assertFailure("XXXX\nXS  \nXX\nXXXF", "First and or last cell of row 2 should not be a SPACE type.");
+		assertFailure("XXXX\n S\nXX X\nXXXF", "First and or last cell of row 2 should not be a SPACE type.");
+		assertFailure("XX X\nXSX\nXX X\nXXXF", "Row 2 is of non uniform cell size (3) - 4 cells expected.");
+	}
+
+	/**
+	 * Rules checked while reading are reported as the {@code Maze} reports them.
+	 */
+	@Test
+	public void testValidationMessages() throws Exception {
+		assertFailure("XXXX\nXSFX", "Maze must contan 3 or more rows");
+		assertFailure("XX\nSF\nXX", "Each row must contain at least 3 cells");
+		assertFailure("XXXX\nXS X\nXX  \nXXXF", "First and or last cell of row 3 should not be a SPACE type.");
+		assertFailure("XX X\nXS X\nXX X\nXXXF", "Cell 3 of row 0 contains unexpected space");
+		assertFailure("XXXX\nXS X\nXX X\nXX F", "Cell 3 of row 3 contains unexpected space");
+		assertFailure("XXXX\nXS X\nXS X\nXXXF", "Maze should contain only one [START] point/cell");
+		assertFailure("XXXX\nXSFX\nXX X\nXXXF", "Maze should contain only one [FINISH] point/cell");
+		assertFailure("XXXX\nX  X\nXX X\nXXXF", "Maze should contain a single [START] point/cell");
+		assertFailure("XXXX\nXS X\nXX X\nXXXX", "Maze should contain a single [FINISH] point/cell");
+		assertFailure("XXXX\nXS X\nXX  X\nXXXF", "Row 3 is of non uniform cell size (5) - 4 cells expected.");
+	}
+
+	/**
+	 * Text parsed in chunks of rows reads as when parsed in a single pass, whatever its line endings.
+	 */
+	@Test
+	public void testParallelMatchesSinglePass() throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		for (Shape shape : Shape.values()) {
+			String text = new String(MazeGenerator.generateText(shape, 101, 7), "US-ASCII");
+			for (String maze : Arrays.asList(text, text.replace("\n", "\r\n"), text.replace("\n", "\r"), text.trim(),
+					text.replace("\n", "\r\n").trim())) {
+				ByteBuffer buffer = ByteBuffer.wrap(maze.getBytes("US-ASCII"));
+				Maze single = MazeParser.parse(buffer);
+				Maze parallel = ParallelMazeParser.parse(buffer, pool, 512);
+				assertThat(parallel.width(), Matchers.is(single.width()));
+				assertThat(parallel.height(), Matchers.is(single.height()));
+				assertThat(parallel.getNumberOfWalls(), Matchers.is(single.getNumberOfWalls()));
+				assertThat(parallel.getNumberOfSpaces(), Matchers.is(single.getNumberOfSpaces()));
+				assertThat(parallel.getStartCell().getCoords(), Matchers.is(single.getStartCell().getCoords()));
+				assertThat(parallel.getFinishCell().getCoords(), Matchers.is(single.getFinishCell().getCoords()));
+				assertThat(parallel.checksum(), Matchers.is(single.checksum()));
+			}
+		}
+		pool.shutdown();
+	}
+
+	/**
+	 * Rules broken in any chunk are reported as the single pass parse reports them.
+	 */
+	@Test
+	public void testParallelValidationMessages() throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		String text = new String(MazeGenerator.generateText(Shape.CORRIDOR, 51, 7), "US-ASCII");
+		int row = text.indexOf('\n') + 1;
+		int start = text.indexOf('S');
+		int finish = text.indexOf('F');
+		List<String> broken = Arrays.asList(
+				text.substring(0, 40 * row) + "\n" + text.substring(40 * row),
+				text.substring(0, 40 * row + 1) + "S" + text.substring(40 * row + 2),
+				text.substring(0, 40 * row + 1) + "F" + text.substring(40 * row + 2),
+				text.substring(0, 40 * row) + " " + text.substring(40 * row + 1),
+				text.substring(0, 50 * row + 1) + " " + text.substring(50 * row + 2),
+				text.substring(0, 30 * row + 1) + "Q" + text.substring(30 * row + 2),
+				text.substring(0, 30 * row + 1) + "\t" + text.substring(30 * row + 2),
+				text.substring(0, 30 * row + 1) + text.substring(30 * row + 2),
+				text.substring(0, start) + "X" + text.substring(start + 1),
+				text.substring(0, finish) + "X" + text.substring(finish + 1),
+				"XXXX\nXS X\nXX  \nXXXF", "XX X\nXS X\nXX X\nXXXF", "XXXX\nXS X\nXS X\nXXXF");
+		for (String maze : broken) {
+			ByteBuffer buffer = ByteBuffer.wrap(maze.getBytes("US-ASCII"));
+			String expected = null;
+			try {
+				MazeParser.parse(buffer);
+			} catch (IllegalArgumentException | IllegalStateException e) {
+				expected = e.getMessage();
+			}
+			try {
+				ParallelMazeParser.parse(buffer, pool, 8);
+				assertThat(expected, Matchers.nullValue());
+			} catch (IllegalArgumentException | IllegalStateException e) {
+				assertThat(e.getMessage(), Matchers.is(expected));
+			}
+		}
+		pool.shutdown();
+	}
+
+	private static void assertFailure(String maze, String message) throws Exception {
+		try {
+			new MazeReader().makeMaze(new InputStreamReader(new ByteArrayInputStream(maze.getBytes())));
+			fail("Expected failure: " + message);
+		} catch (IllegalArgumentException | IllegalStateException e) {
+			assertThat(e.getMessage(), Matchers.is(message));
+		}
+	}
+}
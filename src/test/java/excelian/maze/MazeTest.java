@@ -6,6 +6,9 @@ import static org.junit.Assert.fail;
 import java.awt.Point;
 import java.io.ByteArrayInputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -40,6 +43,122 @@ public class MazeTest {
 		assertThat(maze.getCellAt(3,3).getType(), Matchers.is(Cell.Type.FINISH));
 	}
 
+	/**
+	 * Mazes may still be built directly from a grid of {@code Cell}s.
+	 */
+	@Test
+	public void testMazeFromCells() throws Exception {
+		Maze maze = new Maze(cells("XXXX", "XS X", "XX X", "XXXF"));
+		assertThat(maze.getStartCell().getCoords(), Matchers.is(new Point(1, 1)));
+		assertThat(maze.getCellAt(2, 2).getType(), Matchers.is(Cell.Type.SPACE));
+		assertThat(maze.getNumberOfWalls(), Matchers.is(12));
+		assertThat(maze.getNumberOfSpaces(), Matchers.is(2));
+	}
+
+	/**
+	 * Rows of a grid of {@code Cell}s are checked one after the other, size then edges.
+	 */
+	@Test
+	public void testCellsCheckedRowByRow() throws Exception {
+		assertCellsFailure("First and or last cell of row 1 should not be a SPACE type.", " XXX", "XS X", "XX", "XXXF");
+		assertCellsFailure("First and or last cell of row 2 should not be a SPACE type.", "XXXX", "XS  ", "XXX", "XXXF");
+		assertCellsFailure("Row 2 is of non uniform cell size (3) - 4 cells expected.", "XXXX", "XSX", "XX  ", "XXXF");
+	}
+
+	private static void assertCellsFailure(String message, String... rows) {
+		try {
+			new Maze(cells(rows));
+			fail("Expected failure: " + message);
+		} catch (IllegalStateException e) {
+			assertThat(e.getMessage(), Matchers.is(message));
+		}
+	}
+
+	private static Cell[][] cells(String... rows) {
+		Cell[][] cells = new Cell[rows.length][];
+		for (int y = 0; y < rows.length; y++) {
+			cells[y] = new Cell[rows[y].length()];
+			for (int x = 0; x < rows[y].length(); x++) {
+				Cell.Type type = rows[y].charAt(x) == 'X' ? Cell.Type.WALL
+						: rows[y].charAt(x) == 'S' ? Cell.Type.START
+								: rows[y].charAt(x) == 'F' ? Cell.Type.FINISH : Cell.Type.SPACE;
+				cells[y][x] = new Cell(type, new Point(x, y));
+			}
+		}
+		return cells;
+	}
+
+	/**
+	 * Cells may be changed in place, counts and the open neighbours searches rely on following.
+	 */
+	@Test
+	public void testSetCellType() throws Exception {
+		Maze maze = new MazeReader().makeMaze(new InputStreamReader(new ByteArrayInputStream("XXXX\nXS X\nX  X\nXXFX".getBytes())));
+		final List<Point> changed = new ArrayList<>();
+		maze.addEditListener(new MazeEditListener() {
+			@Override
+			public void cellChanged(Maze maze, int x, int y) {
+				changed.add(new Point(x, y));
+			}
+		});
+		maze.setCellType(2, 2, Cell.Type.WALL);
+		assertThat(maze.getCellAt(2, 2).getType(), Matchers.is(Cell.Type.WALL));
+		assertThat(maze.getNumberOfWalls(), Matchers.is(12));
+		assertThat(maze.getNumberOfSpaces(), Matchers.is(2));
+		assertThat(changed, Matchers.contains(new Point(2, 2)));
+		Explorer explorer = new Explorer(maze, new BreadthFirstSolver());
+		explorer.exploreMaze();
+		assertThat(explorer.getPathLength(), Matchers.is(0));
+
+		// move the start next to the finish, as one edit
+		maze.setCellTypes(Arrays.asList(new Cell(Cell.Type.START, new Point(2, 2)),
+				new Cell(Cell.Type.SPACE, new Point(1, 1))));
+		assertThat(maze.getStartCell().getCoords(), Matchers.is(new Point(2, 2)));
+		assertThat(maze.getNumberOfWalls(), Matchers.is(11));
+		assertThat(maze.getNumberOfSpaces(), Matchers.is(3));
+		explorer.exploreMaze();
+		assertThat(explorer.getPathLength(), Matchers.is(2));
+	}
+
+	/**
+	 * Edits leaving the maze invalid fail as validation of a new maze would, and are undone.
+	 */
+	@Test
+	public void testInvalidEditsAreRejected() throws Exception {
+		Maze maze = new MazeReader().makeMaze(new InputStreamReader(new ByteArrayInputStream("XXXX\nXS X\nXX X\nXXXF".getBytes())));
+		String[] expected = { "First and or last cell of row 2 should not be a SPACE type.",
+				"Cell 2 of row 0 contains unexpected space",
+				"Maze should contain a single [START] point/cell",
+				"Maze should contain only one [FINISH] point/cell" };
+		Cell[] edits = { new Cell(Cell.Type.SPACE, new Point(0, 1)), new Cell(Cell.Type.SPACE, new Point(1, 0)),
+				new Cell(Cell.Type.WALL, new Point(1, 1)), new Cell(Cell.Type.FINISH, new Point(2, 1)) };
+		for (int i = 0; i < edits.length; i++) {
+			try {
+				maze.setCellTypes(Arrays.asList(new Cell(Cell.Type.WALL, new Point(2, 2)), edits[i]));
+				fail("Edit " + i + " accepted");
+			} catch (IllegalStateException e) {
+				assertThat(e.getMessage(), Matchers.is(expected[i]));
+			}
+			assertThat(maze.getCellAt(2, 2).getType(), Matchers.is(Cell.Type.SPACE));
+			assertThat(maze.getStartCell().getCoords(), Matchers.is(new Point(1, 1)));
+			assertThat(maze.getFinishCell().getCoords(), Matchers.is(new Point(3, 3)));
+			assertThat(maze.getNumberOfSpaces(), Matchers.is(2));
+		}
+	}
+
+	/**
+	 * An edit setting a cell to S/START then back, in one batch, leaves S/START where it was.
+	 */
+	@Test
+	public void testEditRestoringStart() throws Exception {
+		Maze maze = new MazeReader().makeMaze(new InputStreamReader(new ByteArrayInputStream("XXXX\nXS X\nXX X\nXXXF".getBytes())));
+		maze.setCellTypes(Arrays.asList(new Cell(Cell.Type.START, new Point(2, 1)), new Cell(Cell.Type.SPACE, new Point(2, 1))));
+		assertThat(maze.getStartCell().getCoords(), Matchers.is(new Point(1, 1)));
+		maze.setCellTypes(Arrays.asList(new Cell(Cell.Type.START, new Point(2, 1)), new Cell(Cell.Type.SPACE, new Point(1, 1))));
+		assertThat(maze.getStartCell().getCoords(), Matchers.is(new Point(2, 1)));
+		assertThat(maze.getFinishCell().getCoords(), Matchers.is(new Point(3, 3)));
+	}
+
 	@Test
 	public void ensureAccurateSize() throws Exception {
 		MazeReader reader = new MazeReader();
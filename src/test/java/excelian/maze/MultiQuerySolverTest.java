@@ -0,0 +1,150 @@
+package excelian.maze;
+
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import excelian.maze.MazeGenerator.Shape;
+import excelian.maze.MultiQuerySolver.Path;
+import excelian.maze.MultiQuerySolver.Query;
+
+public class MultiQuerySolverTest {
+
+	/**
+	 * Paths come back in the order of the queries, each as short as a lone breadth first search finds.
+	 */
+	@Test
+	public void testBatchMatchesSingleQueries() throws Exception {
+		Maze maze = MazeGenerator.generate(Shape.PERFECT, 101, 7);
+		List<Query> queries = randomQueries(maze, 500, 11);
+		MultiQuerySolver single = new MultiQuerySolver(maze, SolverType.BREADTH_FIRST, new ForkJoinPool(1));
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (SolverType type : Arrays.asList(SolverType.BREADTH_FIRST, SolverType.A_STAR, SolverType.BIDIRECTIONAL)) {
+				List<Path> paths = new MultiQuerySolver(maze, type, pool).solveAll(queries);
+				assertThat(paths, Matchers.hasSize(queries.size()));
+				for (int i = 0; i < queries.size(); i++) {
+					Path expected = single.solve(queries.get(i));
+					Path path = paths.get(i);
+					assertThat(type + " " + queries.get(i), path.length(), Matchers.is(expected.length()));
+					assertThat(path.isFound(), Matchers.is(true));
+					assertThat(path.getX(0), Matchers.is(expected.getX(0)));
+					assertThat(path.getY(0), Matchers.is(expected.getY(0)));
+					int last = path.length() - 1;
+					assertThat(path.getX(last), Matchers.is(expected.getX(last)));
+					assertThat(path.getY(last), Matchers.is(expected.getY(last)));
+					for (int step = 1; step < path.length(); step++) {
+						int dx = Math.abs(path.getX(step) - path.getX(step - 1));
+						int dy = Math.abs(path.getY(step) - path.getY(step - 1));
+						assertThat(dx + dy, Matchers.is(1));
+					}
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * A solver and state reused across queries, long and short ones mixed, find the routes a fresh
+	 * search does: the state of earlier queries is forgotten, however much of the maze they covered.
+	 */
+	@Test
+	public void testStateReusedAcrossQueries() throws Exception {
+		for (Shape shape : Arrays.asList(Shape.OPEN_ROOM, Shape.PERFECT)) {
+			Maze maze = MazeGenerator.generate(shape, 61, 3);
+			List<Query> queries = randomQueries(maze, 200, 17);
+			for (ShortestPathSolver solver : Arrays.asList(new BreadthFirstSolver(), new AStarSolver(),
+					new JumpPointSolver(), new BidirectionalSolver())) {
+				SearchState state = new SearchState(maze);
+				for (int i = 0; i < queries.size(); i++) {
+					Query query = queries.get(i);
+					int start = maze.indexOf(query.startX(), query.startY());
+					// every other query ends next to its start, after one that may have covered the maze
+					int finish = i % 2 == 0 ? maze.indexOf(query.finishX(), query.finishY()) : nextOpen(maze, start);
+					int[] expected = new BreadthFirstSolver().route(maze, start, finish, new SearchState(maze));
+					int[] route = solver.route(maze, start, finish, state);
+					String message = shape + " " + solver.getClass().getSimpleName() + " " + query;
+					assertThat(message, route.length, Matchers.is(expected.length));
+					assertThat(message, route[0], Matchers.is(start));
+					assertThat(message, route[route.length - 1], Matchers.is(finish));
+				}
+				state.clear();
+				assertThat(state.visitedCount(), Matchers.is(0));
+				for (int index = 0; index < maze.cellCount(); index++) {
+					assertThat(state.parentOf(index), Matchers.is(SearchState.NONE));
+				}
+			}
+		}
+	}
+
+	private static int nextOpen(Maze maze, int index) {
+		int open = maze.openNeighbours(index);
+		for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+			if ((open & 1 << direction) != 0) {
+				return index + maze.offset(direction);
+			}
+		}
+		return index;
+	}
+
+	@Test
+	public void testStartToFinishOfTestMaze() throws Exception {
+		Maze maze = new MazeReader().makeMaze(new File("src/test/resources/maze.txt"));
+		Maze.Cell start = maze.getStartCell();
+		Maze.Cell finish = maze.getFinishCell();
+		Path path = new MultiQuerySolver(maze, SolverType.A_STAR).solve(
+				new Query(start.getX(), start.getY(), finish.getX(), finish.getY()));
+		assertThat(path.length(), Matchers.is(74));
+		Path stay = new MultiQuerySolver(maze, SolverType.A_STAR).solve(
+				new Query(start.getX(), start.getY(), start.getX(), start.getY()));
+		assertThat(stay.length(), Matchers.is(1));
+	}
+
+	@Test
+	public void testUnreachableFinish() throws Exception {
+		String text = "XXXXX\nXS XX\nXXXXX\nX FXX\nXXXXX\n";
+		Maze maze = new MazeReader().makeMaze(ByteBuffer.wrap(text.getBytes()));
+		Path path = new MultiQuerySolver(maze, SolverType.BIDIRECTIONAL).solveAll(
+				Arrays.asList(new Query(1, 1, 2, 3))).get(0);
+		assertThat(path.isFound(), Matchers.is(false));
+		assertThat(path.length(), Matchers.is(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testQueryOnWall() throws Exception {
+		Maze maze = new MazeReader().makeMaze(new File("src/test/resources/maze.txt"));
+		new MultiQuerySolver(maze, SolverType.BREADTH_FIRST).solveAll(Arrays.asList(new Query(0, 0, 1, 1)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDepthFirstRejected() throws Exception {
+		Maze maze = new MazeReader().makeMaze(new File("src/test/resources/maze.txt"));
+		new MultiQuerySolver(maze, SolverType.DEPTH_FIRST);
+	}
+
+	static List<Query> randomQueries(Maze maze, int count, long seed) {
+		Random random = new Random(seed);
+		List<Query> queries = new ArrayList<>();
+		while (queries.size() < count) {
+			int[] cells = new int[4];
+			for (int i = 0; i < 4; i += 2) {
+				do {
+					cells[i] = random.nextInt(maze.width());
+					cells[i + 1] = random.nextInt(maze.height());
+				} while (!maze.isOpen(maze.indexOf(cells[i], cells[i + 1])));
+			}
+			queries.add(new Query(cells[0], cells[1], cells[2], cells[3]));
+		}
+		return queries;
+	}
+}
@@ -0,0 +1,79 @@
+package excelian.maze;
+
+import static org.junit.Assert.assertThat;
+
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import excelian.maze.Maze.Cell;
+import excelian.maze.MazeGenerator.Shape;
+
+public class ParallelBreadthFirstSolverTest {
+
+	/**
+	 * Routes found level by level in small tasks, top down and, switching early, bottom up, are as
+	 * short as those found by a sequential breadth first search, contiguous and through open cells.
+	 */
+	@Test
+	public void testMatchesBreadthFirst() throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (Shape shape : Shape.values()) {
+				for (int seed = 0; seed < 3; seed++) {
+					for (int alpha : new int[] { ParallelBreadthFirstSolver.ALPHA, 100 }) {
+						Maze maze = MazeGenerator.generate(shape, 151, seed);
+						Explorer expected = new Explorer(maze, new BreadthFirstSolver());
+						expected.exploreMaze();
+						ParallelBreadthFirstSolver solver = new ParallelBreadthFirstSolver(pool, 16, 4, alpha);
+						Explorer actual = new Explorer(maze, solver);
+						actual.exploreMaze();
+						String name = shape + " " + seed + " " + alpha;
+						assertThat(name, actual.getSolveStats().isSolved(), Matchers.is(true));
+						assertThat(name, actual.getPathLength(), Matchers.is(expected.getPathLength()));
+						assertThat(name, solver.levels(), Matchers.is(expected.getPathLength() - 1));
+						assertThat(name, actual.whereAmI().isFinish(), Matchers.is(true));
+						Route route = actual.getRoute();
+						assertThat(name, route.length(), Matchers.is(expected.getPathLength()));
+						Iterator<Cell> cells = route.iterator();
+						Cell previous = cells.next();
+						assertThat(previous.isStart(), Matchers.is(true));
+						while (cells.hasNext()) {
+							Cell cell = cells.next();
+							assertThat(name, cell.isWallType(), Matchers.is(false));
+							int dx = Math.abs(cell.getX() - previous.getX());
+							int dy = Math.abs(cell.getY() - previous.getY());
+							assertThat(name, dx + dy, Matchers.is(1));
+							previous = cell;
+						}
+						if (shape == Shape.OPEN_ROOM && alpha == 100) {
+							assertThat(name, solver.bottomUpLevels(), Matchers.greaterThan(0));
+						}
+					}
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testUnsolvable() throws Exception {
+		Maze maze = MazeGenerator.generate(Shape.OPEN_ROOM, 51, 1);
+		for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+			int neighbour = maze.neighbourOf(maze.finishIndex(), direction);
+			if (neighbour >= 0 && maze.cellAt(neighbour).getType() == Cell.Type.SPACE) {
+				maze.setCellType(neighbour % maze.width(), neighbour / maze.width(), Cell.Type.WALL);
+			}
+		}
+		ParallelBreadthFirstSolver solver = new ParallelBreadthFirstSolver(new ForkJoinPool(2), 8, 2, 100);
+		Explorer explorer = new Explorer(maze, solver);
+		explorer.exploreMaze();
+		assertThat(explorer.getSolveStats().isSolved(), Matchers.is(false));
+		assertThat(explorer.getPathLength(), Matchers.is(0));
+		assertThat(explorer.whereAmI().isStart(), Matchers.is(true));
+		assertThat(explorer.getCellsExpanded(), Matchers.is(maze.getNumberOfSpaces() + 1));
+	}
+}
@@ -0,0 +1,138 @@
+package excelian.maze;
+
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import excelian.maze.Maze.Cell;
+import excelian.maze.MazeGenerator.Shape;
+
+public class RouteTest {
+
+	/**
+	 * A route is held as a run per straight stretch and told in words.
+	 */
+	@Test
+	public void testRunLengthEncoding() throws Exception {
+		Maze maze = new MazeReader().makeMaze(
+				new InputStreamReader(new ByteArrayInputStream("XXXXXX\nXS   X\nXXXX X\nXXXX X\nXXXXFX".getBytes())));
+		Explorer explorer = new Explorer(maze, new BreadthFirstSolver());
+		explorer.exploreMaze();
+		Route route = explorer.getRoute();
+		assertThat(route.length(), Matchers.is(7));
+		assertThat(route.segments(), Matchers.is(3));
+		assertThat(route.toString(), Matchers.is("Route [start (1, 1), RIGHT x3, DOWN x3]"));
+		Route.Cursor cursor = route.cursor();
+		int[][] expected = { { 1, 1 }, { 2, 1 }, { 3, 1 }, { 4, 1 }, { 4, 2 }, { 4, 3 }, { 4, 4 } };
+		for (int[] coords : expected) {
+			assertThat(cursor.next(), Matchers.is(true));
+			assertThat(cursor.x(), Matchers.is(coords[0]));
+			assertThat(cursor.y(), Matchers.is(coords[1]));
+		}
+		assertThat(cursor.next(), Matchers.is(false));
+	}
+
+	/**
+	 * Depth first routes, which jump back to where a branch was left, iterate as the cells entered.
+	 */
+	@Test
+	public void testBacktrackingRoute() throws Exception {
+		Maze maze = new MazeReader().makeMaze(new InputStreamReader(new FileInputStream("src/test/resources/maze.txt")));
+		final List<Integer> entered = new ArrayList<>();
+		Explorer explorer = new Explorer(maze, new DepthFirstSolver(), new ExplorationAdapter() {
+			@Override
+			public void onVisit(int index) {
+				entered.add(index);
+			}
+
+			@Override
+			public void onFinish(int index) {
+				entered.add(index);
+			}
+		});
+		explorer.exploreMaze();
+		Route route = explorer.getRoute();
+		assertThat(route.length(), Matchers.is(entered.size()));
+		Iterator<Cell> cells = route.iterator();
+		for (int index : entered) {
+			Cell cell = cells.next();
+			assertThat(maze.indexOf(cell.getX(), cell.getY()), Matchers.is(index));
+			assertThat(cell.isVisited(), Matchers.is(true));
+		}
+		assertThat(cells.hasNext(), Matchers.is(false));
+		assertThat(route.toString(), Matchers.containsString("to ("));
+	}
+
+	/**
+	 * A route shared is left as it was by the moves made after it.
+	 */
+	@Test
+	public void testSharedRouteUnchangedByLaterMoves() throws Exception {
+		Maze maze = new MazeReader().makeMaze(new InputStreamReader(new FileInputStream("src/test/resources/maze.txt")));
+		Explorer explorer = new Explorer(maze);
+		explorer.moveToStartPoint();
+		explorer.turnRight();
+		Route shared = explorer.getRoute();
+		String text = shared.toString();
+		explorer.turnRight();
+		assertThat(shared.length(), Matchers.is(2));
+		assertThat(shared.toString(), Matchers.is(text));
+		assertThat(explorer.getRoute().length(), Matchers.is(3));
+		assertThat(explorer.getRoute().segments(), Matchers.is(3));
+		assertThat(explorer.getRoute().toString(), Matchers.is("Route [start (3, 3), RIGHT x2]"));
+	}
+
+	/**
+	 * Routes serialise to a few bytes per run and read back the same.
+	 */
+	@Test
+	public void testWriteAndRead() throws Exception {
+		for (SolverType solverType : new SolverType[] { SolverType.DEPTH_FIRST, SolverType.BREADTH_FIRST }) {
+			Maze maze = MazeGenerator.generate(Shape.PERFECT, 201, 3);
+			Explorer explorer = new Explorer(maze, solverType.newSolver());
+			explorer.exploreMaze();
+			Route route = explorer.getRoute();
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			route.writeTo(new DataOutputStream(bytes));
+			assertThat(bytes.size(), Matchers.lessThanOrEqualTo(4 * route.segments() + 5));
+			Route read = Route.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), maze);
+			assertThat(read.length(), Matchers.is(route.length()));
+			assertThat(read.toString(), Matchers.is(route.toString()));
+			Route.Cursor expected = route.cursor();
+			Route.Cursor actual = read.cursor();
+			while (expected.next()) {
+				assertThat(actual.next(), Matchers.is(true));
+				assertThat(actual.x(), Matchers.is(expected.x()));
+				assertThat(actual.y(), Matchers.is(expected.y()));
+			}
+			assertThat(actual.next(), Matchers.is(false));
+		}
+	}
+
+	@Test
+	public void testReadRouteLeavingMaze() throws Exception {
+		Maze maze = MazeGenerator.generate(Shape.CORRIDOR, 11, 3);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		// a jump to cell 0 then 10 steps UP
+		out.write(new byte[] { 2, 1, (byte) (10 << 3 | Maze.UP << 1) });
+		try {
+			Route.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), maze);
+			fail("Expected failure");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), Matchers.is("Route leaves the maze at cell -1"));
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package excelian.maze;
+
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import excelian.maze.Maze.Cell;
+import excelian.maze.MazeGenerator.Shape;
+
+public class SimulationTest {
+
+	/**
+	 * Agents advanced by many small tasks on several threads never share a cell, nor step into a wall.
+	 */
+	@Test
+	public void testOneAgentPerCell() throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		for (Shape shape : Shape.values()) {
+			Maze maze = MazeGenerator.generate(shape, 41, 7);
+			int agents = Math.min(500, maze.getNumberOfSpaces() * 3 / 4);
+			Simulation simulation = new Simulation(maze, Simulation.place(maze, agents, 5), pool, 16,
+					Simulation.HISTORY);
+			for (int tick = 0; tick < 60; tick++) {
+				simulation.tick();
+				Set<Integer> cells = new HashSet<>();
+				int moves = 0;
+				int collisions = 0;
+				for (int agent = 0; agent < agents; agent++) {
+					Cell cell = simulation.getCell(agent);
+					assertThat(cell.isWallType(), Matchers.is(false));
+					if (simulation.getFinishTick(agent) < 0) {
+						assertThat(shape + " " + tick, cells.add(maze.indexOf(cell.getX(), cell.getY())),
+								Matchers.is(true));
+						assertThat(simulation.isOccupied(cell.getX(), cell.getY()), Matchers.is(true));
+					}
+					moves += simulation.getMoves(agent);
+					collisions += simulation.getCollisions(agent);
+				}
+				assertThat(simulation.getTotalMoves(), Matchers.is((long) moves));
+				assertThat(simulation.getTotalCollisions(), Matchers.is((long) collisions));
+			}
+			assertThat(simulation.getTicks(), Matchers.is(60));
+		}
+		pool.shutdown();
+	}
+
+	/**
+	 * A lone agent keeping its hand on the wall of a perfect maze walks out of it, each step recorded.
+	 */
+	@Test
+	public void testWallFollowerReachesFinish() throws Exception {
+		Maze maze = MazeGenerator.generate(Shape.PERFECT, 21, 3);
+		Simulation simulation = new Simulation(maze, new int[] { maze.startIndex() }, new ForkJoinPool(1), 16, 4);
+		assertThat(simulation.getHistory(0).size(), Matchers.is(1));
+		while (simulation.getFinished() == 0) {
+			simulation.tick();
+			List<Cell> history = simulation.getHistory(0);
+			assertThat(history.size(), Matchers.is(Math.min(simulation.getTicks() + 1, 4)));
+			Cell previous = history.get(history.size() - 2);
+			Cell cell = history.get(history.size() - 1);
+			assertThat(Math.abs(cell.getX() - previous.getX()) + Math.abs(cell.getY() - previous.getY()),
+					Matchers.is(1));
+			assertThat(simulation.getTicks(), Matchers.lessThan(2 * maze.getNumberOfSpaces()));
+		}
+		assertThat(simulation.getCell(0).isFinish(), Matchers.is(true));
+		assertThat(simulation.getFinishTick(0), Matchers.is(simulation.getTicks()));
+		assertThat(simulation.getMoves(0), Matchers.is(simulation.getTicks()));
+		Cell finish = maze.getFinishCell();
+		assertThat(simulation.isOccupied(finish.getX(), finish.getY()), Matchers.is(false));
+	}
+
+	/**
+	 * An agent finding its next cell occupied turns back, and the agents advance in order on a single
+	 * thread.
+	 */
+	@Test
+	public void testCollision() throws Exception {
+		Maze maze = new MazeReader().makeMaze(new InputStreamReader(
+				new ByteArrayInputStream("XXXXXX\nXS  FX\nXXXXXX".getBytes())));
+		Simulation simulation = new Simulation(maze, new int[] { maze.indexOf(1, 1), maze.indexOf(2, 1) },
+				new ForkJoinPool(1), 16, Simulation.HISTORY);
+		simulation.tick();
+		assertThat(simulation.getCollisions(0), Matchers.is(1));
+		assertThat(simulation.getMoves(0), Matchers.is(0));
+		assertThat(simulation.getMoves(1), Matchers.is(1));
+		simulation.tick();
+		assertThat(simulation.getCell(0).getX(), Matchers.is(2));
+		assertThat(simulation.getFinishTick(1), Matchers.is(2));
+		assertThat(simulation.getFinished(), Matchers.is(1));
+		assertThat(simulation.getTotalMoves(), Matchers.is(3L));
+		assertThat(simulation.getTotalCollisions(), Matchers.is(1L));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testEditedMaze() throws Exception {
+		Maze maze = MazeGenerator.generate(Shape.OPEN_ROOM, 11, 1);
+		Simulation simulation = new Simulation(maze, 10, 1);
+		simulation.tick();
+		int index = 0;
+		while (maze.typeAt(index) != Cell.Type.SPACE) {
+			index++;
+		}
+		maze.setCellType(index % maze.width(), index / maze.width(), Cell.Type.WALL);
+		simulation.tick();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooManyAgents() throws Exception {
+		Maze maze = MazeGenerator.generate(Shape.CORRIDOR, 11, 1);
+		new Simulation(maze, maze.getNumberOfSpaces() + 2, 1);
+	}
+}
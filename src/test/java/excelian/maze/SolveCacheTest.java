@@ -0,0 +1,151 @@
+package excelian.maze;
+
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import excelian.maze.MazeGenerator.Shape;
+import excelian.maze.SolveCache.Result;
+
+public class SolveCacheTest {
+
+	/**
+	 * Text seen before with the same solver type hits, giving the stats and route of solving it.
+	 */
+	@Test
+	public void testHit() throws Exception {
+		byte[] text = MazeGenerator.generateText(Shape.PERFECT, 41, 3);
+		SolveCache cache = new SolveCache(10, 1 << 20);
+		Result result = cache.solve(reader(text), SolverType.BREADTH_FIRST);
+		assertThat(cache.getMisses(), Matchers.is(1L));
+		assertThat(cache.solve(reader(text), SolverType.BREADTH_FIRST), Matchers.sameInstance(result));
+		assertThat(cache.solve(ByteBuffer.wrap(text), SolverType.BREADTH_FIRST), Matchers.sameInstance(result));
+		assertThat(cache.getHits(), Matchers.is(2L));
+		assertThat(cache.getHitRate(), Matchers.closeTo(2 / 3.0, 1e-9));
+
+		Maze maze = new MazeReader().makeMaze(ByteBuffer.wrap(text));
+		Explorer explorer = new Explorer(maze, new BreadthFirstSolver());
+		explorer.exploreMaze();
+		assertThat(result.getStats().isSolved(), Matchers.is(true));
+		assertThat(result.getStats().getPathLength(), Matchers.is(explorer.getPathLength()));
+		assertThat(result.getRoute(maze).toString(), Matchers.is(explorer.getRoute().toString()));
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		explorer.getRoute().writeTo(new DataOutputStream(expected));
+		ByteArrayOutputStream actual = new ByteArrayOutputStream();
+		result.writeRouteTo(new DataOutputStream(actual));
+		assertThat(actual.toByteArray(), Matchers.is(expected.toByteArray()));
+
+		// another solver, or text differing in a single cell, misses
+		Result depthFirst = cache.solve(ByteBuffer.wrap(text), SolverType.DEPTH_FIRST);
+		assertThat(depthFirst, Matchers.not(Matchers.sameInstance(result)));
+		assertThat(depthFirst.getStats().getSolver(), Matchers.is("DepthFirstSolver"));
+		byte[] edited = text.clone();
+		int space = new String(edited, "US-ASCII").indexOf(' ', 42);
+		edited[space] = 'X';
+		assertThat(cache.solve(ByteBuffer.wrap(edited), SolverType.BREADTH_FIRST),
+				Matchers.not(Matchers.sameInstance(result)));
+		assertThat(cache.getMisses(), Matchers.is(3L));
+		assertThat(cache.size(), Matchers.is(3));
+	}
+
+	/**
+	 * The least recently used results are evicted once too many are held, or they take too many bytes.
+	 */
+	@Test
+	public void testEviction() throws Exception {
+		List<byte[]> texts = new ArrayList<>();
+		for (int seed = 0; seed < 4; seed++) {
+			texts.add(MazeGenerator.generateText(Shape.PERFECT, 21, seed));
+		}
+		SolveCache cache = new SolveCache(3, 1 << 20);
+		for (byte[] text : texts.subList(0, 3)) {
+			cache.solve(ByteBuffer.wrap(text), SolverType.A_STAR);
+		}
+		// first used last, second evicted by the fourth
+		cache.solve(ByteBuffer.wrap(texts.get(0)), SolverType.A_STAR);
+		cache.solve(ByteBuffer.wrap(texts.get(3)), SolverType.A_STAR);
+		assertThat(cache.getEvictions(), Matchers.is(1L));
+		assertThat(cache.size(), Matchers.is(3));
+		long misses = cache.getMisses();
+		cache.solve(ByteBuffer.wrap(texts.get(0)), SolverType.A_STAR);
+		assertThat(cache.getMisses(), Matchers.is(misses));
+		cache.solve(ByteBuffer.wrap(texts.get(1)), SolverType.A_STAR);
+		assertThat(cache.getMisses(), Matchers.is(misses + 1));
+
+		Result result = cache.solve(ByteBuffer.wrap(texts.get(0)), SolverType.A_STAR);
+		SolveCache small = new SolveCache(100, 2 * result.bytes() + 1);
+		for (byte[] text : texts) {
+			small.solve(ByteBuffer.wrap(text), SolverType.A_STAR);
+			assertThat(small.getBytes(), Matchers.lessThanOrEqualTo(2 * result.bytes() + 1));
+		}
+		assertThat(small.size(), Matchers.lessThan(texts.size()));
+		assertThat(small.getEvictions(), Matchers.is((long) texts.size() - small.size()));
+
+		SolveCache tiny = new SolveCache(100, SolveCache.ENTRY_BYTES);
+		tiny.solve(ByteBuffer.wrap(texts.get(0)), SolverType.A_STAR);
+		assertThat(tiny.size(), Matchers.is(0));
+		assertThat(tiny.getBytes(), Matchers.is(0L));
+	}
+
+	/**
+	 * Threads looking up the same few texts at once all get results of equal route.
+	 */
+	@Test
+	public void testConcurrentLookups() throws Exception {
+		final List<byte[]> texts = new ArrayList<>();
+		final List<String> routes = new ArrayList<>();
+		for (int seed = 0; seed < 5; seed++) {
+			byte[] text = MazeGenerator.generateText(Shape.OPEN_ROOM, 31, seed);
+			texts.add(text);
+			Maze maze = new MazeReader().makeMaze(ByteBuffer.wrap(text));
+			Explorer explorer = new Explorer(maze, new BidirectionalSolver());
+			explorer.exploreMaze();
+			routes.add(explorer.getRoute().toString());
+		}
+		final SolveCache cache = new SolveCache(3, 1 << 20);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int thread = 0; thread < 8; thread++) {
+				final int first = thread;
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						for (int i = 0; i < 200; i++) {
+							int which = (first + i) % texts.size();
+							byte[] text = texts.get(which);
+							Result result = cache.solve(ByteBuffer.wrap(text), SolverType.BIDIRECTIONAL);
+							Maze maze = new MazeReader().makeMaze(ByteBuffer.wrap(text));
+							assertThat(result.getRoute(maze).toString(), Matchers.is(routes.get(which)));
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertThat(cache.getHits() + cache.getMisses(), Matchers.is(8 * 200L));
+		assertThat(cache.size(), Matchers.lessThanOrEqualTo(3));
+	}
+
+	private static InputStreamReader reader(byte[] text) {
+		return new InputStreamReader(new ByteArrayInputStream(text));
+	}
+}
@@ -0,0 +1,118 @@
+package excelian.maze;
+
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+public class SolveStatsTest {
+
+	/**
+	 * Each exploration yields stats from the search state, the steps reported and the maze contents.
+	 */
+	@Test
+	public void testStatsOfDepthFirstExploration() throws Exception {
+		MazeReader reader = new MazeReader();
+		Maze maze = reader.makeMaze(new File("src/test/resources/maze.txt"));
+		assertThat(reader.getLoadNanos(), Matchers.greaterThan(0L));
+		CountingExplorationListener counter = new CountingExplorationListener();
+		Explorer explorer = new Explorer(maze, new DepthFirstSolver(), counter);
+		explorer.setLoadNanos(reader.getLoadNanos());
+		explorer.exploreMaze();
+
+		SolveStats stats = explorer.getSolveStats();
+		assertThat(stats.getSolver(), Matchers.is("DepthFirstSolver"));
+		assertThat(stats.isSolved(), Matchers.is(true));
+		assertThat(stats.getSpaces(), Matchers.is(maze.getNumberOfSpaces()));
+		assertThat(stats.getWalls(), Matchers.is(maze.getNumberOfWalls()));
+		assertThat(stats.getCellsExpanded(), Matchers.is(75));
+		assertThat(stats.getPathLength(), Matchers.is(74));
+		assertThat(stats.getWallProbes(), Matchers.is(counter.getWalls()));
+		assertThat(stats.getRevisitProbes(), Matchers.is(counter.getRevisits()));
+		assertThat(stats.getBacktracks(), Matchers.is(counter.getBacktracks()));
+		assertThat(stats.getBacktracks(), Matchers.greaterThan(0L));
+		assertThat(stats.getPeakFrontier(), Matchers.greaterThanOrEqualTo(stats.getPathLength() - 1));
+		assertThat(stats.getLoadNanos(), Matchers.is(reader.getLoadNanos()));
+		assertThat(stats.getSolveNanos(), Matchers.greaterThan(0L));
+	}
+
+	/**
+	 * Probes are counted, and walls probed, only by explorers given a listener or asked to count them.
+	 */
+	@Test
+	public void testProbesCountedOnlyWhenAsked() throws Exception {
+		Maze maze = new MazeReader().makeMaze(new File("src/test/resources/maze.txt"));
+		for (SolverType type : SolverType.values()) {
+			Explorer explorer = new Explorer(maze, type.newSolver());
+			explorer.exploreMaze();
+			SolveStats uncounted = explorer.getSolveStats();
+			assertThat(uncounted.isProbesCounted(), Matchers.is(false));
+			assertThat(uncounted.getWallProbes(), Matchers.is(0L));
+			assertThat(uncounted.getBacktracks(), Matchers.is(0L));
+
+			CountingExplorationListener counter = new CountingExplorationListener();
+			Explorer listened = new Explorer(maze, type.newSolver(), counter);
+			listened.exploreMaze();
+			explorer.setCountProbes(true);
+			explorer.exploreMaze();
+			SolveStats counted = explorer.getSolveStats();
+			assertThat(counted.isProbesCounted(), Matchers.is(true));
+			assertThat(counted.getWallProbes(), Matchers.is(counter.getWalls()));
+			assertThat(counted.getRevisitProbes(), Matchers.is(counter.getRevisits()));
+			assertThat(counted.getBacktracks(), Matchers.is(counter.getBacktracks()));
+			assertThat(counted.getCellsExpanded(), Matchers.is(uncounted.getCellsExpanded()));
+			assertThat(counted.getPathLength(), Matchers.is(uncounted.getPathLength()));
+		}
+		SolveStatsRegistry registry = new SolveStatsRegistry();
+		Explorer explorer = new Explorer(maze, new DepthFirstSolver());
+		explorer.setStatsRegistry(registry);
+		explorer.exploreMaze();
+		explorer.setCountProbes(true);
+		explorer.exploreMaze();
+		assertThat(registry.getSolveCount(), Matchers.is(2L));
+		assertThat(registry.getMeanWallProbes(), Matchers.is((double) explorer.getSolveStats().getWallProbes()));
+	}
+
+	/**
+	 * The registry aggregates the stats of every exploration it is given and is readable over JMX.
+	 */
+	@Test
+	public void testRegistryAggregatesOverJmx() throws Exception {
+		Maze maze = new MazeReader().makeMaze(new File("src/test/resources/maze.txt"));
+		SolveStatsRegistry registry = new SolveStatsRegistry();
+		registry.register("test");
+		try {
+			for (SolverType type : SolverType.values()) {
+				Explorer explorer = new Explorer(maze, type.newSolver());
+				explorer.setStatsRegistry(registry);
+				explorer.exploreMaze();
+				explorer.exploreMaze();
+			}
+			int solves = 2 * SolverType.values().length;
+			assertThat(registry.getSolveCount(), Matchers.is((long) solves));
+			assertThat(registry.getUnsolvedCount(), Matchers.is(0L));
+			assertThat(registry.getMeanPathLength(), Matchers.is(74.0));
+			assertThat(registry.getMaxCellsExpanded(), Matchers.greaterThanOrEqualTo(75L));
+			assertThat(registry.getP99CellsExpanded(), Matchers.greaterThanOrEqualTo(registry.getMaxCellsExpanded()));
+			long total = 0;
+			for (long count : registry.getCellsExpandedHistogram()) {
+				total += count;
+			}
+			assertThat(total, Matchers.is((long) solves));
+
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName("excelian.maze:type=SolveStats,name=\"test\"");
+			assertThat((Long) server.getAttribute(name, "SolveCount"), Matchers.is((long) solves));
+			server.invoke(name, "reset", null, null);
+			assertThat(registry.getSolveCount(), Matchers.is(0L));
+		} finally {
+			registry.unregister();
+		}
+	}
+}
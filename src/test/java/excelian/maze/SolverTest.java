@@ -0,0 +1,158 @@
+package excelian.maze;
+
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.util.List;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import excelian.maze.Maze.Cell;
+import excelian.maze.MazeGenerator.Shape;
+import excelian.maze.MultiQuerySolver.Path;
+import excelian.maze.MultiQuerySolver.Query;
+
+public class SolverTest {
+
+	private static final SolverType[] SHORTEST = { SolverType.BREADTH_FIRST, SolverType.A_STAR,
+			SolverType.BIDIRECTIONAL, SolverType.JUMP_POINT, SolverType.JUNCTION_GRAPH };
+
+	/**
+	 * Shortest path solvers agree on the route length, which is never longer than the one walked depth first.
+	 */
+	@Test
+	public void testShortestRouteThroughTestMaze() throws Exception {
+		Maze maze = new MazeReader().makeMaze(new InputStreamReader(new FileInputStream("src/test/resources/maze.txt")));
+		Explorer depthFirst = new Explorer(maze);
+		depthFirst.exploreMaze();
+		assertThat(depthFirst.getPathLength(), Matchers.is(74));
+		assertThat(depthFirst.getCellsExpanded(), Matchers.is(75));
+		for (SolverType type : SHORTEST) {
+			Explorer explorer = new Explorer(maze, type.newSolver());
+			explorer.exploreMaze();
+			assertThat(type.name(), explorer.whereAmI().getType(), Matchers.is(Cell.Type.FINISH));
+			assertThat(type.name(), explorer.getPathLength(), Matchers.is(74));
+			assertThat(type.name(), explorer.getRoute().length(), Matchers.is(74));
+			assertThat(type.name(), explorer.getCellsExpanded(), Matchers.greaterThan(0));
+			assertContiguousRoute(explorer.getRoute());
+		}
+	}
+
+	/**
+	 * On an open floor A* expands far fewer cells than breadth first search for the same route length.
+	 */
+	@Test
+	public void testAStarExpandsFewerCellsOnOpenFloor() throws Exception {
+		StringBuilder text = new StringBuilder();
+		int size = 60;
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				boolean border = x == 0 || y == 0 || x == size - 1 || y == size - 1;
+				text.append(x == 1 && y == 1 ? 'S' : x == size - 2 && y == size - 2 ? 'F' : border ? 'X' : ' ');
+			}
+			text.append('\n');
+		}
+		Maze maze = new MazeReader().makeMaze(new InputStreamReader(new ByteArrayInputStream(text.toString().getBytes())));
+		Explorer breadthFirst = new Explorer(maze, new BreadthFirstSolver());
+		breadthFirst.exploreMaze();
+		Explorer aStar = new Explorer(maze, new AStarSolver());
+		aStar.exploreMaze();
+		Explorer bidirectional = new Explorer(maze, new BidirectionalSolver());
+		bidirectional.exploreMaze();
+		Explorer jumpPoint = new Explorer(maze, new JumpPointSolver());
+		jumpPoint.exploreMaze();
+
+		int shortest = 2 * (size - 3) + 1;
+		assertThat(breadthFirst.getPathLength(), Matchers.is(shortest));
+		assertThat(aStar.getPathLength(), Matchers.is(shortest));
+		assertThat(bidirectional.getPathLength(), Matchers.is(shortest));
+		assertThat(jumpPoint.getPathLength(), Matchers.is(shortest));
+		assertThat(aStar.getCellsExpanded(), Matchers.lessThan(breadthFirst.getCellsExpanded() / 10));
+		assertThat(jumpPoint.getCellsExpanded(), Matchers.lessThan(aStar.getCellsExpanded() / 10));
+		assertContiguousRoute(aStar.getRoute());
+		assertContiguousRoute(bidirectional.getRoute());
+		assertContiguousRoute(jumpPoint.getRoute());
+	}
+
+	/**
+	 * Jump point routes between random cells of generated mazes are as short as breadth first routes.
+	 */
+	@Test
+	public void testJumpPointMatchesBreadthFirst() throws Exception {
+		for (Shape shape : Shape.values()) {
+			for (long seed = 1; seed <= 3; seed++) {
+				Maze maze = MazeGenerator.generate(shape, 51, seed);
+				List<Query> queries = MultiQuerySolverTest.randomQueries(maze, 100, seed);
+				List<Path> expected = new MultiQuerySolver(maze, SolverType.BREADTH_FIRST).solveAll(queries);
+				List<Path> paths = new MultiQuerySolver(maze, SolverType.JUMP_POINT).solveAll(queries);
+				for (int i = 0; i < queries.size(); i++) {
+					assertThat(shape + " " + queries.get(i), paths.get(i).length(), Matchers.is(expected.get(i).length()));
+					for (int step = 1; step < paths.get(i).length(); step++) {
+						Path path = paths.get(i);
+						int dx = Math.abs(path.getX(step) - path.getX(step - 1));
+						int dy = Math.abs(path.getY(step) - path.getY(step - 1));
+						assertThat(dx + dy, Matchers.is(1));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testUnreachableFinish() throws Exception {
+		Maze maze = new MazeReader().makeMaze(
+				new InputStreamReader(new ByteArrayInputStream("XXXXX\nXS XX\nXXXXX\nX FXX\nXXXXX".getBytes())));
+		for (SolverType type : SolverType.values()) {
+			Explorer explorer = new Explorer(maze, type.newSolver());
+			explorer.exploreMaze();
+			assertThat(type.name(), explorer.getPathLength(), Matchers.is(0));
+			assertThat(type.name(), explorer.whereAmI().getType(), Matchers.not(Cell.Type.FINISH));
+		}
+	}
+
+	/**
+	 * Wide and tall mazes are explored to their far side by every solver, and manually.
+	 */
+	@Test
+	public void testRectangularMazes() throws Exception {
+		String wide = "XXXXXXXXXXXXXXXXXXXX\nXS                FX\nXXXXXXXXXXXXXXXXXXXX\n";
+		String tall = "XXX\nXSX\nX X\nX X\nX X\nX X\nX X\nXFX\nXXX\n";
+		for (String text : new String[] { wide, tall }) {
+			Maze maze = new MazeReader().makeMaze(new InputStreamReader(new ByteArrayInputStream(text.getBytes())));
+			int steps = maze.width() + maze.height() - 6;
+			for (SolverType type : SolverType.values()) {
+				Explorer explorer = new Explorer(maze, type.newSolver());
+				explorer.exploreMaze();
+				assertThat(type.name(), explorer.whereAmI().getType(), Matchers.is(Cell.Type.FINISH));
+				assertThat(type.name(), explorer.getPathLength(), Matchers.is(steps + 1));
+			}
+		}
+		Maze maze = new MazeReader().makeMaze(new InputStreamReader(new ByteArrayInputStream(wide.getBytes())));
+		assertThat(maze.width(), Matchers.is(20));
+		assertThat(maze.height(), Matchers.is(3));
+		Explorer explorer = new Explorer(maze);
+		boolean finished = false;
+		for (int i = 0; i < maze.width() && !finished; i++) {
+			finished = explorer.turnRight();
+		}
+		assertThat(finished, Matchers.is(true));
+		assertThat(explorer.whereAmI().getCoords(), Matchers.is(maze.getFinishCell().getCoords()));
+	}
+
+	private static void assertContiguousRoute(Route route) {
+		assertThat(route.getFirst().getType(), Matchers.is(Cell.Type.START));
+		assertThat(route.getLast().getType(), Matchers.is(Cell.Type.FINISH));
+		Cell previous = null;
+		for (Cell cell : route) {
+			assertThat(cell.isWallType(), Matchers.is(false));
+			if (previous != null) {
+				int step = Math.abs(cell.getX() - previous.getX()) + Math.abs(cell.getY() - previous.getY());
+				assertThat(cell.toString(), step, Matchers.is(1));
+			}
+			previous = cell;
+		}
+	}
+}
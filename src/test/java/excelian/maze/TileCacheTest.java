@@ -0,0 +1,157 @@
+package excelian.maze;
+
+import static org.junit.Assert.assertThat;
+
+import java.awt.Point;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hamcrest.Matchers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import excelian.maze.Maze.Cell;
+import excelian.maze.MazeGenerator.Shape;
+
+public class TileCacheTest {
+
+	private File text;
+	private File tiles;
+
+	@Before
+	public void createFiles() throws Exception {
+		text = File.createTempFile("maze", ".txt");
+		tiles = File.createTempFile("maze", ".tiles");
+	}
+
+	@After
+	public void deleteFiles() {
+		text.delete();
+		tiles.delete();
+	}
+
+	/**
+	 * A maze read into a few small tiles reads, and solves, as one held in the heap.
+	 */
+	@Test
+	public void testTiledMatchesHeap() throws Exception {
+		for (Shape shape : Shape.values()) {
+			byte[] bytes = MazeGenerator.generateText(shape, 151, 5);
+			Files.write(text.toPath(), bytes);
+			Maze heap = new MazeReader().makeMaze(ByteBuffer.wrap(bytes));
+			try (TileCache cache = new TileCache(tiles, 1000, 4)) {
+				Maze tiled = new MazeReader().makeMaze(text, cache);
+				assertThat(tiled.getTileCache(), Matchers.sameInstance(cache));
+				assertThat(cache.tileCells(), Matchers.is(1024));
+				assertThat(tiled.width(), Matchers.is(heap.width()));
+				assertThat(tiled.height(), Matchers.is(heap.height()));
+				assertThat(tiled.getNumberOfWalls(), Matchers.is(heap.getNumberOfWalls()));
+				assertThat(tiled.getNumberOfSpaces(), Matchers.is(heap.getNumberOfSpaces()));
+				assertThat(tiled.getStartCell().getCoords(), Matchers.is(heap.getStartCell().getCoords()));
+				assertThat(tiled.checksum(), Matchers.is(heap.checksum()));
+				for (SolverType solverType : SolverType.values()) {
+					Explorer expected = new Explorer(heap, solverType.newSolver());
+					expected.exploreMaze();
+					Explorer actual = new Explorer(tiled, solverType.newSolver());
+					actual.exploreMaze();
+					assertThat(shape + " " + solverType, actual.getRoute().toString(),
+							Matchers.is(expected.getRoute().toString()));
+				}
+				assertThat(cache.getMisses(), Matchers.greaterThan((long) (151 * 151 / 1024)));
+				assertThat(cache.getEvictions(), Matchers.is(cache.getMisses() - 4));
+				assertThat(cache.getHits(), Matchers.greaterThan(cache.getMisses()));
+			}
+		}
+	}
+
+	/**
+	 * Edits are written back to the file as their tiles are evicted, and read again from it.
+	 */
+	@Test
+	public void testEditsWrittenBack() throws Exception {
+		byte[] bytes = MazeGenerator.generateText(Shape.OPEN_ROOM, 101, 5);
+		Files.write(text.toPath(), bytes);
+		Maze heap = new MazeReader().makeMaze(ByteBuffer.wrap(bytes));
+		try (TileCache cache = new TileCache(tiles, 64, 2)) {
+			Maze tiled = new MazeReader().makeMaze(text, cache);
+			int finishX = tiled.getFinishCell().getX();
+			int finishY = tiled.getFinishCell().getY();
+			for (Maze maze : Arrays.asList(heap, tiled)) {
+				maze.setCellTypes(Arrays.asList(new Cell(Cell.Type.SPACE, new Point(finishX, finishY)),
+						new Cell(Cell.Type.FINISH, new Point(3, 1)), new Cell(Cell.Type.SPACE, new Point(2, 1))));
+			}
+			long writes = cache.getWrites();
+			// reading every tile evicts those edited
+			assertThat(tiled.checksum(), Matchers.is(heap.checksum()));
+			assertThat(cache.getWrites(), Matchers.greaterThan(writes));
+			assertThat(tiled.getCellAt(3, 1).getType(), Matchers.is(Cell.Type.FINISH));
+			assertThat(tiled.getCellAt(finishX, finishY).getType(), Matchers.is(Cell.Type.SPACE));
+			Explorer explorer = new Explorer(tiled, new BreadthFirstSolver());
+			explorer.exploreMaze();
+			assertThat(explorer.getPathLength(), Matchers.is(3));
+		}
+	}
+
+	/**
+	 * The tile evicted is that used least recently, not that read first.
+	 */
+	@Test
+	public void testLeastRecentlyUsedEvicted() throws Exception {
+		try (TileCache cache = new TileCache(tiles, 4, 3)) {
+			for (int tile = 0; tile < 3; tile++) {
+				cache.set(tile * 4, (byte) (tile + 1));
+			}
+			cache.get(0);
+			cache.get(8);
+			cache.get(12);
+			assertThat(cache.getEvictions(), Matchers.is(1L));
+			long misses = cache.getMisses();
+			cache.get(0);
+			cache.get(8);
+			assertThat(cache.getMisses(), Matchers.is(misses));
+			assertThat(cache.get(4), Matchers.is((byte) 2));
+			assertThat(cache.getMisses(), Matchers.is(misses + 1));
+			assertThat(cache.getWrites(), Matchers.is(1L));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooManyCells() throws Exception {
+		try (TileCache cache = new TileCache(tiles, 1 << 20, 1)) {
+			new Maze(cache, 1 << 16, 1 << 16, 0, 1, new int[Cell.Type.values().length]);
+		}
+	}
+
+	/**
+	 * Rules broken are reported as when parsing the whole text at once.
+	 */
+	@Test
+	public void testValidationMessages() throws Exception {
+		List<String> broken = Arrays.asList("XXXX\nXSFX", "XX\nSF\nXX", "XXXX\nXS X\nXX  \nXXXF",
+				"XX X\nXS X\nXX X\nXXXF", "XXXX\nXS X\nXX X\nXX F", "XXXX\nXS X\nXS X\nXXXF",
+				"XXXX\nXSFX\nXX X\nXXXF", "XXXX\nX  X\nXX X\nXXXF", "XXXX\nXS X\nXX X\nXXXX",
+				"XXXX\nXS X\nXX  X\nXXXF", "XXXX\nXS X\nXXQX\nXXXF", "XXXX\nXS\tX\nXX X\nXXXF", "XXXX\nX\taX\nXS X\nXXXF",
+				"XXXX\nXa\tX\nXS X\nXXXF", "XXXX\n \taX\nXS X\nXXXF", " S X\nXX\n", "XX \nX\nXaX\nXSF\n",
+				"XXXX\nXSX\nX   \nXXXF", "XXXX\nXS  \nXX\nXXXF", "XXXX\n S\nXX X\nXXXF", "\n \n\t\n",
+				"\n  \nXXXX\r\nXS X\rXX X\n\t\nX XX\r\n\r\nX  X\nXXXF\n\n");
+		for (String maze : broken) {
+			String expected = null;
+			try {
+				MazeParser.parse(ByteBuffer.wrap(maze.getBytes("US-ASCII")));
+			} catch (IllegalArgumentException | IllegalStateException e) {
+				expected = e.getMessage();
+			}
+			Files.write(text.toPath(), maze.getBytes("US-ASCII"));
+			try (TileCache cache = new TileCache(tiles, 4, 2)) {
+				new MazeReader().makeMaze(text, cache);
+				assertThat(maze, expected, Matchers.nullValue());
+			} catch (IllegalArgumentException | IllegalStateException e) {
+				assertThat(maze, e.getMessage(), Matchers.is(expected));
+			}
+		}
+	}
+}